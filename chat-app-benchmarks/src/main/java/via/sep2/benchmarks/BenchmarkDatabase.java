@@ -0,0 +1,171 @@
+package via.sep2.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import via.sep2.server.database.DatabaseConnection;
+import via.sep2.server.util.PasswordHasher;
+import via.sep2.server.util.ServerConfig;
+
+/**
+ * Database shared by the benchmarks of one JMH fork.
+ *
+ * Without a {@code DB_URL} a throwaway PostgreSQL is started and loaded with
+ * {@code database.sql}; with one, that database must already have the
+ * schema. The throwaway database lives as long as the JVM, because
+ * {@link DatabaseConnection} reads {@code DB_URL} only once. Either way the benchmark data is added if it is missing. All of it
+ * is prefixed with {@code bench_}, so a local development database can be
+ * used without touching real accounts.
+ */
+final class BenchmarkDatabase {
+
+    static final int USERS = 2000;
+    static final int MESSAGES_PER_ROOM = 2000;
+    static final String PASSWORD = "benchmark-password";
+
+    private static final String[] FIRST_NAMES = {
+            "Anna", "Bjorn", "Carla", "David", "Emil", "Freja", "Gustav", "Hanna", "Ivan", "Julia",
+    };
+    private static final String[] LAST_NAMES = {
+            "Andersen", "Berg", "Christensen", "Dahl", "Eriksen", "Frost", "Hansen", "Jensen", "Larsen", "Smith",
+    };
+
+    private static EmbeddedPostgres embedded;
+    private static boolean seeded = false;
+
+    private BenchmarkDatabase() {
+    }
+
+    static synchronized void start() throws IOException, SQLException {
+        // Per-call INFO logging would dominate the measurements
+        Logger.getLogger("via.sep2").setLevel(Level.WARNING);
+
+        if (embedded == null && ServerConfig.get("DB_URL") == null) {
+            embedded = EmbeddedPostgres.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(BenchmarkDatabase::closeEmbedded, "BenchmarkDatabase-Shutdown"));
+            System.setProperty("DB_URL", embedded.getJdbcUrl("postgres", "postgres"));
+            System.setProperty("DB_USER", "postgres");
+            System.setProperty("DB_PASSWORD", "postgres");
+            applySchema();
+        }
+
+        if (!seeded) {
+            seedUsers();
+            seeded = true;
+        }
+    }
+
+    /**
+     * Closes the connection pool; the next {@link #start()} reopens it
+     * against the same database.
+     */
+    static synchronized void stop() {
+        DatabaseConnection.closeConnection();
+    }
+
+    static String username(int index) {
+        return String.format("bench_user_%04d", index);
+    }
+
+    /**
+     * A group whose first {@code members} benchmark users are members, with
+     * {@link #MESSAGES_PER_ROOM} messages. Created on first use.
+     */
+    static synchronized int room(int members) throws SQLException {
+        String name = "bench_room_" + members;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement find = conn.prepareStatement("SELECT id FROM group_chats WHERE name = ?")) {
+                find.setString(1, name);
+                ResultSet rs = find.executeQuery();
+                if (rs.next()) {
+                    return rs.getInt("id");
+                }
+            }
+
+            int roomId;
+            try (PreparedStatement create = conn.prepareStatement("""
+                    INSERT INTO group_chats (name, creator_username, description, is_private, max_members)
+                    VALUES (?, ?, 'Benchmark room', FALSE, 1000)
+                    RETURNING id
+                    """)) {
+                create.setString(1, name);
+                create.setString(2, username(0));
+                ResultSet rs = create.executeQuery();
+                rs.next();
+                roomId = rs.getInt("id");
+            }
+
+            try (PreparedStatement join = conn.prepareStatement("""
+                    INSERT INTO group_members (room_id, username, role)
+                    SELECT ?, 'bench_user_' || LPAD(g::text, 4, '0'),
+                           CASE WHEN g = 0 THEN 'CREATOR' ELSE 'MEMBER' END
+                    FROM generate_series(0, ? - 1) g
+                    """)) {
+                join.setInt(1, roomId);
+                join.setInt(2, members);
+                join.executeUpdate();
+            }
+
+            try (PreparedStatement post = conn.prepareStatement("""
+                    INSERT INTO messages (room_id, sender_username, content)
+                    SELECT ?, 'bench_user_' || LPAD((g % ?)::text, 4, '0'),
+                           'Benchmark message ' || g || ': are we still meeting after the lecture?'
+                    FROM generate_series(1, ?) g
+                    """)) {
+                post.setInt(1, roomId);
+                post.setInt(2, members);
+                post.setInt(3, MESSAGES_PER_ROOM);
+                post.executeUpdate();
+            }
+            return roomId;
+        }
+    }
+
+    private static synchronized void closeEmbedded() {
+        try {
+            embedded.close();
+        } catch (IOException e) {
+            Logger.getLogger(BenchmarkDatabase.class.getName()).log(Level.WARNING, "Failed to stop PostgreSQL", e);
+        }
+    }
+
+    private static void applySchema() throws IOException, SQLException {
+        Path schema = Path.of(System.getProperty("bench.schema", "../database.sql"));
+        String sql = Files.readString(schema);
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static void seedUsers() throws SQLException {
+        String passwordHash = PasswordHasher.getInstance().hashPassword(PASSWORD);
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement("""
+                        INSERT INTO users (username, first_name, last_name, password)
+                        VALUES (?, ?, ?, ?)
+                        ON CONFLICT (username) DO NOTHING
+                        """)) {
+            for (int i = 0; i < USERS; i++) {
+                stmt.setString(1, username(i));
+                stmt.setString(2, FIRST_NAMES[i % FIRST_NAMES.length]);
+                stmt.setString(3, LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length]);
+                stmt.setString(4, passwordHash);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package via.sep2.benchmarks;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import via.sep2.server.dao.GroupChatDAO;
+import via.sep2.shared.dto.ChatMemberDTO;
+
+/**
+ * Loading a group's member list, and the cached usernames the server fans
+ * messages out to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupChatDaoBenchmark {
+
+    @Param({ "10", "100", "500" })
+    public int members;
+
+    private GroupChatDAO groupChatDAO;
+    private int roomId;
+
+    @Setup
+    public void setup() throws IOException, SQLException {
+        BenchmarkDatabase.start();
+        groupChatDAO = GroupChatDAO.getInstance();
+        roomId = BenchmarkDatabase.room(members);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkDatabase.stop();
+    }
+
+    @Benchmark
+    public List<ChatMemberDTO> getGroupMembers() throws SQLException {
+        return groupChatDAO.getGroupMembers(roomId);
+    }
+
+    @Benchmark
+    public int getGroupMemberUsernames() throws SQLException {
+        return groupChatDAO.getGroupMemberUsernames(roomId).size();
+    }
+}
@@ -0,0 +1,75 @@
+package via.sep2.benchmarks;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import via.sep2.server.dao.MessageDAO;
+import via.sep2.shared.dto.MessageDTO;
+
+/**
+ * Storing messages, alone and from many senders at once so the batch writer
+ * can coalesce them, and loading a page of chat history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageDaoBenchmark {
+
+    @Param({ "50" })
+    public int pageSize;
+
+    private MessageDAO messageDAO;
+    private int roomId;
+
+    @Setup
+    public void setup() throws IOException, SQLException {
+        BenchmarkDatabase.start();
+        messageDAO = MessageDAO.getInstance();
+        roomId = BenchmarkDatabase.room(100);
+    }
+
+    @TearDown
+    public void tearDown() {
+        messageDAO.shutdown();
+        BenchmarkDatabase.stop();
+    }
+
+    @Benchmark
+    public MessageDTO saveMessage() throws SQLException {
+        return messageDAO.saveMessage(newMessage());
+    }
+
+    @Benchmark
+    @Threads(16)
+    public MessageDTO saveMessageConcurrently() throws SQLException {
+        return messageDAO.saveMessage(newMessage());
+    }
+
+    @Benchmark
+    public List<MessageDTO> getGroupChatMessages() throws SQLException {
+        return messageDAO.getGroupChatMessages(roomId, pageSize);
+    }
+
+    private MessageDTO newMessage() {
+        return new MessageDTO(roomId, BenchmarkDatabase.username(1), "Benchmark message");
+    }
+}
@@ -0,0 +1,37 @@
+package via.sep2.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import via.sep2.shared.dto.MessageDTO;
+
+/**
+ * Realistic history pages without a database: a few people writing short
+ * sentences.
+ */
+final class MessagePages {
+
+    private static final String[] WORDS = {
+            "the", "meeting", "tomorrow", "project", "deadline", "review", "code", "lunch",
+            "ok", "thanks", "sounds", "good", "let's", "push", "release", "report",
+    };
+
+    private MessagePages() {
+    }
+
+    static List<MessageDTO> create(int size, int senders) {
+        Random random = new Random(42);
+        List<MessageDTO> messages = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            StringBuilder content = new StringBuilder();
+            for (int word = 0; word < 12; word++) {
+                content.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            messages.add(new MessageDTO(1000 + i, 42, BenchmarkDatabase.username(i % senders),
+                    content.toString().trim(), 1_700_000_000_000L + i * 1000L, i % 7 == 0,
+                    i % 7 == 0 ? 1_700_000_005_000L : 0, false));
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,43 @@
+package via.sep2.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import via.sep2.server.util.PasswordHasher;
+
+/**
+ * Cost of one login's password check; bounded by the hash iteration count,
+ * not by code around it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordHasherBenchmark {
+
+    private PasswordHasher hasher;
+    private String storedHash;
+
+    @Setup
+    public void setup() {
+        hasher = PasswordHasher.getInstance();
+        storedHash = hasher.hashPassword(BenchmarkDatabase.PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verifyPassword() {
+        return hasher.verifyPassword(BenchmarkDatabase.PASSWORD, storedHash);
+    }
+}
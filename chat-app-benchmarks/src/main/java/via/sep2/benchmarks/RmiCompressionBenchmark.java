@@ -0,0 +1,85 @@
+package via.sep2.benchmarks;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.rmi.server.RemoteObject;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import via.sep2.shared.dto.MessageDTO;
+import via.sep2.shared.dto.MessagePage;
+import via.sep2.shared.rmi.CompressingClientSocketFactory;
+import via.sep2.shared.rmi.CompressingServerSocketFactory;
+
+/**
+ * Fetching a history page over loopback RMI with plain sockets and with the
+ * deflate socket factories. Loopback has no bandwidth limit, so this shows
+ * the CPU price of compression rather than its gain on a slow link.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RmiCompressionBenchmark {
+
+    public interface PageSource extends Remote {
+        List<MessageDTO> page() throws RemoteException;
+    }
+
+    public static class PageSourceImpl extends UnicastRemoteObject implements PageSource {
+        private final List<MessageDTO> messages;
+
+        PageSourceImpl(List<MessageDTO> messages, boolean compress) throws RemoteException {
+            super(0,
+                    compress ? new CompressingClientSocketFactory(1024) : null,
+                    compress ? new CompressingServerSocketFactory(1024) : null);
+            this.messages = messages;
+        }
+
+        @Override
+        public List<MessageDTO> page() {
+            return new MessagePage(messages);
+        }
+    }
+
+    @Param({ "50", "200" })
+    public int pageSize;
+
+    @Param({ "false", "true" })
+    public boolean compress;
+
+    private PageSourceImpl source;
+    private PageSource stub;
+
+    @Setup
+    public void setup() throws RemoteException {
+        source = new PageSourceImpl(MessagePages.create(pageSize, 4), compress);
+        stub = (PageSource) RemoteObject.toStub(source);
+    }
+
+    @TearDown
+    public void tearDown() throws RemoteException {
+        UnicastRemoteObject.unexportObject(source, true);
+    }
+
+    @Benchmark
+    public List<MessageDTO> fetchPage() throws RemoteException {
+        return stub.page();
+    }
+}
@@ -0,0 +1,89 @@
+package via.sep2.benchmarks;
+
+import java.io.IOException;
+import java.rmi.RemoteException;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import via.sep2.server.rmi.ChatServerImpl;
+import via.sep2.shared.dto.MessageDTO;
+
+/**
+ * {@link ChatServerImpl#sendMessage} to a group whose members are all
+ * connected through {@link StubCallback}s.
+ *
+ * {@code send} returns once the message is stored and queued for every
+ * member; {@code sendAndDeliver} also waits until every member's callback
+ * has run, which is the full fan-out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {
+        // Stub clients never send heartbeats; keep them from being evicted
+        "-DHEARTBEAT_INTERVAL_MS=3600000",
+        // send() can queue faster than stubs are called; do not drop them as slow
+        "-DNOTIFY_QUEUE_CAPACITY=1000000",
+        // Deliver each event on its own instead of waiting for a batch
+        "-DEVENT_BATCH_WINDOW_MS=0",
+})
+public class SendMessageFanOutBenchmark {
+
+    @Param({ "10", "100", "500" })
+    public int members;
+
+    private final LongAdder delivered = new LongAdder();
+    private ChatServerImpl server;
+    private int roomId;
+
+    @Setup
+    public void setup() throws IOException, SQLException {
+        BenchmarkDatabase.start();
+        roomId = BenchmarkDatabase.room(members);
+
+        server = new ChatServerImpl();
+        for (int i = 0; i < members; i++) {
+            server.registerClient(BenchmarkDatabase.username(i), new StubCallback(delivered));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.shutdown();
+        BenchmarkDatabase.stop();
+    }
+
+    @Benchmark
+    public void send() throws RemoteException {
+        server.sendMessage(newMessage());
+    }
+
+    @Benchmark
+    public void sendAndDeliver() throws RemoteException {
+        long target = delivered.sum() + members;
+        server.sendMessage(newMessage());
+        while (delivered.sum() < target) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private MessageDTO newMessage() {
+        return new MessageDTO(roomId, BenchmarkDatabase.username(1), "Benchmark message");
+    }
+}
@@ -0,0 +1,88 @@
+package via.sep2.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import via.sep2.shared.dto.ChatRoomDTO;
+import via.sep2.shared.dto.DirectChatDTO;
+import via.sep2.shared.dto.MessageDTO;
+import via.sep2.shared.dto.PresenceStatus;
+import via.sep2.shared.dto.UserDTO;
+import via.sep2.shared.event.JournaledEvent;
+import via.sep2.shared.interfaces.ChatClientCallbackInterface;
+
+/**
+ * In-process client that only counts the events it receives, so fan-out is
+ * measured without network or client work.
+ */
+class StubCallback implements ChatClientCallbackInterface {
+
+    private final LongAdder delivered;
+
+    StubCallback(LongAdder delivered) {
+        this.delivered = delivered;
+    }
+
+    @Override
+    public void onEvent(JournaledEvent event) {
+        delivered.increment();
+    }
+
+    @Override
+    public void onEvents(List<JournaledEvent> events) {
+        delivered.add(events.size());
+    }
+
+    @Override
+    public void onMessageReceived(MessageDTO message) {
+    }
+
+    @Override
+    public void onMessageEdited(MessageDTO message) {
+    }
+
+    @Override
+    public void onMessageDeleted(int messageId, int roomId) {
+    }
+
+    @Override
+    public void onDirectChatCreated(DirectChatDTO directChat) {
+    }
+
+    @Override
+    public void onGroupChatCreated(ChatRoomDTO groupChat) {
+    }
+
+    @Override
+    public void onUserJoinedGroup(int roomId, UserDTO user, String invitedBy) {
+    }
+
+    @Override
+    public void onGroupNameUpdated(int roomId, String newName) {
+    }
+
+    @Override
+    public void onUserLeftGroup(int roomId, UserDTO user, boolean wasRemoved, String removedBy) {
+    }
+
+    @Override
+    public void onPromotedToAdmin(int roomId, UserDTO user, String promotedBy) {
+    }
+
+    @Override
+    public void onDemotedFromAdmin(int roomId, UserDTO user, String demotedBy) {
+    }
+
+    @Override
+    public void onPresenceChanged(Map<String, PresenceStatus> changes) {
+    }
+
+    @Override
+    public void onDisconnect(String reason) {
+    }
+
+    @Override
+    public void ping() {
+    }
+}
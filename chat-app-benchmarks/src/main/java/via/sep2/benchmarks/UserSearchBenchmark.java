@@ -0,0 +1,56 @@
+package via.sep2.benchmarks;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import via.sep2.server.dao.UserDAO;
+import via.sep2.shared.dto.UserDTO;
+
+/**
+ * User search for a username prefix, a first name, a last name and a full
+ * name, over {@link BenchmarkDatabase#USERS} accounts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSearchBenchmark {
+
+    @Param({ "bench_user_01", "freja", "larsen", "anna smith" })
+    public String searchTerm;
+
+    private UserDAO userDAO;
+
+    @Setup
+    public void setup() throws IOException, SQLException {
+        BenchmarkDatabase.start();
+        userDAO = UserDAO.getInstance();
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkDatabase.stop();
+    }
+
+    @Benchmark
+    public List<UserDTO> searchUsers() throws SQLException {
+        return userDAO.searchUsers(searchTerm, 10);
+    }
+}
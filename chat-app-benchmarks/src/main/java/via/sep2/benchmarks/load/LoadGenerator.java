@@ -0,0 +1,319 @@
+package via.sep2.benchmarks.load;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Headless load test for a running chat server.
+ *
+ * Logs in {@code load.users} virtual users (creating their accounts the
+ * first time), puts them into public groups of {@code load.groupSize},
+ * keeps them alive with heartbeats and has them send {@code load.rate}
+ * messages per second each. Sends follow a fixed schedule regardless of
+ * how fast the server answers, and latencies are measured from the
+ * scheduled time, so a saturated server shows up as growing latency
+ * instead of a quietly lower rate.
+ *
+ * Prints one line per second and a capacity report at the end; with
+ * {@code load.histogramFile} the full latency distributions are written as
+ * well. Run with e.g.
+ * {@code java -Dload.users=1000 -cp target/benchmarks.jar via.sep2.benchmarks.load.LoadGenerator}.
+ */
+public class LoadGenerator {
+
+    private static final Logger logger = Logger.getLogger(LoadGenerator.class.getName());
+
+    private static final int MAX_GROUP_SIZE = 1000;
+    private static final long DRAIN_MILLIS = 5000;
+
+    private final LoadSettings settings;
+    private final LoadStats stats = new LoadStats();
+    private final List<VirtualUser> users = new ArrayList<>();
+    private final AtomicInteger loginFailures = new AtomicInteger();
+    private final ScheduledExecutorService heartbeats = Executors.newScheduledThreadPool(4);
+    private int groupCount;
+
+    private volatile boolean sending = true;
+
+    LoadGenerator(LoadSettings settings) {
+        this.settings = settings;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadSettings settings = LoadSettings.fromSystemProperties();
+        if (settings.groupSize() < 2 || settings.groupSize() > MAX_GROUP_SIZE) {
+            throw new IllegalArgumentException("load.groupSize must be between 2 and " + MAX_GROUP_SIZE);
+        }
+
+        int failures = new LoadGenerator(settings).run();
+        // RMI keeps non-daemon threads around for the exported callbacks
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    int run() throws Exception {
+        ExecutorService setup = Executors.newFixedThreadPool(settings.loginConcurrency());
+        try {
+            loginAll(setup);
+            formGroups(setup);
+        } finally {
+            setup.shutdown();
+        }
+        if (users.isEmpty()) {
+            logger.severe("No virtual user could log in");
+            return 1;
+        }
+
+        ExecutorService senders = Executors.newFixedThreadPool(settings.sendThreads());
+        Thread pacer = Thread.ofPlatform().name("Load-Pacer").start(() -> pace(senders));
+
+        Report report = measure();
+
+        sending = false;
+        pacer.join();
+        senders.shutdown();
+        senders.awaitTermination(1, TimeUnit.MINUTES);
+        report.drain();
+        heartbeats.shutdownNow();
+
+        report.print(System.out);
+        if (settings.histogramFile() != null) {
+            report.writeHistograms(settings.histogramFile());
+        }
+
+        for (VirtualUser user : users) {
+            user.logout();
+        }
+        return loginFailures.get() + (int) Math.min(report.total.sendFailures(), Integer.MAX_VALUE);
+    }
+
+    private void loginAll(ExecutorService setup) throws InterruptedException {
+        logger.info("Logging in " + settings.users() + " virtual users over " + settings.transport());
+
+        List<Future<VirtualUser>> logins = new ArrayList<>();
+        for (int i = 0; i < settings.users(); i++) {
+            VirtualUser user = new VirtualUser(settings.username(i), stats);
+            logins.add(setup.submit(() -> {
+                user.connect(settings);
+                user.login(settings.password());
+                startHeartbeats(user);
+                return user;
+            }));
+        }
+
+        for (Future<VirtualUser> login : logins) {
+            try {
+                users.add(login.get());
+            } catch (Exception e) {
+                // Only the first few; a refused server would flood the log
+                if (loginFailures.incrementAndGet() <= 10) {
+                    logger.warning("Login failed: " + e.getCause());
+                }
+            }
+        }
+        logger.info(users.size() + " virtual users logged in, " + loginFailures.get() + " failed");
+    }
+
+    // The first user of every slice of groupSize users creates the group and
+    // the rest join it
+    private void formGroups(ExecutorService setup) throws InterruptedException {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        List<Future<?>> groups = new ArrayList<>();
+        for (int start = 0; start < users.size(); start += settings.groupSize()) {
+            List<VirtualUser> members = users.subList(start, Math.min(start + settings.groupSize(), users.size()));
+            String name = "load-" + runId + "-" + (start / settings.groupSize());
+            groups.add(setup.submit(() -> {
+                VirtualUser creator = members.get(0);
+                creator.createGroup(name, members.size());
+                for (VirtualUser member : members.subList(1, members.size())) {
+                    member.joinGroup(creator.getRoomId(), members.size());
+                }
+                return null;
+            }));
+        }
+
+        for (Future<?> group : groups) {
+            try {
+                group.get();
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not set up groups", e.getCause());
+            }
+        }
+        groupCount = groups.size();
+        logger.info(groupCount + " groups ready");
+    }
+
+    // Right after login, as logging in thousands of users can take longer
+    // than the server waits for a heartbeat; random offsets spread them out
+    private void startHeartbeats(VirtualUser user) {
+        long initialDelay = ThreadLocalRandom.current().nextLong(settings.heartbeatMillis());
+        heartbeats.scheduleAtFixedRate(user::heartbeat, initialDelay, settings.heartbeatMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    // Open loop: message k is due at start + k * interval no matter how long
+    // earlier sends took; users take turns
+    private void pace(ExecutorService senders) {
+        double totalRate = settings.messagesPerSecond() * users.size();
+        if (totalRate <= 0) {
+            return;
+        }
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / totalRate;
+        long start = System.nanoTime();
+
+        for (long k = 0; sending; k++) {
+            long due = start + (long) (k * intervalNanos);
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            VirtualUser user = users.get((int) (k % users.size()));
+            senders.execute(() -> user.send(due));
+        }
+    }
+
+    private Report measure() throws InterruptedException {
+        Report report = new Report();
+        if (settings.warmupSeconds() == 0) {
+            stats.startMeasuring();
+        }
+        int seconds = settings.warmupSeconds() + settings.durationSeconds();
+        for (int second = 1; second <= seconds; second++) {
+            Thread.sleep(1000);
+            boolean warmup = second <= settings.warmupSeconds();
+            report.interval(second, warmup);
+            if (second == settings.warmupSeconds()) {
+                stats.startMeasuring();
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Interval lines while the run goes on and the totals of the measured
+     * part.
+     */
+    private class Report {
+
+        private final Histogram sendTotal = new Histogram(3);
+        private final Histogram deliveryTotal = new Histogram(3);
+        private Histogram sendInterval;
+        private Histogram deliveryInterval;
+        private LoadStats.Counters last = stats.counters();
+        private LoadStats.Counters measuredFrom;
+        private LoadStats.Counters total;
+
+        void interval(int second, boolean warmup) {
+            sendInterval = stats.takeSendInterval(sendInterval);
+            deliveryInterval = stats.takeDeliveryInterval(deliveryInterval);
+            LoadStats.Counters now = stats.counters();
+            LoadStats.Counters delta = now.minus(last);
+
+            if (!warmup) {
+                if (measuredFrom == null) {
+                    measuredFrom = last;
+                }
+                sendTotal.add(sendInterval);
+                deliveryTotal.add(deliveryInterval);
+            }
+
+            System.out.printf(Locale.ROOT, "%s %4ds  sent %7d/s  delivered %8d/s  send p99 %8.2f ms"
+                    + "  delivery p50 %8.2f ms  p99 %8.2f ms  errors %d%n",
+                    warmup ? "warmup" : "      ", second, delta.sent(), delta.delivered(),
+                    millis(sendInterval.getValueAtPercentile(99)),
+                    millis(deliveryInterval.getValueAtPercentile(50)),
+                    millis(deliveryInterval.getValueAtPercentile(99)),
+                    delta.sendFailures() + delta.heartbeatFailures() + delta.reregisterFailures());
+            last = now;
+        }
+
+        // Deliveries of the last messages still arrive after sending stops
+        void drain() throws InterruptedException {
+            long deadline = System.currentTimeMillis() + DRAIN_MILLIS;
+            long delivered = -1;
+            while (System.currentTimeMillis() < deadline && delivered != stats.counters().delivered()) {
+                delivered = stats.counters().delivered();
+                Thread.sleep(500);
+            }
+
+            sendTotal.add(stats.takeSendInterval(sendInterval));
+            deliveryTotal.add(stats.takeDeliveryInterval(deliveryInterval));
+            if (measuredFrom == null) {
+                measuredFrom = last;
+            }
+            total = stats.counters().minus(measuredFrom);
+        }
+
+        void print(PrintStream out) {
+            double seconds = settings.durationSeconds();
+            out.println();
+            out.println("Chat server capacity report");
+            row(out, "transport", settings.transport() + " at " + settings.host());
+            row(out, "virtual users", users.size() + " logged in, " + loginFailures.get() + " failed");
+            row(out, "groups", groupCount + " of up to " + settings.groupSize() + " members");
+            row(out, "offered load", String.format(Locale.ROOT, "%.1f msg/s (%.2f per user)",
+                    settings.messagesPerSecond() * users.size(), settings.messagesPerSecond()));
+            row(out, "measured", settings.durationSeconds() + " s after " + settings.warmupSeconds() + " s warmup");
+            out.println();
+            row(out, "messages sent", String.format(Locale.ROOT, "%d (%.1f/s)", total.sent(), total.sent() / seconds));
+            row(out, "deliveries", String.format(Locale.ROOT, "%d (%.1f/s, %.2f%% of expected)",
+                    total.measuredDeliveries(), total.measuredDeliveries() / seconds,
+                    total.expectedDeliveries() == 0
+                            ? 100.0
+                            : 100.0 * total.measuredDeliveries() / total.expectedDeliveries()));
+            row(out, "send failures", Long.toString(total.sendFailures()));
+            row(out, "heartbeat failures", Long.toString(total.heartbeatFailures()));
+            row(out, "evictions", Long.toString(total.evictions()));
+            row(out, "re-register fails", Long.toString(total.reregisterFailures()));
+            row(out, "disconnects", Long.toString(total.disconnects()));
+            out.println();
+            out.printf(Locale.ROOT, "  %-20s %9s %9s %9s %9s %9s%n",
+                    "latency (ms)", "p50", "p90", "p99", "p99.9", "max");
+            latencyRow(out, "sendMessage call", sendTotal);
+            latencyRow(out, "delivery", deliveryTotal);
+        }
+
+        void writeHistograms(String prefix) throws IOException {
+            write(prefix + "-send.hgrm", sendTotal);
+            write(prefix + "-delivery.hgrm", deliveryTotal);
+        }
+
+        private void write(String file, Histogram histogram) throws IOException {
+            try (PrintStream out = new PrintStream(new FileOutputStream(file))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+            logger.info("Wrote " + file);
+        }
+
+        private void row(PrintStream out, String label, String value) {
+            out.printf(Locale.ROOT, "  %-20s %s%n", label, value);
+        }
+
+        private void latencyRow(PrintStream out, String label, Histogram histogram) {
+            out.printf(Locale.ROOT, "  %-20s %9.2f %9.2f %9.2f %9.2f %9.2f%n", label,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        }
+
+        private double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
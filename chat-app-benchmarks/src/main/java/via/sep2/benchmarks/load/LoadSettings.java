@@ -0,0 +1,69 @@
+package via.sep2.benchmarks.load;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Settings of a load run, read from {@code -Dload.*} system properties and
+ * optionally from a scenario file named by {@code -Dload.scenario}.
+ */
+record LoadSettings(
+        String host,
+        int rmiPort,
+        int nioPort,
+        boolean nio,
+        int users,
+        int groupSize,
+        double messagesPerSecond,
+        int warmupSeconds,
+        int durationSeconds,
+        int loginConcurrency,
+        int sendThreads,
+        long heartbeatMillis,
+        String userPrefix,
+        String password,
+        String histogramFile) {
+
+    static LoadSettings fromSystemProperties() throws IOException {
+        Properties properties = new Properties();
+        String scenario = System.getProperty("load.scenario");
+        if (scenario != null) {
+            try (Reader reader = Files.newBufferedReader(Path.of(scenario))) {
+                properties.load(reader);
+            }
+        }
+        // Explicit -D flags override the scenario file
+        properties.putAll(System.getProperties());
+        return fromProperties(properties);
+    }
+
+    private static LoadSettings fromProperties(Properties p) {
+        return new LoadSettings(
+                p.getProperty("load.host", "localhost"),
+                Integer.parseInt(p.getProperty("load.rmiPort", "1099")),
+                Integer.parseInt(p.getProperty("load.nioPort", "1100")),
+                "nio".equalsIgnoreCase(p.getProperty("load.transport", "rmi")),
+                Integer.parseInt(p.getProperty("load.users", "100")),
+                Integer.parseInt(p.getProperty("load.groupSize", "10")),
+                Double.parseDouble(p.getProperty("load.rate", "0.2")),
+                Integer.parseInt(p.getProperty("load.warmup", "10")),
+                Integer.parseInt(p.getProperty("load.duration", "60")),
+                Integer.parseInt(p.getProperty("load.loginConcurrency", "16")),
+                Integer.parseInt(p.getProperty("load.sendThreads", "64")),
+                Long.parseLong(p.getProperty("load.heartbeatMs", "5000")),
+                p.getProperty("load.userPrefix", "load_"),
+                p.getProperty("load.password", "LoadTest123!"),
+                p.getProperty("load.histogramFile"));
+    }
+
+    String username(int index) {
+        return userPrefix + index;
+    }
+
+    String transport() {
+        return nio ? "nio" : "rmi";
+    }
+}
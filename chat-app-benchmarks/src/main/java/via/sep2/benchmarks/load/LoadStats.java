@@ -0,0 +1,108 @@
+package via.sep2.benchmarks.load;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latencies and counters shared by all virtual users. Latencies are
+ * recorded in microseconds into {@link Recorder}s, which the reporter swaps
+ * out once per interval without stopping the recording threads.
+ *
+ * Expected and actual deliveries are matched by the time a message was due,
+ * so messages sent during warmup but delivered after it do not count
+ * towards the measured delivery ratio.
+ */
+class LoadStats {
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Recorder sendLatency = new Recorder(HIGHEST_MICROS, 3);
+    private final Recorder deliveryLatency = new Recorder(HIGHEST_MICROS, 3);
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder expectedDeliveries = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder measuredDeliveries = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+    private final LongAdder heartbeatFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder reregisterFailures = new LongAdder();
+    private final LongAdder disconnects = new LongAdder();
+
+    private volatile long measuredFromNanos = Long.MAX_VALUE;
+
+    void startMeasuring() {
+        measuredFromNanos = System.nanoTime();
+    }
+
+    void sent(long intendedNanos, int recipients) {
+        sent.increment();
+        if (intendedNanos >= measuredFromNanos) {
+            expectedDeliveries.add(recipients);
+        }
+        sendLatency.recordValue(toMicros(System.nanoTime() - intendedNanos));
+    }
+
+    void delivered(long intendedNanos) {
+        delivered.increment();
+        if (intendedNanos >= measuredFromNanos) {
+            measuredDeliveries.increment();
+        }
+        deliveryLatency.recordValue(toMicros(System.nanoTime() - intendedNanos));
+    }
+
+    void sendFailed() {
+        sendFailures.increment();
+    }
+
+    void heartbeatFailed() {
+        heartbeatFailures.increment();
+    }
+
+    void evicted() {
+        evictions.increment();
+    }
+
+    void reregisterFailed() {
+        reregisterFailures.increment();
+    }
+
+    void disconnected() {
+        disconnects.increment();
+    }
+
+    Histogram takeSendInterval(Histogram recycle) {
+        return sendLatency.getIntervalHistogram(recycle);
+    }
+
+    Histogram takeDeliveryInterval(Histogram recycle) {
+        return deliveryLatency.getIntervalHistogram(recycle);
+    }
+
+    Counters counters() {
+        return new Counters(sent.sum(), expectedDeliveries.sum(), delivered.sum(), measuredDeliveries.sum(),
+                sendFailures.sum(), heartbeatFailures.sum(), evictions.sum(), reregisterFailures.sum(),
+                disconnects.sum());
+    }
+
+    // expectedDeliveries and measuredDeliveries only cover messages due after startMeasuring
+    record Counters(long sent, long expectedDeliveries, long delivered, long measuredDeliveries,
+            long sendFailures, long heartbeatFailures, long evictions, long reregisterFailures, long disconnects) {
+
+        Counters minus(Counters earlier) {
+            return new Counters(sent - earlier.sent, expectedDeliveries - earlier.expectedDeliveries,
+                    delivered - earlier.delivered, measuredDeliveries - earlier.measuredDeliveries,
+                    sendFailures - earlier.sendFailures, heartbeatFailures - earlier.heartbeatFailures,
+                    evictions - earlier.evictions, reregisterFailures - earlier.reregisterFailures,
+                    disconnects - earlier.disconnects);
+        }
+    }
+
+    // Values beyond the histogram range are clamped rather than dropped
+    private static long toMicros(long nanos) {
+        return Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), HIGHEST_MICROS);
+    }
+}
@@ -0,0 +1,124 @@
+package via.sep2.benchmarks.load;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import via.sep2.server.transport.NioTransport;
+import via.sep2.server.transport.RmiTransport;
+import via.sep2.shared.dto.ChatRoomDTO;
+import via.sep2.shared.dto.MessageDTO;
+import via.sep2.shared.dto.SessionDTO;
+import via.sep2.shared.event.ChatEvent;
+import via.sep2.shared.event.JournaledEvent;
+import via.sep2.shared.interfaces.ChatClientCallbackInterface;
+import via.sep2.shared.interfaces.ChatServerInterface;
+
+/**
+ * In-memory stand-in for the chat server that implements only what
+ * {@link LoadGenerator} calls: logins always succeed, groups live in a map
+ * and every message is pushed straight to the members' callbacks. There is
+ * no database, authentication or journal, so runs against it measure the
+ * transports and the generator, not the server. Serves RMI on
+ * {@code load.rmiPort} and NIO on {@code load.nioPort} at the same time.
+ */
+public class StubChatServer {
+
+    private static final Logger logger = Logger.getLogger(StubChatServer.class.getName());
+
+    private static final int PUSH_THREADS = 64;
+
+    private final Map<String, ChatClientCallbackInterface> callbacks = new ConcurrentHashMap<>();
+    private final Map<Integer, List<String>> rooms = new ConcurrentHashMap<>();
+    private final AtomicInteger roomIds = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService pushes = Executors.newFixedThreadPool(PUSH_THREADS);
+
+    public static void main(String[] args) throws Exception {
+        int rmiPort = Integer.getInteger("load.rmiPort", 1099);
+        int nioPort = Integer.getInteger("load.nioPort", 1100);
+
+        ChatServerInterface server = new StubChatServer().asServer();
+        new RmiTransport("ChatServer", rmiPort).start(server);
+        new NioTransport(nioPort, 4L << 20).start(server);
+        logger.info("Stub chat server listening on RMI port " + rmiPort + " and NIO port " + nioPort);
+        Thread.currentThread().join();
+    }
+
+    ChatServerInterface asServer() {
+        return (ChatServerInterface) Proxy.newProxyInstance(ChatServerInterface.class.getClassLoader(),
+                new Class<?>[] { ChatServerInterface.class },
+                (proxy, method, args) -> invoke(proxy, method, args));
+    }
+
+    private Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "usernameExists":
+                // Every account exists, so no user is ever created
+                return true;
+            case "openSession":
+                return new SessionDTO("stub-" + args[0], null);
+            case "registerClient":
+                callbacks.put((String) args[0], (ChatClientCallbackInterface) args[1]);
+                return null;
+            case "heartbeat":
+                return callbacks.containsKey((String) args[0]);
+            case "createGroupChat":
+                return createGroup((String) args[1]);
+            case "joinGroupChat":
+                rooms.get((Integer) args[1]).add((String) args[0]);
+                return null;
+            case "sendMessage":
+                fanOut((MessageDTO) args[0]);
+                return null;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "StubChatServer";
+            default:
+                if (method.getReturnType() == void.class) {
+                    return null;
+                }
+                throw new UnsupportedOperationException("Not implemented by the stub: " + method.getName());
+        }
+    }
+
+    private ChatRoomDTO createGroup(String creator) {
+        int id = roomIds.incrementAndGet();
+        rooms.put(id, new CopyOnWriteArrayList<>(List.of(creator)));
+        ChatRoomDTO room = new ChatRoomDTO();
+        room.setId(id);
+        return room;
+    }
+
+    private void fanOut(MessageDTO message) {
+        List<JournaledEvent> events = List.of(
+                new JournaledEvent(sequence.incrementAndGet(), new ChatEvent.MessageReceived(message)));
+        for (String member : rooms.getOrDefault(message.getRoomId(), List.of())) {
+            ChatClientCallbackInterface callback = callbacks.get(member);
+            if (callback == null) {
+                continue;
+            }
+            pushes.execute(() -> {
+                try {
+                    callback.onEvents(events);
+                } catch (Exception e) {
+                    // Evict like the real server; the member's next heartbeat re-registers it
+                    logger.log(Level.FINE, "Dropping callback of " + member, e);
+                    callbacks.remove(member, callback);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package via.sep2.benchmarks.load;
+
+import java.io.IOException;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.List;
+import java.util.Map;
+
+import via.sep2.client.rmi.NioServerConnection;
+import via.sep2.shared.dto.ChatRoomDTO;
+import via.sep2.shared.dto.DirectChatDTO;
+import via.sep2.shared.dto.MessageDTO;
+import via.sep2.shared.dto.PresenceStatus;
+import via.sep2.shared.dto.SessionDTO;
+import via.sep2.shared.dto.UserDTO;
+import via.sep2.shared.event.JournaledEvent;
+import via.sep2.shared.interfaces.ChatClientCallbackInterface;
+import via.sep2.shared.interfaces.ChatServerInterface;
+
+/**
+ * One simulated chat client: its own server connection, session and
+ * callback, without any of the JavaFX client.
+ *
+ * Messages it sends carry the {@link System#nanoTime()} they were meant to
+ * be sent at, so every other member that receives one can record the
+ * end-to-end latency. All virtual users run in the same JVM, so the clocks
+ * agree.
+ */
+class VirtualUser implements ChatClientCallbackInterface {
+
+    private static final String SERVER_NAME = "ChatServer";
+    private static final String CONTENT_PREFIX = "load:";
+
+    private final String username;
+    private final LoadStats stats;
+
+    private ChatServerInterface server;
+    private NioServerConnection nioConnection;
+    private String sessionToken;
+    private int roomId;
+    private int recipients;
+
+    VirtualUser(String username, LoadStats stats) {
+        this.username = username;
+        this.stats = stats;
+    }
+
+    String getUsername() {
+        return username;
+    }
+
+    int getRoomId() {
+        return roomId;
+    }
+
+    void connect(LoadSettings settings) throws IOException, NotBoundException {
+        if (settings.nio()) {
+            nioConnection = new NioServerConnection(settings.host(), settings.nioPort(), this);
+            server = nioConnection.getServer();
+        } else {
+            Registry registry = LocateRegistry.getRegistry(settings.host(), settings.rmiPort());
+            server = (ChatServerInterface) registry.lookup(SERVER_NAME);
+            UnicastRemoteObject.exportObject(this, 0);
+        }
+    }
+
+    // Creates the account on the first run against a database
+    void login(String password) throws RemoteException {
+        if (!server.usernameExists(username)) {
+            server.createAccount(username, password, "Load", "User");
+        }
+        SessionDTO session = server.openSession(username, password);
+        sessionToken = session.getToken();
+        server.registerClient(username, this);
+    }
+
+    void createGroup(String name, int members) throws RemoteException {
+        ChatRoomDTO room = server.createGroupChat(name, username, "Load test", false, members);
+        roomId = room.getId();
+        recipients = members - 1;
+    }
+
+    void joinGroup(int roomId, int members) throws RemoteException {
+        server.joinGroupChat(username, roomId);
+        this.roomId = roomId;
+        recipients = members - 1;
+    }
+
+    // An evicted user registers again like the real client does; messages
+    // sent to it meanwhile are lost and show in the delivery ratio
+    void heartbeat() {
+        boolean registered;
+        try {
+            registered = server.heartbeat(username, sessionToken);
+        } catch (RemoteException e) {
+            stats.heartbeatFailed();
+            return;
+        }
+        if (registered) {
+            return;
+        }
+
+        stats.evicted();
+        try {
+            server.registerClient(username, this);
+        } catch (RemoteException e) {
+            // Counted as failed; the next heartbeat tries again
+            stats.reregisterFailed();
+        }
+    }
+
+    // intendedNanos is when the schedule wanted this message out, so a
+    // backed-up sender shows up as latency instead of a lower rate
+    void send(long intendedNanos) {
+        MessageDTO message = new MessageDTO(0, roomId, username, CONTENT_PREFIX + intendedNanos,
+                System.currentTimeMillis(), false, 0, false);
+        try {
+            server.sendMessage(message);
+            stats.sent(intendedNanos, recipients);
+        } catch (RemoteException e) {
+            stats.sendFailed();
+        }
+    }
+
+    void logout() {
+        try {
+            server.logout(username);
+        } catch (RemoteException e) {
+            // The report is already written
+        }
+        if (nioConnection != null) {
+            nioConnection.close();
+        } else {
+            try {
+                UnicastRemoteObject.unexportObject(this, true);
+            } catch (RemoteException e) {
+                // Not exported
+            }
+        }
+    }
+
+    @Override
+    public void onEvent(JournaledEvent event) throws RemoteException {
+        event.event().deliverTo(this);
+    }
+
+    @Override
+    public void onEvents(List<JournaledEvent> events) throws RemoteException {
+        for (JournaledEvent event : events) {
+            event.event().deliverTo(this);
+        }
+    }
+
+    @Override
+    public void onMessageReceived(MessageDTO message) {
+        String content = message.getContent();
+        if (username.equals(message.getSenderUsername()) || !content.startsWith(CONTENT_PREFIX)) {
+            return;
+        }
+        long intendedNanos = Long.parseLong(content, CONTENT_PREFIX.length(), content.length(), 10);
+        stats.delivered(intendedNanos);
+    }
+
+    @Override
+    public void onMessageEdited(MessageDTO message) {
+    }
+
+    @Override
+    public void onMessageDeleted(int messageId, int roomId) {
+    }
+
+    @Override
+    public void onDirectChatCreated(DirectChatDTO directChat) {
+    }
+
+    @Override
+    public void onGroupChatCreated(ChatRoomDTO groupChat) {
+    }
+
+    @Override
+    public void onUserJoinedGroup(int roomId, UserDTO user, String invitedBy) {
+    }
+
+    @Override
+    public void onGroupNameUpdated(int roomId, String newName) {
+    }
+
+    @Override
+    public void onUserLeftGroup(int roomId, UserDTO user, boolean wasRemoved, String removedBy) {
+    }
+
+    @Override
+    public void onPromotedToAdmin(int roomId, UserDTO user, String promotedBy) {
+    }
+
+    @Override
+    public void onDemotedFromAdmin(int roomId, UserDTO user, String demotedBy) {
+    }
+
+    @Override
+    public void onPresenceChanged(Map<String, PresenceStatus> changes) {
+    }
+
+    @Override
+    public void onDisconnect(String reason) {
+        stats.disconnected();
+    }
+
+    @Override
+    public void ping() {
+    }
+}
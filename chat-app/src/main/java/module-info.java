@@ -5,6 +5,7 @@ module via.sep2 {
     requires java.sql;
     requires java.base;
     requires java.rmi;
+    requires java.management;
     requires io.github.cdimascio.dotenv.java;
 
     requires java.logging;
@@ -13,6 +14,11 @@ module via.sep2 {
     exports via.sep2.client.rmi to java.rmi;
     exports via.sep2.shared.dto to java.rmi;
     exports via.sep2.shared.interfaces to java.rmi;
+    exports via.sep2.shared.event to java.rmi;
+    exports via.sep2.shared.rmi to java.rmi;
+
+    exports via.sep2.server.metrics to java.management;
+    exports via.sep2.server.database to java.management;
 
     exports via.sep2.client.connection;
 
@@ -41,6 +47,7 @@ module via.sep2 {
     opens via.sep2.client.view.chat.group to javafx.fxml;
 
     opens via.sep2.shared.dto to java.rmi;
+    opens via.sep2.shared.event to java.rmi;
 
     opens via.sep2.client.factory;
 }
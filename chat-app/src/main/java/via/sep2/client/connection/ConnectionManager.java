@@ -2,6 +2,7 @@ package via.sep2.client.connection;
 
 import java.rmi.NotBoundException;
 import java.rmi.RemoteException;
+import java.util.Map;
 import java.util.logging.Logger;
 import via.sep2.client.event.EventBus;
 import via.sep2.client.event.events.ConnectionLostEvent;
@@ -11,6 +12,8 @@ import via.sep2.client.event.events.GroupNameUpdatedEvent;
 import via.sep2.client.event.events.MessageDeletedEvent;
 import via.sep2.client.event.events.MessageEditedEvent;
 import via.sep2.client.event.events.MessageReceivedEvent;
+import via.sep2.client.event.events.PresenceChangedEvent;
+import via.sep2.client.event.events.SessionResumedEvent;
 import via.sep2.client.event.events.UserDemotedEvent;
 import via.sep2.client.event.events.UserJoinedGroupEvent;
 import via.sep2.client.event.events.UserLeftGroupEvent;
@@ -23,6 +26,8 @@ import via.sep2.client.state.SessionState;
 import via.sep2.shared.dto.ChatRoomDTO;
 import via.sep2.shared.dto.DirectChatDTO;
 import via.sep2.shared.dto.MessageDTO;
+import via.sep2.shared.dto.PresenceStatus;
+import via.sep2.shared.dto.ResumeDTO;
 import via.sep2.shared.dto.UserDTO;
 
 public class ConnectionManager {
@@ -36,11 +41,13 @@ public class ConnectionManager {
     private SessionState sessionState;
     private EventBus eventBus;
     private UserDTO currentUser;
+    private final HeartbeatMonitor heartbeatMonitor;
 
     private ConnectionManager() {
         this.sessionState = new DisconnectedState();
         this.sessionState.setContext(this);
         this.eventBus = new EventBus();
+        this.heartbeatMonitor = new HeartbeatMonitor(this);
         logger.info("ConnectionManager initialized");
     }
 
@@ -67,6 +74,7 @@ public class ConnectionManager {
     }
 
     public void disconnect() {
+        heartbeatMonitor.stop();
         if (rmiClient != null) {
             rmiClient.disconnect();
             rmiClient = null;
@@ -76,6 +84,61 @@ public class ConnectionManager {
         logger.info("Disconnected from server");
     }
 
+    /**
+     * Restores a dropped connection with the session token of the previous
+     * login. Events missed meanwhile are published like live ones, followed
+     * by a {@link SessionResumedEvent}.
+     *
+     * @throws IllegalStateException if there is no session to resume
+     */
+    public synchronized UserDTO resume() throws RemoteException, NotBoundException {
+        if (rmiClient == null || rmiClient.getSessionToken() == null) {
+            throw new IllegalStateException("No session to resume");
+        }
+
+        ResumeDTO result = rmiClient.resume();
+        setSessionState(new ConnectedState());
+        sessionState.handleLogin(result.getUser());
+
+        for (MessageDTO message : result.getMissedMessages()) {
+            eventBus.publish(new MessageReceivedEvent(message));
+        }
+        eventBus.publish(new SessionResumedEvent(result.getUser(), result.isComplete()));
+
+        logger.info("Session resumed, " + result.getMissedEvents().size() + " missed events and "
+                + result.getMissedMessages().size() + " missed messages replayed");
+        return result.getUser();
+    }
+
+    /**
+     * Registers the callback again after the server dropped it, then catches
+     * up on the events missed meanwhile.
+     */
+    public synchronized void reregister() throws RemoteException {
+        getRmiClient().registerForChat(currentUser.getUsername());
+        catchUpEvents();
+    }
+
+    /**
+     * Gives up on a connection that could not be restored.
+     */
+    void connectionLost(String reason) {
+        heartbeatMonitor.stop();
+        currentUser = null;
+        setSessionState(new DisconnectedState());
+        eventBus.publish(new ConnectionLostEvent(reason));
+    }
+
+    /**
+     * Fetches the events missed while the connection stayed up but callbacks
+     * did not arrive, and publishes them like live ones, followed by a
+     * {@link SessionResumedEvent}.
+     */
+    public synchronized void catchUpEvents() throws RemoteException {
+        boolean complete = getRmiClient().catchUpEvents();
+        eventBus.publish(new SessionResumedEvent(currentUser, complete));
+    }
+
     private void setupEventForwarding() {
         rmiClient.addEventListener(
                 new ChatEventListener() {
@@ -152,11 +215,14 @@ public class ConnectionManager {
                         eventBus.publish(new GroupNameUpdatedEvent(roomId, newName));
                     }
 
+                    @Override
+                    public void onPresenceChanged(Map<String, PresenceStatus> changes) {
+                        eventBus.publish(new PresenceChangedEvent(changes));
+                    }
+
                     @Override
                     public void onDisconnect(String reason) {
-                        currentUser = null;
-                        setSessionState(new DisconnectedState());
-                        eventBus.publish(new ConnectionLostEvent(reason));
+                        connectionLost(reason);
                     }
                 });
     }
@@ -194,14 +260,17 @@ public class ConnectionManager {
     public void setCurrentUser(UserDTO user) {
         this.currentUser = user;
         if (user != null) {
+            heartbeatMonitor.start();
             logger.info("Current user set to: " + user.getUsername());
         } else {
+            heartbeatMonitor.stop();
             logger.info("Current user cleared");
         }
     }
 
     public void shutdown() {
         disconnect();
+        heartbeatMonitor.shutdown();
         eventBus.shutdown();
         logger.info("ConnectionManager shutdown");
     }
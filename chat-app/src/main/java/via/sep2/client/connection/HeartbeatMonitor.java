@@ -0,0 +1,141 @@
+package via.sep2.client.connection;
+
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.rmi.ServerException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import via.sep2.client.rmi.ChatClientImpl;
+
+/**
+ * Keeps a logged-in client's connection alive and repairs it.
+ *
+ * Every interval the client sends a heartbeat. After {@link #MAX_MISSES}
+ * failed heartbeats in a row the connection is considered lost and the
+ * session is resumed with its token, retrying with exponential backoff and
+ * jitter so clients do not reconnect in lockstep after a server restart.
+ * If heartbeats get through but the server reports that it dropped the
+ * callback, or has not pinged for as long, the client registers again and
+ * catches up on missed events instead.
+ */
+class HeartbeatMonitor {
+
+    private static final Logger logger = Logger.getLogger(HeartbeatMonitor.class.getName());
+
+    // Match the server defaults of HEARTBEAT_INTERVAL_MS and HEARTBEAT_MAX_MISSES
+    private static final long INTERVAL_MILLIS = 5000;
+    private static final int MAX_MISSES = 3;
+
+    private static final long MIN_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final ConnectionManager connectionManager;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "Heartbeat-Thread");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Only touched on the scheduler thread, apart from start and stop
+    private ScheduledFuture<?> heartbeatTask;
+    private int missedHeartbeats = 0;
+    private boolean reconnecting = false;
+    private int reconnectAttempts = 0;
+
+    HeartbeatMonitor(ConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    synchronized void start() {
+        if (heartbeatTask == null) {
+            heartbeatTask = scheduler.scheduleWithFixedDelay(this::beat, INTERVAL_MILLIS, INTERVAL_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    synchronized void stop() {
+        if (heartbeatTask != null) {
+            heartbeatTask.cancel(false);
+            heartbeatTask = null;
+        }
+        if (!scheduler.isShutdown()) {
+            scheduler.execute(() -> {
+                missedHeartbeats = 0;
+                reconnecting = false;
+                reconnectAttempts = 0;
+            });
+        }
+    }
+
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void beat() {
+        if (reconnecting) {
+            return;
+        }
+
+        try {
+            ChatClientImpl client = connectionManager.getRmiClient();
+            boolean registered = client.heartbeat();
+            missedHeartbeats = 0;
+
+            long sincePing = System.currentTimeMillis() - client.getLastServerPing();
+            if (!registered || sincePing > INTERVAL_MILLIS * MAX_MISSES) {
+                logger.info("Server is not reaching this client, registering again");
+                connectionManager.reregister();
+            }
+        } catch (RemoteException e) {
+            missedHeartbeats++;
+            logger.warning("Heartbeat failed (" + missedHeartbeats + "/" + MAX_MISSES + "): " + e.getMessage());
+            if (missedHeartbeats >= MAX_MISSES) {
+                reconnecting = true;
+                scheduleReconnect();
+            }
+        } catch (IllegalStateException e) {
+            // Logged out or disconnected in the meantime; stop() follows
+        } catch (RuntimeException e) {
+            // Thrown out of the task it would cancel every later heartbeat
+            logger.log(Level.WARNING, "Heartbeat failed unexpectedly", e);
+        }
+    }
+
+    private void scheduleReconnect() {
+        long backoff = Math.min(MAX_BACKOFF_MILLIS, MIN_BACKOFF_MILLIS << Math.min(reconnectAttempts, 15));
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        reconnectAttempts++;
+
+        logger.info("Reconnecting in " + delay + " ms (attempt " + reconnectAttempts + ")");
+        scheduler.schedule(this::reconnect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void reconnect() {
+        if (!reconnecting) {
+            return;
+        }
+
+        try {
+            connectionManager.resume();
+            reconnecting = false;
+            reconnectAttempts = 0;
+            missedHeartbeats = 0;
+            logger.info("Reconnected to server");
+        } catch (ServerException | IllegalStateException e) {
+            // The server is reachable but refused the session, or there is none to resume
+            reconnecting = false;
+            logger.warning("Could not resume session: " + e.getMessage());
+            connectionManager.connectionLost("Session could not be resumed");
+        } catch (RemoteException | NotBoundException e) {
+            scheduleReconnect();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Reconnect failed unexpectedly", e);
+            scheduleReconnect();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package via.sep2.client.event.events;
+
+import java.util.Map;
+import via.sep2.shared.dto.PresenceStatus;
+
+/**
+ * Contacts whose online status changed, batched by the server.
+ */
+public class PresenceChangedEvent {
+
+    private final Map<String, PresenceStatus> changes;
+
+    public PresenceChangedEvent(Map<String, PresenceStatus> changes) {
+        this.changes = changes;
+    }
+
+    public Map<String, PresenceStatus> getChanges() {
+        return changes;
+    }
+}
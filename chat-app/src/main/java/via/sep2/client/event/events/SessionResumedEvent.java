@@ -0,0 +1,27 @@
+package via.sep2.client.event.events;
+
+import via.sep2.shared.dto.UserDTO;
+
+/**
+ * Published after a dropped connection was resumed with the session token.
+ * Missed messages have already been published as {@link MessageReceivedEvent}s
+ * unless {@link #isComplete()} is false, in which case views should reload.
+ */
+public class SessionResumedEvent {
+
+    private final UserDTO user;
+    private final boolean complete;
+
+    public SessionResumedEvent(UserDTO user, boolean complete) {
+        this.user = user;
+        this.complete = complete;
+    }
+
+    public UserDTO getUser() {
+        return user;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+}
@@ -7,6 +7,9 @@ import java.util.logging.Logger;
 import via.sep2.client.command.CommandManager;
 import via.sep2.client.service.AuthService;
 import via.sep2.client.service.ChatService;
+import via.sep2.client.service.MessageCacheService;
+import via.sep2.client.service.ReadReceiptService;
+import via.sep2.client.service.UserSearchService;
 
 public class ServiceFactory {
     private static final Logger logger = Logger.getLogger(ServiceFactory.class.getName());
@@ -39,6 +42,12 @@ public class ServiceFactory {
             return new AuthService();
         } else if (serviceClass == ChatService.class) {
             return new ChatService();
+        } else if (serviceClass == MessageCacheService.class) {
+            return new MessageCacheService();
+        } else if (serviceClass == UserSearchService.class) {
+            return new UserSearchService();
+        } else if (serviceClass == ReadReceiptService.class) {
+            return new ReadReceiptService();
         } else if (serviceClass == CommandManager.class) {
             return new CommandManager();
         }
@@ -56,6 +65,10 @@ public class ServiceFactory {
         services.values().forEach(service -> {
             if (service instanceof CommandManager) {
                 ((CommandManager) service).shutdown();
+            } else if (service instanceof UserSearchService) {
+                ((UserSearchService) service).shutdown();
+            } else if (service instanceof ReadReceiptService) {
+                ((ReadReceiptService) service).shutdown();
             }
         });
         services.clear();
@@ -1,20 +1,32 @@
 package via.sep2.client.rmi;
 
+import java.io.IOException;
+import java.rmi.ConnectException;
 import java.rmi.NotBoundException;
 import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.rmi.server.UnicastRemoteObject;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Logger;
 import via.sep2.shared.dto.ChatMemberDTO;
+import via.sep2.shared.dto.ChatOverviewDTO;
 import via.sep2.shared.dto.ChatRoomDTO;
 import via.sep2.shared.dto.DirectChatDTO;
+import via.sep2.shared.dto.EventReplayDTO;
 import via.sep2.shared.dto.MessageDTO;
+import via.sep2.shared.dto.PresenceStatus;
+import via.sep2.shared.dto.ResumeDTO;
+import via.sep2.shared.dto.SessionDTO;
 import via.sep2.shared.dto.UserDTO;
+import via.sep2.shared.event.JournaledEvent;
 import via.sep2.shared.interfaces.ChatClientCallbackInterface;
 import via.sep2.shared.interfaces.ChatServerInterface;
+import via.sep2.shared.rmi.CompressingClientSocketFactory;
+import via.sep2.shared.rmi.CompressingServerSocketFactory;
 
 public class ChatClientImpl
         extends UnicastRemoteObject
@@ -25,22 +37,51 @@ public class ChatClientImpl
     private static final String SERVER_NAME = "ChatServer";
     private static final String SERVER_HOST = "localhost";
     private static final int RMI_PORT = 1099;
+    // Replayed events can overlap with live ones; remember this many to drop duplicates
+    private static final int SEEN_EVENTS_CAPACITY = 4096;
+    // Calls to the server are compressed when the server enables it; callbacks
+    // when the client is started with -Dchat.rmi.compression=true
+    private static final boolean COMPRESS_CALLBACKS = Boolean.getBoolean("chat.rmi.compression");
+    private static final int COMPRESSION_THRESHOLD = Integer.getInteger("chat.rmi.compression.threshold", 1024);
+    // -Dchat.transport=nio talks to the server's NIO transport instead of the RMI registry
+    private static final boolean USE_NIO = "nio".equalsIgnoreCase(System.getProperty("chat.transport"));
+    private static final int NIO_PORT = Integer.getInteger("chat.nio.port", 1100);
 
     private ChatServerInterface server;
+    private NioServerConnection nioConnection;
     private UserDTO currentUser;
+    private String sessionToken;
+    // Newest message id this client has received; where a resume picks up
+    private volatile int lastSeenMessageId = 0;
+    // Newest journal sequence number received; where an event replay picks up
+    private long lastEventSequence = 0;
+    private final LinkedHashSet<Long> seenEvents = new LinkedHashSet<>();
+    private volatile long lastServerPing = System.currentTimeMillis();
     private boolean connected = false;
 
     private final List<ChatEventListener> eventListeners = new CopyOnWriteArrayList<>();
 
     public ChatClientImpl() throws RemoteException {
-        super();
+        super(0,
+                COMPRESS_CALLBACKS ? new CompressingClientSocketFactory(COMPRESSION_THRESHOLD) : null,
+                COMPRESS_CALLBACKS ? new CompressingServerSocketFactory(COMPRESSION_THRESHOLD) : null);
     }
 
     public void connect() throws RemoteException, NotBoundException {
         logger.info("Connecting to chat server...");
 
-        Registry registry = LocateRegistry.getRegistry(SERVER_HOST, RMI_PORT);
-        server = (ChatServerInterface) registry.lookup(SERVER_NAME);
+        if (USE_NIO) {
+            closeNioConnection();
+            try {
+                nioConnection = new NioServerConnection(SERVER_HOST, NIO_PORT, this);
+            } catch (IOException e) {
+                throw new ConnectException("Cannot reach chat server on port " + NIO_PORT, e);
+            }
+            server = nioConnection.getServer();
+        } else {
+            Registry registry = LocateRegistry.getRegistry(SERVER_HOST, RMI_PORT);
+            server = (ChatServerInterface) registry.lookup(SERVER_NAME);
+        }
         connected = true;
 
         logger.info("Connected to chat server");
@@ -57,6 +98,14 @@ public class ChatClientImpl
         }
         connected = false;
         currentUser = null;
+        closeNioConnection();
+    }
+
+    private void closeNioConnection() {
+        if (nioConnection != null) {
+            nioConnection.close();
+            nioConnection = null;
+        }
     }
 
     public boolean isConnected() {
@@ -69,7 +118,9 @@ public class ChatClientImpl
             throw new IllegalStateException("Not connected to server");
         }
 
-        currentUser = server.login(username, password);
+        SessionDTO session = server.openSession(username, password);
+        currentUser = session.getUser();
+        sessionToken = session.getToken();
         server.registerClient(username, this);
 
         logger.info("Logged in as: " + username);
@@ -101,11 +152,91 @@ public class ChatClientImpl
             return;
         }
 
+        server.endSession(sessionToken);
         server.logout(currentUser.getUsername());
         currentUser = null;
+        sessionToken = null;
+        lastSeenMessageId = 0;
+        synchronized (seenEvents) {
+            lastEventSequence = 0;
+            seenEvents.clear();
+        }
         logger.info("Logged out successfully");
     }
 
+    public String getSessionToken() {
+        return sessionToken;
+    }
+
+    /**
+     * Reconnects after a dropped connection using the session token instead
+     * of the password, and re-registers this client for callbacks.
+     */
+    public ResumeDTO resume() throws RemoteException, NotBoundException {
+        if (sessionToken == null) {
+            throw new IllegalStateException("No session to resume");
+        }
+
+        connect();
+        ResumeDTO result = server.resume(sessionToken, lastSeenMessageId, getLastEventSequence(), this);
+        currentUser = result.getUser();
+        for (JournaledEvent event : result.getMissedEvents()) {
+            onEvent(event);
+        }
+        result.getMissedMessages().forEach(this::trackSeen);
+
+        logger.info("Resumed session as: " + currentUser.getUsername());
+        return result;
+    }
+
+    /**
+     * Fetches and applies the events missed since the last one received,
+     * e.g. after the server dropped this client's callback. Returns false if
+     * the server no longer has all of them and the caller has to reload.
+     */
+    public boolean catchUpEvents() throws RemoteException {
+        if (!connected || currentUser == null) {
+            throw new IllegalStateException("Not connected or not logged in");
+        }
+
+        EventReplayDTO replay = server.getEventsSince(currentUser.getUsername(), getLastEventSequence());
+        for (JournaledEvent event : replay.getEvents()) {
+            onEvent(event);
+        }
+        return replay.isComplete();
+    }
+
+    /**
+     * Tells the server this client is alive. Returns false if the server has
+     * dropped this client's callback and it needs to register again.
+     */
+    public boolean heartbeat() throws RemoteException {
+        if (!connected || currentUser == null) {
+            throw new IllegalStateException("Not connected or not logged in");
+        }
+
+        return server.heartbeat(currentUser.getUsername(), sessionToken);
+    }
+
+    /**
+     * When the server last reached this client through a callback.
+     */
+    public long getLastServerPing() {
+        return lastServerPing;
+    }
+
+    private long getLastEventSequence() {
+        synchronized (seenEvents) {
+            return lastEventSequence;
+        }
+    }
+
+    private void trackSeen(MessageDTO message) {
+        if (message.getId() > lastSeenMessageId) {
+            lastSeenMessageId = message.getId();
+        }
+    }
+
     public List<UserDTO> searchUsers(String searchTerm, int limit)
             throws RemoteException {
         if (!connected) {
@@ -142,6 +273,20 @@ public class ChatClientImpl
         return server.getDirectChat(currentUser.getUsername(), otherUser);
     }
 
+    public List<ChatOverviewDTO> getMyChatOverview() throws RemoteException {
+        if (!connected || currentUser == null) {
+            throw new IllegalStateException("Not connected or not logged in");
+        }
+
+        List<ChatOverviewDTO> chats = server.getChatOverview(currentUser.getUsername());
+        for (ChatOverviewDTO chat : chats) {
+            if (chat.getLastMessageId() > lastSeenMessageId) {
+                lastSeenMessageId = chat.getLastMessageId();
+            }
+        }
+        return chats;
+    }
+
     public List<DirectChatDTO> getMyDirectChats() throws RemoteException {
         if (!connected || currentUser == null) {
             throw new IllegalStateException("Not connected or not logged in");
@@ -287,6 +432,49 @@ public class ChatClientImpl
         return server.getGroupChatMessages(roomId, limit);
     }
 
+    public List<MessageDTO> getMessagesBefore(int chatId, int beforeMessageId, int limit)
+            throws RemoteException {
+        if (!connected) {
+            throw new IllegalStateException("Not connected to server");
+        }
+
+        return server.getMessagesBefore(chatId, beforeMessageId, limit);
+    }
+
+    public List<MessageDTO> getMessagesAfter(int chatId, int afterMessageId, int limit)
+            throws RemoteException {
+        if (!connected) {
+            throw new IllegalStateException("Not connected to server");
+        }
+
+        return server.getMessagesAfter(chatId, afterMessageId, limit);
+    }
+
+    public List<MessageDTO> getMessagesSince(int chatId, long timestamp)
+            throws RemoteException {
+        if (!connected) {
+            throw new IllegalStateException("Not connected to server");
+        }
+
+        return server.getMessagesSince(chatId, timestamp);
+    }
+
+    public Map<String, PresenceStatus> getContactPresence() throws RemoteException {
+        if (!connected || currentUser == null) {
+            throw new IllegalStateException("Not connected or not logged in");
+        }
+
+        return server.getPresence(currentUser.getUsername());
+    }
+
+    public void markRead(int chatId, int messageId) throws RemoteException {
+        if (!connected || currentUser == null) {
+            throw new IllegalStateException("Not connected or not logged in");
+        }
+
+        server.markRead(currentUser.getUsername(), chatId, messageId);
+    }
+
     public void promoteToAdmin(String username, int roomId)
             throws RemoteException {
         if (!connected || currentUser == null) {
@@ -325,9 +513,32 @@ public class ChatClientImpl
     @Override
     public void onMessageReceived(MessageDTO message) throws RemoteException {
         logger.info("Received message from " + message.getSenderUsername());
+        trackSeen(message);
         notifyListeners(listener -> listener.onMessageReceived(message));
     }
 
+    @Override
+    public void onEvent(JournaledEvent event) throws RemoteException {
+        lastServerPing = System.currentTimeMillis();
+        synchronized (seenEvents) {
+            if (!seenEvents.add(event.sequence())) {
+                return;
+            }
+            if (seenEvents.size() > SEEN_EVENTS_CAPACITY) {
+                seenEvents.remove(seenEvents.iterator().next());
+            }
+            lastEventSequence = Math.max(lastEventSequence, event.sequence());
+        }
+        event.event().deliverTo(this);
+    }
+
+    @Override
+    public void onEvents(List<JournaledEvent> events) throws RemoteException {
+        for (JournaledEvent event : events) {
+            onEvent(event);
+        }
+    }
+
     @Override
     public void onDirectChatCreated(DirectChatDTO directChat)
             throws RemoteException {
@@ -400,6 +611,18 @@ public class ChatClientImpl
         notifyListeners(listener -> listener.onMessageDeleted(messageId, roomId));
     }
 
+    @Override
+    public void onPresenceChanged(Map<String, PresenceStatus> changes)
+            throws RemoteException {
+        lastServerPing = System.currentTimeMillis();
+        notifyListeners(listener -> listener.onPresenceChanged(changes));
+    }
+
+    @Override
+    public void ping() throws RemoteException {
+        lastServerPing = System.currentTimeMillis();
+    }
+
     @Override
     public void onDisconnect(String reason) throws RemoteException {
         logger.warning("Disconnected from server: " + reason);
@@ -1,8 +1,10 @@
 package via.sep2.client.rmi;
 
+import java.util.Map;
 import via.sep2.shared.dto.ChatRoomDTO;
 import via.sep2.shared.dto.DirectChatDTO;
 import via.sep2.shared.dto.MessageDTO;
+import via.sep2.shared.dto.PresenceStatus;
 import via.sep2.shared.dto.UserDTO;
 
 public interface ChatEventListener {
@@ -30,5 +32,7 @@ public interface ChatEventListener {
 
     void onGroupNameUpdated(int roomId, String newName);
 
+    void onPresenceChanged(Map<String, PresenceStatus> changes);
+
     void onDisconnect(String reason);
 }
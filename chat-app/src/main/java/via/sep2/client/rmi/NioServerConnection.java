@@ -0,0 +1,190 @@
+package via.sep2.client.rmi;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.rmi.RemoteException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import via.sep2.shared.interfaces.ChatClientCallbackInterface;
+import via.sep2.shared.interfaces.ChatServerInterface;
+import via.sep2.shared.transport.NioProtocol;
+
+/**
+ * Client end of the framed socket transport. {@link #getServer()} is a
+ * {@link ChatServerInterface} whose calls are sent as requests over a single
+ * socket; pushes from the server on the same socket are delivered to the
+ * callback on the reader thread.
+ */
+public class NioServerConnection {
+
+    private static final Logger logger = Logger.getLogger(
+            NioServerConnection.class.getName());
+    private static final long CALL_TIMEOUT_MILLIS = 30_000;
+    private static final Map<String, Method> CALLBACK_METHODS = NioProtocol.methodsOf(
+            ChatClientCallbackInterface.class);
+
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final DataInputStream in;
+    private final ChatClientCallbackInterface callback;
+    private final ChatServerInterface server;
+
+    private final AtomicLong nextRequestId = new AtomicLong();
+    private final Map<Long, CompletableFuture<NioProtocol.Response>> pending = new ConcurrentHashMap<>();
+    private volatile boolean closed = false;
+
+    public NioServerConnection(String host, int port, ChatClientCallbackInterface callback) throws IOException {
+        this.socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.callback = callback;
+        this.server = (ChatServerInterface) Proxy.newProxyInstance(
+                ChatServerInterface.class.getClassLoader(),
+                new Class<?>[] { ChatServerInterface.class },
+                (proxy, method, args) -> invoke(proxy, method, args));
+
+        // Virtual, so a load test can hold thousands of connections in one JVM
+        Thread.ofVirtual().name("NIO-Client-Reader").start(this::readLoop);
+    }
+
+    public ChatServerInterface getServer() {
+        return server;
+    }
+
+    public void close() {
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+        failPending("Connection closed");
+    }
+
+    private Object invoke(Object proxy, Method method, Object[] args) throws RemoteException {
+        if (method.getDeclaringClass() == Object.class) {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> "NioServer[" + socket + "]";
+            };
+        }
+
+        // The server pushes callbacks over this connection instead
+        Object[] sent = args != null ? args.clone() : new Object[0];
+        for (int i = 0; i < sent.length; i++) {
+            if (sent[i] instanceof ChatClientCallbackInterface) {
+                sent[i] = NioProtocol.CallbackMarker.INSTANCE;
+            }
+        }
+
+        long id = nextRequestId.incrementAndGet();
+        CompletableFuture<NioProtocol.Response> response = new CompletableFuture<>();
+        pending.put(id, response);
+
+        NioProtocol.Response result;
+        try {
+            send(new NioProtocol.Request(id, NioProtocol.methodKey(method), sent));
+            result = response.get(CALL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (IOException e) {
+            close();
+            throw new RemoteException("Connection to server lost: " + e.getMessage(), e);
+        } catch (TimeoutException e) {
+            throw new RemoteException(method.getName() + " timed out after " + CALL_TIMEOUT_MILLIS + " ms");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RemoteException remote) {
+                throw remote;
+            }
+            throw new RemoteException(String.valueOf(e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RemoteException("Interrupted while waiting for " + method.getName());
+        } finally {
+            pending.remove(id);
+        }
+
+        // Outside the try: RemoteException is an IOException and would close the connection
+        if (result.error() instanceof RemoteException remote) {
+            throw remote;
+        } else if (result.error() != null) {
+            throw new RemoteException(result.error().toString());
+        }
+        return result.result();
+    }
+
+    private void send(Object message) throws IOException {
+        if (closed) {
+            throw new IOException("Connection closed");
+        }
+        ByteBuffer frame = NioProtocol.encode(message);
+        synchronized (out) {
+            out.write(frame.array(), frame.arrayOffset(), frame.remaining());
+            out.flush();
+        }
+    }
+
+    private void readLoop() {
+        try {
+            while (!closed) {
+                int length = in.readInt();
+                if (length < 0 || length > NioProtocol.MAX_FRAME_BYTES) {
+                    throw new IOException("Invalid frame length " + length);
+                }
+                byte[] body = new byte[length];
+                in.readFully(body);
+
+                Object message = NioProtocol.decode(body);
+                if (message instanceof NioProtocol.Response response) {
+                    CompletableFuture<NioProtocol.Response> waiting = pending.get(response.id());
+                    if (waiting != null) {
+                        waiting.complete(response);
+                    }
+                } else if (message instanceof NioProtocol.Push push) {
+                    deliver(push);
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                logger.warning("Connection to server lost: " + e.getMessage());
+            }
+        } finally {
+            closed = true;
+            failPending("Connection to server lost");
+        }
+    }
+
+    private void deliver(NioProtocol.Push push) {
+        Method method = CALLBACK_METHODS.get(push.method());
+        if (method == null) {
+            logger.warning("Unknown push " + push.method());
+            return;
+        }
+        try {
+            method.invoke(callback, push.args());
+        } catch (InvocationTargetException e) {
+            logger.warning("Callback " + method.getName() + " failed: " + e.getCause());
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            logger.warning("Cannot deliver " + push.method() + ": " + e.getMessage());
+        }
+    }
+
+    private void failPending(String reason) {
+        RemoteException failure = new RemoteException(reason);
+        pending.values().forEach(future -> future.completeExceptionally(failure));
+    }
+}
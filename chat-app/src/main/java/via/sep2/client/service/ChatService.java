@@ -2,13 +2,16 @@ package via.sep2.client.service;
 
 import java.rmi.RemoteException;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 import via.sep2.client.connection.ConnectionManager;
 import via.sep2.shared.dto.ChatMemberDTO;
+import via.sep2.shared.dto.ChatOverviewDTO;
 import via.sep2.shared.dto.ChatRoomDTO;
 import via.sep2.shared.dto.DirectChatDTO;
 import via.sep2.shared.dto.MessageDTO;
+import via.sep2.shared.dto.PresenceStatus;
 import via.sep2.shared.dto.UserDTO;
 
 public class ChatService {
@@ -41,6 +44,21 @@ public class ChatService {
         });
     }
 
+    /**
+     * Loads the whole chat list, with last message and unread count per
+     * chat, in one call.
+     */
+    public CompletableFuture<List<ChatOverviewDTO>> getChatOverviewAsync() {
+        return CompletableFuture.supplyAsync(() -> {
+            validateAuthenticated();
+            try {
+                return connectionManager.getRmiClient().getMyChatOverview();
+            } catch (RemoteException e) {
+                throw new RuntimeException("Failed to get chat list", e);
+            }
+        });
+    }
+
     // Direct Chat Operations
     public CompletableFuture<List<DirectChatDTO>> getDirectChatsAsync() {
         return CompletableFuture.supplyAsync(() -> {
@@ -217,6 +235,75 @@ public class ChatService {
         });
     }
 
+    /**
+     * Loads the page of messages just before {@code beforeMessageId}. Pass
+     * {@code 0} to get the newest page. Direct chats use a negative id.
+     */
+    public CompletableFuture<List<MessageDTO>> getMessagesBeforeAsync(
+            int chatId,
+            int beforeMessageId,
+            int limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            validateConnected();
+            try {
+                return connectionManager
+                        .getRmiClient()
+                        .getMessagesBefore(chatId, beforeMessageId, limit);
+            } catch (RemoteException e) {
+                throw new RuntimeException("Failed to get message history", e);
+            }
+        });
+    }
+
+    public CompletableFuture<List<MessageDTO>> getMessagesAfterAsync(
+            int chatId,
+            int afterMessageId,
+            int limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            validateConnected();
+            try {
+                return connectionManager
+                        .getRmiClient()
+                        .getMessagesAfter(chatId, afterMessageId, limit);
+            } catch (RemoteException e) {
+                throw new RuntimeException("Failed to get message history", e);
+            }
+        });
+    }
+
+    /**
+     * Online and away contacts of the current user; anyone missing is offline.
+     */
+    public CompletableFuture<Map<String, PresenceStatus>> getPresenceAsync() {
+        return CompletableFuture.supplyAsync(() -> {
+            validateConnected();
+            try {
+                return connectionManager.getRmiClient().getContactPresence();
+            } catch (RemoteException e) {
+                throw new RuntimeException("Failed to get presence", e);
+            }
+        });
+    }
+
+    /**
+     * Loads the oldest messages of a chat newer than {@code timestamp}, at
+     * most one server page.
+     */
+    public CompletableFuture<List<MessageDTO>> getMessagesSinceAsync(
+            int chatId,
+            long timestamp) {
+        return CompletableFuture.supplyAsync(() -> {
+            validateConnected();
+            try {
+                return connectionManager
+                        .getRmiClient()
+                        .getMessagesSince(chatId, timestamp);
+            } catch (RemoteException e) {
+                throw new RuntimeException("Failed to get new messages", e);
+            }
+        });
+    }
+
     public CompletableFuture<Void> sendGroupMessageAsync(
             int roomId,
             String content) {
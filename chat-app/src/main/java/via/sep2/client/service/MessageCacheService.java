@@ -0,0 +1,255 @@
+package via.sep2.client.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Logger;
+import via.sep2.client.connection.ConnectionManager;
+import via.sep2.client.event.EventBus;
+import via.sep2.client.event.events.LoginSuccessEvent;
+import via.sep2.client.event.events.LogoutEvent;
+import via.sep2.client.event.events.MessageDeletedEvent;
+import via.sep2.client.event.events.MessageEditedEvent;
+import via.sep2.client.event.events.MessageReceivedEvent;
+import via.sep2.client.event.events.SessionResumedEvent;
+import via.sep2.shared.dto.MessageDTO;
+
+/**
+ * Keeps the loaded history of recently opened chats so switching back to a
+ * chat can render immediately.
+ *
+ * Chats are keyed by the signed chat id (negative for direct chats). Live
+ * message events are applied to every cached chat, so a cached history only
+ * misses what arrived while the client was not receiving callbacks; callers
+ * fetch that delta with {@link #getNewestTimestamp(int)}. The cache is bounded
+ * both by the number of chats and by an estimate of the memory the messages
+ * take, and evicts the least recently used chat first.
+ */
+public class MessageCacheService {
+
+    private static final Logger logger = Logger.getLogger(
+            MessageCacheService.class.getName());
+
+    private static final int DEFAULT_MAX_CHATS = 30;
+    private static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    // Rough per-message overhead of the DTO and list slot, on top of the strings
+    private static final int MESSAGE_OVERHEAD_BYTES = 96;
+
+    public record CachedChat(List<MessageDTO> messages, boolean hasOlderMessages) {
+    }
+
+    private final int maxChats;
+    private final long maxBytes;
+    private final LinkedHashMap<Integer, ChatHistory> chats = new LinkedHashMap<>(16, 0.75f, true);
+    private long estimatedBytes = 0;
+
+    public MessageCacheService() {
+        this(ConnectionManager.getInstance().getEventBus(), DEFAULT_MAX_CHATS, DEFAULT_MAX_BYTES);
+    }
+
+    // Testing
+    MessageCacheService(EventBus eventBus, int maxChats, long maxBytes) {
+        this.maxChats = maxChats;
+        this.maxBytes = maxBytes;
+
+        eventBus.subscribe(MessageReceivedEvent.class, event -> applyReceived(event.getMessage()));
+        eventBus.subscribe(MessageEditedEvent.class, event -> applyEdited(event.getMessage()));
+        eventBus.subscribe(MessageDeletedEvent.class,
+                event -> applyDeleted(event.getRoomId(), event.getMessageId()));
+        // Edits and deletes missed while offline are only replayed when the catch-up was complete
+        eventBus.subscribe(SessionResumedEvent.class, event -> {
+            if (!event.isComplete()) {
+                clear();
+            }
+        });
+        eventBus.subscribe(LoginSuccessEvent.class, event -> clear());
+        eventBus.subscribe(LogoutEvent.class, event -> clear());
+    }
+
+    public synchronized Optional<CachedChat> get(int chatId) {
+        ChatHistory history = chats.get(chatId);
+        if (history == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new CachedChat(List.copyOf(history.messages), history.hasOlderMessages));
+    }
+
+    /**
+     * Replaces the cached history of a chat with a freshly loaded page.
+     */
+    public synchronized void put(int chatId, List<MessageDTO> messages, boolean hasOlderMessages) {
+        ChatHistory previous = chats.remove(chatId);
+        if (previous != null) {
+            estimatedBytes -= previous.bytes;
+        }
+
+        ChatHistory history = new ChatHistory(hasOlderMessages);
+        for (MessageDTO message : messages) {
+            history.append(message);
+        }
+        chats.put(chatId, history);
+        estimatedBytes += history.bytes;
+        trim();
+    }
+
+    public synchronized void prependOlder(int chatId, List<MessageDTO> older, boolean hasOlderMessages) {
+        ChatHistory history = chats.get(chatId);
+        if (history == null) {
+            return;
+        }
+        long before = history.bytes;
+        history.prepend(older);
+        history.hasOlderMessages = hasOlderMessages;
+        estimatedBytes += history.bytes - before;
+        trim();
+    }
+
+    /**
+     * Appends messages fetched after the chat was re-opened and returns the
+     * ones that were not already cached, in chronological order.
+     */
+    public synchronized List<MessageDTO> mergeNewer(int chatId, List<MessageDTO> newer) {
+        ChatHistory history = chats.get(chatId);
+        if (history == null) {
+            return newer;
+        }
+
+        List<MessageDTO> added = new ArrayList<>();
+        long before = history.bytes;
+        for (MessageDTO message : newer) {
+            if (history.indexOf(message.getId()) < 0) {
+                history.insertInOrder(message);
+                added.add(message);
+            }
+        }
+        estimatedBytes += history.bytes - before;
+        trim();
+        return added;
+    }
+
+    /**
+     * Timestamp of the newest cached message of a chat, or {@code 0} if the
+     * chat is not cached or empty.
+     */
+    public synchronized long getNewestTimestamp(int chatId) {
+        ChatHistory history = chats.get(chatId);
+        if (history == null || history.messages.isEmpty()) {
+            return 0;
+        }
+        return history.messages.get(history.messages.size() - 1).getTimestamp();
+    }
+
+    public synchronized void clear() {
+        chats.clear();
+        estimatedBytes = 0;
+    }
+
+    private synchronized void applyReceived(MessageDTO message) {
+        ChatHistory history = chats.get(message.getRoomId());
+        if (history != null && history.indexOf(message.getId()) < 0) {
+            long before = history.bytes;
+            history.insertInOrder(message);
+            estimatedBytes += history.bytes - before;
+            trim();
+        }
+    }
+
+    private synchronized void applyEdited(MessageDTO message) {
+        ChatHistory history = chats.get(message.getRoomId());
+        if (history != null) {
+            long before = history.bytes;
+            history.replace(message);
+            estimatedBytes += history.bytes - before;
+        }
+    }
+
+    private synchronized void applyDeleted(int chatId, int messageId) {
+        ChatHistory history = chats.get(chatId);
+        if (history != null) {
+            long before = history.bytes;
+            history.remove(messageId);
+            estimatedBytes += history.bytes - before;
+        }
+    }
+
+    private void trim() {
+        // Always keep the most recently used chat, even if it alone is over budget
+        while (chats.size() > 1 && (chats.size() > maxChats || estimatedBytes > maxBytes)) {
+            Map.Entry<Integer, ChatHistory> eldest = chats.entrySet().iterator().next();
+            estimatedBytes -= eldest.getValue().bytes;
+            chats.remove(eldest.getKey());
+            logger.fine("Evicted cached messages for chat " + eldest.getKey());
+        }
+    }
+
+    private static long estimateSize(MessageDTO message) {
+        long size = MESSAGE_OVERHEAD_BYTES;
+        if (message.getContent() != null) {
+            size += 2L * message.getContent().length();
+        }
+        if (message.getSenderUsername() != null) {
+            size += 2L * message.getSenderUsername().length();
+        }
+        return size;
+    }
+
+    private static final class ChatHistory {
+        private final List<MessageDTO> messages = new ArrayList<>();
+        private boolean hasOlderMessages;
+        private long bytes = 0;
+
+        private ChatHistory(boolean hasOlderMessages) {
+            this.hasOlderMessages = hasOlderMessages;
+        }
+
+        private void append(MessageDTO message) {
+            messages.add(message);
+            bytes += estimateSize(message);
+        }
+
+        // Messages fetched late can be older than ones already delivered live
+        private void insertInOrder(MessageDTO message) {
+            int index = messages.size();
+            while (index > 0 && messages.get(index - 1).getTimestamp() > message.getTimestamp()) {
+                index--;
+            }
+            messages.add(index, message);
+            bytes += estimateSize(message);
+        }
+
+        private void prepend(List<MessageDTO> older) {
+            messages.addAll(0, older);
+            for (MessageDTO message : older) {
+                bytes += estimateSize(message);
+            }
+        }
+
+        private void replace(MessageDTO message) {
+            int index = indexOf(message.getId());
+            if (index >= 0) {
+                bytes += estimateSize(message) - estimateSize(messages.get(index));
+                messages.set(index, message);
+            }
+        }
+
+        private void remove(int messageId) {
+            int index = indexOf(messageId);
+            if (index >= 0) {
+                bytes -= estimateSize(messages.remove(index));
+            }
+        }
+
+        // Recent messages are the ones that get edited and deleted, so search from the end
+        private int indexOf(int messageId) {
+            for (int i = messages.size() - 1; i >= 0; i--) {
+                if (messages.get(i).getId() == messageId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
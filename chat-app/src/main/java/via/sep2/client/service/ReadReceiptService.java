@@ -0,0 +1,93 @@
+package via.sep2.client.service;
+
+import java.rmi.RemoteException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import via.sep2.client.connection.ConnectionManager;
+import via.sep2.client.event.EventBus;
+import via.sep2.client.event.events.LogoutEvent;
+
+/**
+ * Sends read receipts for the open chat.
+ *
+ * Receipts are coalesced: within one interval only the newest message id
+ * per chat is sent, so a busy room costs one call per interval instead of
+ * one per received message. A receipt waits at most {@link #INTERVAL_MILLIS}.
+ */
+public class ReadReceiptService {
+
+    private static final Logger logger = Logger.getLogger(
+            ReadReceiptService.class.getName());
+
+    static final long INTERVAL_MILLIS = 300;
+
+    private final ConnectionManager connectionManager;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "ReadReceipt-Thread");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Newest read message per chat that has not been sent yet
+    private final Map<Integer, Integer> unsent = new LinkedHashMap<>();
+    private Future<?> scheduled;
+
+    public ReadReceiptService() {
+        this(ConnectionManager.getInstance(), ConnectionManager.getInstance().getEventBus());
+    }
+
+    // Testing
+    ReadReceiptService(ConnectionManager connectionManager, EventBus eventBus) {
+        this.connectionManager = connectionManager;
+
+        eventBus.subscribe(LogoutEvent.class, event -> discard());
+    }
+
+    /**
+     * Queues a receipt for {@code messageId} in {@code chatId}; an older
+     * receipt for the same chat that has not been sent yet is replaced.
+     */
+    public synchronized void markRead(int chatId, int messageId) {
+        unsent.merge(chatId, messageId, Math::max);
+        if (scheduled == null) {
+            scheduled = executor.schedule(this::send, INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized void discard() {
+        unsent.clear();
+        if (scheduled != null) {
+            scheduled.cancel(false);
+            scheduled = null;
+        }
+    }
+
+    public void shutdown() {
+        discard();
+        executor.shutdownNow();
+    }
+
+    private void send() {
+        Map<Integer, Integer> receipts;
+        synchronized (this) {
+            receipts = new LinkedHashMap<>(unsent);
+            unsent.clear();
+            scheduled = null;
+        }
+
+        for (Map.Entry<Integer, Integer> receipt : receipts.entrySet()) {
+            try {
+                connectionManager.getRmiClient().markRead(receipt.getKey(), receipt.getValue());
+            } catch (RemoteException | RuntimeException e) {
+                // The next receipt for the chat carries a newer id anyway
+                logger.warning("Failed to mark chat as read: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package via.sep2.client.service;
+
+import java.rmi.RemoteException;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import via.sep2.client.connection.ConnectionManager;
+import via.sep2.client.event.EventBus;
+import via.sep2.client.event.events.LoginSuccessEvent;
+import via.sep2.client.event.events.LogoutEvent;
+import via.sep2.shared.dto.UserDTO;
+
+/**
+ * Search-as-you-type for users.
+ *
+ * A query is only sent after the input has been quiet for a short moment,
+ * and a newer query supersedes any older one, so a result that arrives late
+ * is never delivered. Results are cached per query. When an earlier, shorter
+ * query returned fewer users than the server limit, that result contained
+ * every match, and any query that extends it is answered by filtering it
+ * locally with the same matching and ranking the server uses.
+ */
+public class UserSearchService {
+
+    private static final Logger logger = Logger.getLogger(
+            UserSearchService.class.getName());
+
+    public static final int RESULT_LIMIT = 10;
+
+    private static final long DEBOUNCE_MILLIS = 250;
+    private static final long CACHE_TTL_MILLIS = 60_000;
+    private static final int MAX_CACHED_QUERIES = 64;
+
+    private record CachedResult(List<UserDTO> users, boolean complete, long loadedAt) {
+    }
+
+    private final ConnectionManager connectionManager;
+
+    // Single thread: debounced queries run one at a time, in order
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "UserSearch-Thread");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final LinkedHashMap<String, CachedResult> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+            return size() > MAX_CACHED_QUERIES;
+        }
+    };
+
+    private long generation = 0;
+    private Future<?> pending;
+
+    public UserSearchService() {
+        this(ConnectionManager.getInstance(), ConnectionManager.getInstance().getEventBus());
+    }
+
+    // Testing
+    UserSearchService(ConnectionManager connectionManager, EventBus eventBus) {
+        this.connectionManager = connectionManager;
+
+        eventBus.subscribe(LoginSuccessEvent.class, event -> clearCache());
+        eventBus.subscribe(LogoutEvent.class, event -> clearCache());
+    }
+
+    /**
+     * Schedules a search for {@code searchTerm}, replacing any search that
+     * has not delivered its result yet. {@code onResult} is called on the
+     * search thread, and only if no newer search was started meanwhile.
+     */
+    public synchronized void search(String searchTerm, Consumer<List<UserDTO>> onResult) {
+        String term = searchTerm.trim().toLowerCase(Locale.ROOT);
+        long searchGeneration = ++generation;
+
+        if (pending != null) {
+            pending.cancel(false);
+        }
+
+        // Answer from the cache right away; only server round trips are debounced
+        List<UserDTO> cached = findCached(term);
+        if (cached != null) {
+            pending = executor.submit(() -> deliver(searchGeneration, cached, onResult));
+            return;
+        }
+
+        pending = executor.schedule(() -> {
+            if (!isCurrent(searchGeneration)) {
+                return;
+            }
+            List<UserDTO> users = fetch(searchTerm.trim(), term);
+            if (users != null) {
+                deliver(searchGeneration, users, onResult);
+            }
+        }, DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Drops the pending search, if any, so its result is never delivered.
+     */
+    public synchronized void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    public synchronized void clearCache() {
+        cache.clear();
+    }
+
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    private List<UserDTO> fetch(String searchTerm, String key) {
+        try {
+            List<UserDTO> users = connectionManager
+                    .getRmiClient()
+                    .searchUsers(searchTerm, RESULT_LIMIT);
+            synchronized (this) {
+                cache.put(key, new CachedResult(List.copyOf(users), users.size() < RESULT_LIMIT,
+                        System.currentTimeMillis()));
+            }
+            return users;
+        } catch (RemoteException | RuntimeException e) {
+            logger.warning("User search failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void deliver(long searchGeneration, List<UserDTO> users, Consumer<List<UserDTO>> onResult) {
+        if (isCurrent(searchGeneration)) {
+            onResult.accept(users);
+        }
+    }
+
+    private synchronized boolean isCurrent(long searchGeneration) {
+        return searchGeneration == generation;
+    }
+
+    // Caller holds the lock
+    private List<UserDTO> findCached(String term) {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(result -> now - result.loadedAt() > CACHE_TTL_MILLIS);
+
+        CachedResult exact = cache.get(term);
+        if (exact != null) {
+            return exact.users();
+        }
+
+        // Every match of a longer query is also a match of its prefixes
+        for (int length = term.length() - 1; length > 0; length--) {
+            CachedResult shorter = cache.get(term.substring(0, length));
+            if (shorter != null && shorter.complete()) {
+                List<UserDTO> users = shorter.users()
+                        .stream()
+                        .filter(user -> matches(user, term))
+                        .sorted(Comparator
+                                .comparingInt((UserDTO user) -> rank(user, term))
+                                .thenComparing(UserDTO::getUsername))
+                        .toList();
+                cache.put(term, new CachedResult(users, true, shorter.loadedAt()));
+                return users;
+            }
+        }
+        return null;
+    }
+
+    // Mirrors the WHERE clause of UserDAO.searchUsers
+    private static boolean matches(UserDTO user, String term) {
+        String firstName = lower(user.getFirstName());
+        String lastName = lower(user.getLastName());
+        return lower(user.getUsername()).contains(term)
+                || firstName.contains(term)
+                || lastName.contains(term)
+                || (firstName + " " + lastName).contains(term);
+    }
+
+    // Mirrors the ORDER BY of UserDAO.searchUsers
+    private static int rank(UserDTO user, String term) {
+        String username = lower(user.getUsername());
+        if (username.equals(term)) {
+            return 1;
+        } else if (username.startsWith(term)) {
+            return 2;
+        } else if (lower(user.getFirstName()).startsWith(term)) {
+            return 3;
+        } else if (lower(user.getLastName()).startsWith(term)) {
+            return 4;
+        }
+        return 5;
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+}
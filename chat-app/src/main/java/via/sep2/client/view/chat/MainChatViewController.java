@@ -1,13 +1,13 @@
 package via.sep2.client.view.chat;
 
 import java.net.URL;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.logging.Logger;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -15,7 +15,7 @@ import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.scene.control.MenuButton;
 import javafx.scene.control.MenuItem;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ScrollBar;
 import javafx.scene.control.TextField;
 import javafx.scene.control.ToggleButton;
 import javafx.scene.control.ToggleGroup;
@@ -95,10 +95,7 @@ public class MainChatViewController implements Initializable {
     private MenuButton chatOptionsButton;
 
     @FXML
-    private ScrollPane messagesScrollPane;
-
-    @FXML
-    private VBox messagesContainer;
+    private ListView<MessageDTO> messagesListView;
 
     @FXML
     private HBox messageInputArea;
@@ -114,12 +111,6 @@ public class MainChatViewController implements Initializable {
 
     private MainChatViewModel viewModel;
 
-    private Map<Integer, MessageLabel> messageLabels;
-
-    public MainChatViewController() {
-        this.messageLabels = new HashMap<>();
-    }
-
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
         logger.info("Initializing MainChatViewController with ViewModel");
@@ -151,9 +142,9 @@ public class MainChatViewController implements Initializable {
         setupUserSearchList();
 
         chatHeader.managedProperty().bind(chatHeader.visibleProperty());
-        messagesScrollPane
+        messagesListView
                 .managedProperty()
-                .bind(messagesScrollPane.visibleProperty());
+                .bind(messagesListView.visibleProperty());
         messageInputArea
                 .managedProperty()
                 .bind(messageInputArea.visibleProperty());
@@ -297,21 +288,58 @@ public class MainChatViewController implements Initializable {
     }
 
     private void setupMessageDisplay() {
+        messagesListView.setItems(viewModel.getCurrentMessages());
+        messagesListView.setFocusTraversable(false);
+        messagesListView.setCellFactory(listView -> new MessageCell(
+                viewModel.getCurrentUser().getUsername(),
+                this::handleEditMessage,
+                this::handleDeleteMessage));
+
         viewModel
                 .getCurrentMessages()
                 .addListener(
                         (javafx.collections.ListChangeListener<MessageDTO>) change -> {
+                            int prependedCount = 0;
+                            boolean appended = false;
+
                             while (change.next()) {
-                                if (change.wasAdded()) {
-                                    for (MessageDTO message : change.getAddedSubList()) {
-                                        addMessageToUI(message);
+                                if (change.wasAdded() && !change.wasReplaced()) {
+                                    if (change.getFrom() == 0 && change.getTo() < change.getList().size()) {
+                                        prependedCount += change.getAddedSize();
+                                    } else {
+                                        appended = true;
                                     }
-                                } else if (change.wasRemoved()) {
                                 }
                             }
 
-                            Platform.runLater(() -> messagesScrollPane.setVvalue(1.0));
+                            if (prependedCount > 0) {
+                                // Keep the message that was on top where it was
+                                messagesListView.scrollTo(prependedCount);
+                            } else if (appended) {
+                                messagesListView.scrollTo(viewModel.getCurrentMessages().size() - 1);
+                            }
                         });
+
+        // The scroll bar only exists once the skin has been created
+        messagesListView.skinProperty().addListener((obs, oldSkin, newSkin) -> {
+            if (newSkin != null) {
+                attachLoadOlderTrigger();
+            }
+        });
+    }
+
+    private void attachLoadOlderTrigger() {
+        for (Node node : messagesListView.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar scrollBar && scrollBar.getOrientation() == Orientation.VERTICAL) {
+                // Reaching the top of the history pulls in the previous page
+                scrollBar.valueProperty().addListener((obs, oldValue, newValue) -> {
+                    boolean scrolledUp = oldValue.doubleValue() > newValue.doubleValue();
+                    if (scrolledUp && newValue.doubleValue() <= scrollBar.getMin()) {
+                        viewModel.loadOlderMessages();
+                    }
+                });
+            }
+        }
     }
 
     private void setupFilters() {
@@ -604,19 +632,6 @@ public class MainChatViewController implements Initializable {
         }
     }
 
-    private void addMessageToUI(MessageDTO message) {
-        String currentUsername = viewModel.getCurrentUser().getUsername();
-
-        MessageLabel messageLabel = new MessageLabel(
-                message,
-                currentUsername,
-                this::handleEditMessage,
-                this::handleDeleteMessage);
-
-        messageLabels.put(message.getId(), messageLabel);
-        messagesContainer.getChildren().add(messageLabel);
-    }
-
     private void handleEditMessage(Integer messageId, String newContent) {
         viewModel.editMessage(messageId, newContent);
     }
@@ -627,24 +642,17 @@ public class MainChatViewController implements Initializable {
 
     private void showEmptyState() {
         chatHeader.setVisible(false);
-        messagesScrollPane.setVisible(false);
+        messagesListView.setVisible(false);
         messageInputArea.setVisible(false);
         emptyStateArea.setVisible(true);
-
-        messagesContainer.getChildren().clear();
     }
 
     private void showChatInterface() {
         emptyStateArea.setVisible(false);
         chatHeader.setVisible(true);
-        messagesScrollPane.setVisible(true);
+        messagesListView.setVisible(true);
         messageInputArea.setVisible(true);
 
-        messagesContainer.getChildren().clear();
-        for (MessageDTO message : viewModel.getCurrentMessages()) {
-            addMessageToUI(message);
-        }
-
         Platform.runLater(() -> messageInput.requestFocus());
     }
 
@@ -0,0 +1,44 @@
+package via.sep2.client.view.chat;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import javafx.scene.control.ListCell;
+import via.sep2.shared.dto.MessageDTO;
+
+/**
+ * List cell for the message pane. Each cell owns one {@link MessageLabel}
+ * and rebinds it as the list scrolls, so only the visible rows hold nodes.
+ */
+public class MessageCell extends ListCell<MessageDTO> {
+
+    private final MessageLabel messageLabel;
+
+    public MessageCell(
+        String currentUsername,
+        BiConsumer<Integer, String> onEditMessage,
+        Consumer<Integer> onDeleteMessage
+    ) {
+        this.messageLabel = new MessageLabel(
+            currentUsername,
+            onEditMessage,
+            onDeleteMessage
+        );
+
+        getStyleClass().add("message-cell");
+        // Let the cell follow the list width so long messages wrap
+        setPrefWidth(0);
+    }
+
+    @Override
+    protected void updateItem(MessageDTO item, boolean empty) {
+        super.updateItem(item, empty);
+
+        if (empty || item == null) {
+            setGraphic(null);
+            return;
+        }
+
+        messageLabel.setMessage(item);
+        setGraphic(messageLabel);
+    }
+}
@@ -18,13 +18,19 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import via.sep2.shared.dto.MessageDTO;
 
+/**
+ * A single chat bubble. The same instance can be rebound to another message
+ * with {@link #setMessage(MessageDTO)}, which lets list cells reuse it while
+ * scrolling.
+ */
 public class MessageLabel extends HBox {
 
-    private final MessageDTO message;
+    private MessageDTO message;
     private final String currentUsername;
     private final VBox messageContent;
     private final Label contentLabel;
     private final Label metaLabel;
+    private final ContextMenu contextMenu;
     private final BiConsumer<Integer, String> onEditMessage;
     private final Consumer<Integer> onDeleteMessage;
 
@@ -34,7 +40,15 @@ public class MessageLabel extends HBox {
         BiConsumer<Integer, String> onEditMessage,
         Consumer<Integer> onDeleteMessage
     ) {
-        this.message = message;
+        this(currentUsername, onEditMessage, onDeleteMessage);
+        setMessage(message);
+    }
+
+    public MessageLabel(
+        String currentUsername,
+        BiConsumer<Integer, String> onEditMessage,
+        Consumer<Integer> onDeleteMessage
+    ) {
         this.currentUsername = currentUsername;
         this.onEditMessage = onEditMessage;
         this.onDeleteMessage = onDeleteMessage;
@@ -42,9 +56,39 @@ public class MessageLabel extends HBox {
         this.messageContent = new VBox();
         this.contentLabel = new Label();
         this.metaLabel = new Label();
+        this.contextMenu = new ContextMenu();
 
         setupComponents();
         setupContextMenu();
+    }
+
+    /**
+     * Shows {@code message} in this bubble, replacing whatever it showed
+     * before.
+     */
+    public void setMessage(MessageDTO message) {
+        this.message = message;
+
+        boolean isOwnMessage = message
+            .getSenderUsername()
+            .equals(currentUsername);
+        if (isOwnMessage) {
+            messageContent.getStyleClass().remove("other-message");
+            contentLabel.getStyleClass().remove("other-message-content");
+            addStyleClass(messageContent, "own-message");
+            addStyleClass(contentLabel, "own-message-content");
+
+            setAlignment(Pos.CENTER_RIGHT);
+        } else {
+            messageContent.getStyleClass().remove("own-message");
+            contentLabel.getStyleClass().remove("own-message-content");
+            addStyleClass(messageContent, "other-message");
+            addStyleClass(contentLabel, "other-message-content");
+
+            setAlignment(Pos.CENTER_LEFT);
+        }
+
+        contextMenu.hide();
         updateContent();
     }
 
@@ -54,6 +98,7 @@ public class MessageLabel extends HBox {
         messageContent.setMaxWidth(400);
         messageContent.setPrefWidth(Region.USE_COMPUTED_SIZE);
         messageContent.setMinWidth(Region.USE_PREF_SIZE);
+        messageContent.getStyleClass().add("message");
 
         contentLabel.setWrapText(true);
         contentLabel.setMaxWidth(400);
@@ -69,32 +114,10 @@ public class MessageLabel extends HBox {
         setMaxWidth(Double.MAX_VALUE);
         setPrefWidth(Region.USE_COMPUTED_SIZE);
 
-        boolean isOwnMessage = message
-            .getSenderUsername()
-            .equals(currentUsername);
-        if (isOwnMessage) {
-            messageContent.getStyleClass().addAll("message", "own-message");
-            contentLabel.getStyleClass().add("own-message-content");
-
-            setAlignment(Pos.CENTER_RIGHT);
-            getChildren().add(messageContent);
-        } else {
-            messageContent.getStyleClass().addAll("message", "other-message");
-            contentLabel.getStyleClass().add("other-message-content");
-
-            setAlignment(Pos.CENTER_LEFT);
-            getChildren().add(messageContent);
-        }
+        getChildren().add(messageContent);
     }
 
     private void setupContextMenu() {
-        // Only show context menu for own messages
-        if (!message.getSenderUsername().equals(currentUsername)) {
-            return;
-        }
-
-        ContextMenu contextMenu = new ContextMenu();
-
         MenuItem editItem = new MenuItem("Edit");
         editItem.setOnAction(e -> showEditDialog());
 
@@ -103,9 +126,11 @@ public class MessageLabel extends HBox {
 
         contextMenu.getItems().addAll(editItem, deleteItem);
 
-        // Show context menu on right-click
+        // Show context menu on right-click, only for own messages
         setOnMouseClicked(event -> {
-            if (event.getButton() == MouseButton.SECONDARY) {
+            boolean isOwnMessage = message != null &&
+                message.getSenderUsername().equals(currentUsername);
+            if (event.getButton() == MouseButton.SECONDARY && isOwnMessage) {
                 contextMenu.show(this, event.getScreenX(), event.getScreenY());
             } else {
                 contextMenu.hide();
@@ -176,6 +201,12 @@ public class MessageLabel extends HBox {
         updateMetaLabel();
     }
 
+    private static void addStyleClass(Region node, String styleClass) {
+        if (!node.getStyleClass().contains(styleClass)) {
+            node.getStyleClass().add(styleClass);
+        }
+    }
+
     private void updateMetaLabel() {
         StringBuilder meta = new StringBuilder();
 
@@ -196,7 +227,9 @@ public class MessageLabel extends HBox {
                     10
                 )
             );
-            metaLabel.getStyleClass().add("edited-indicator");
+            addStyleClass(metaLabel, "edited-indicator");
+        } else {
+            metaLabel.getStyleClass().remove("edited-indicator");
         }
     }
 
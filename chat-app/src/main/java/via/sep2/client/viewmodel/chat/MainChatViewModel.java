@@ -1,5 +1,8 @@
 package via.sep2.client.viewmodel.chat;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
@@ -16,16 +19,24 @@ import via.sep2.client.event.EventListener;
 import via.sep2.client.event.events.MessageDeletedEvent;
 import via.sep2.client.event.events.MessageEditedEvent;
 import via.sep2.client.event.events.MessageReceivedEvent;
+import via.sep2.client.event.events.PresenceChangedEvent;
+import via.sep2.client.event.events.SessionResumedEvent;
 import via.sep2.client.event.events.UserJoinedGroupEvent;
 import via.sep2.client.event.events.UserLeftGroupEvent;
 import via.sep2.client.factory.ServiceFactory;
 import via.sep2.client.service.AuthService;
 import via.sep2.client.service.ChatService;
+import via.sep2.client.service.MessageCacheService;
+import via.sep2.client.service.ReadReceiptService;
+import via.sep2.client.service.UserSearchService;
 import via.sep2.client.view.chat.ChatItemData;
 import via.sep2.shared.dto.ChatMemberDTO;
+import via.sep2.shared.dto.ChatOverviewDTO;
 import via.sep2.shared.dto.ChatRoomDTO;
+import via.sep2.shared.dto.ChatRoomType;
 import via.sep2.shared.dto.DirectChatDTO;
 import via.sep2.shared.dto.MessageDTO;
+import via.sep2.shared.dto.PresenceStatus;
 import via.sep2.shared.dto.UserDTO;
 
 public class MainChatViewModel {
@@ -33,8 +44,13 @@ public class MainChatViewModel {
     private static final Logger logger = Logger.getLogger(
             MainChatViewModel.class.getName());
 
+    private static final int MESSAGE_PAGE_SIZE = 50;
+
     private final AuthService authService;
     private final ChatService chatService;
+    private final MessageCacheService messageCache;
+    private final UserSearchService userSearchService;
+    private final ReadReceiptService readReceiptService;
     private final ConnectionManager connectionManager;
 
     private final StringProperty searchText = new SimpleStringProperty("");
@@ -55,12 +71,20 @@ public class MainChatViewModel {
     private ChatItemData selectedChat;
     private ChatFilter currentFilter = ChatFilter.ALL;
 
+    // Contacts that are online or away; only touched on the FX thread
+    private final Map<String, PresenceStatus> presence = new HashMap<>();
+
+    private boolean hasOlderMessages = false;
+    private boolean loadingOlderMessages = false;
+
     private final EventListener<MessageReceivedEvent> messageReceivedListener;
     private final EventListener<MessageEditedEvent> messageEditedListener;
     private final EventListener<MessageDeletedEvent> messageDeletedListener;
 
     private final EventListener<UserJoinedGroupEvent> userJoinedGroupListener;
     private final EventListener<UserLeftGroupEvent> userLeftGroupListener;
+    private final EventListener<SessionResumedEvent> sessionResumedListener;
+    private final EventListener<PresenceChangedEvent> presenceChangedListener;
 
     public enum ChatFilter {
         ALL,
@@ -73,6 +97,12 @@ public class MainChatViewModel {
                 AuthService.class);
         this.chatService = ServiceFactory.getInstance().getService(
                 ChatService.class);
+        this.messageCache = ServiceFactory.getInstance().getService(
+                MessageCacheService.class);
+        this.userSearchService = ServiceFactory.getInstance().getService(
+                UserSearchService.class);
+        this.readReceiptService = ServiceFactory.getInstance().getService(
+                ReadReceiptService.class);
         this.connectionManager = ConnectionManager.getInstance();
 
         this.messageReceivedListener = this::handleMessageReceived;
@@ -81,6 +111,8 @@ public class MainChatViewModel {
 
         this.userJoinedGroupListener = this::handleUserJoinedGroup;
         this.userLeftGroupListener = this::handleUserLeftGroup;
+        this.sessionResumedListener = this::handleSessionResumed;
+        this.presenceChangedListener = this::handlePresenceChanged;
 
         setupEventListeners();
         setupSearchFilter();
@@ -99,6 +131,8 @@ public class MainChatViewModel {
 
         connectionManager.getEventBus().subscribe(UserLeftGroupEvent.class, userLeftGroupListener);
         connectionManager.getEventBus().subscribe(UserJoinedGroupEvent.class, userJoinedGroupListener);
+        connectionManager.getEventBus().subscribe(SessionResumedEvent.class, sessionResumedListener);
+        connectionManager.getEventBus().subscribe(PresenceChangedEvent.class, presenceChangedListener);
     }
 
     private void setupSearchFilter() {
@@ -133,6 +167,7 @@ public class MainChatViewModel {
 
     private void handleSearchTextChange(String searchText) {
         if (searchText == null || searchText.trim().isEmpty()) {
+            userSearchService.cancel();
             showUserSearchResults.set(false);
             searchedUsers.clear();
             return;
@@ -150,6 +185,7 @@ public class MainChatViewModel {
         if (!hasMatchingChats && trimmedSearch.length() >= 2) {
             searchForUsers(trimmedSearch);
         } else {
+            userSearchService.cancel();
             showUserSearchResults.set(false);
             searchedUsers.clear();
         }
@@ -162,44 +198,34 @@ public class MainChatViewModel {
         isLoading.set(true);
         allChats.clear();
 
-        CompletableFuture<Void> loadDirectChats = chatService
-                .getDirectChatsAsync()
-                .thenAccept(directChats -> Platform.runLater(() -> {
-                    for (DirectChatDTO directChat : directChats) {
-                        ChatItemData chatItem = createChatItemFromDirectChat(
-                                directChat);
-                        allChats.add(chatItem);
+        chatService
+                .getChatOverviewAsync()
+                .thenAccept(chats -> Platform.runLater(() -> {
+                    for (ChatOverviewDTO chat : chats) {
+                        allChats.add(createChatItemFromOverview(chat));
                     }
                 }))
                 .exceptionally(throwable -> {
                     Platform.runLater(() -> setErrorMessage(
-                            "Failed to load direct chats: " + throwable.getMessage()));
+                            "Failed to load chats: " + throwable.getMessage()));
                     return null;
-                });
+                })
+                .whenComplete((result, throwable) -> Platform.runLater(() -> isLoading.set(false)));
 
-        CompletableFuture<Void> loadGroupChats = chatService
-                .getMyGroupChatsAsync()
-                .thenAccept(groupChats -> Platform.runLater(() -> {
-                    for (ChatRoomDTO groupChat : groupChats) {
-                        ChatItemData chatItem = createChatItemFromGroupChat(
-                                groupChat);
-                        allChats.add(chatItem);
-                    }
+        loadPresence();
+    }
+
+    private void loadPresence() {
+        chatService
+                .getPresenceAsync()
+                .thenAccept(statuses -> Platform.runLater(() -> {
+                    presence.clear();
+                    applyPresence(statuses);
                 }))
                 .exceptionally(throwable -> {
-                    Platform.runLater(() -> setErrorMessage(
-                            "Failed to load group chats: " + throwable.getMessage()));
+                    logger.warning("Failed to load presence: " + throwable.getMessage());
                     return null;
                 });
-
-        CompletableFuture.allOf(loadDirectChats, loadGroupChats).whenComplete(
-                (result, throwable) -> Platform.runLater(() -> {
-                    isLoading.set(false);
-                    if (throwable != null) {
-                        logger.warning(
-                                "Error loading chats: " + throwable.getMessage());
-                    }
-                }));
     }
 
     public CompletableFuture<ChatRoomDTO> createGroupChat(
@@ -259,20 +285,11 @@ public class MainChatViewModel {
             return;
         }
 
-        searchForUsersAsync(searchTerm.trim())
-                .thenAccept(users -> Platform.runLater(() -> {
-                    searchedUsers.clear();
-                    searchedUsers.addAll(users);
-                    showUserSearchResults.set(!users.isEmpty());
-                }))
-                .exceptionally(throwable -> {
-                    Platform.runLater(() -> {
-                        logger.warning(
-                                "User search failed: " + throwable.getMessage());
-                        showUserSearchResults.set(false);
-                    });
-                    return null;
-                });
+        // Debounced; only the result of the latest search is delivered
+        userSearchService.search(searchTerm, users -> Platform.runLater(() -> {
+            searchedUsers.setAll(users);
+            showUserSearchResults.set(!users.isEmpty());
+        }));
     }
 
     public void startDirectChatWithUser(UserDTO user) {
@@ -322,8 +339,15 @@ public class MainChatViewModel {
     }
 
     public void selectChat(ChatItemData chatItem) {
+        if (isSameChat(selectedChat, chatItem)) {
+            // Only the list entry was replaced, e.g. to reset its unread badge
+            this.selectedChat = chatItem;
+            return;
+        }
+
         this.selectedChat = chatItem;
         loadMessagesForChat(chatItem);
+        clearUnreadCount(chatItem);
 
         if (chatItem.getType() == ChatItemData.ChatType.GROUP) {
             setupGroupChatOptions(chatItem.getId());
@@ -545,22 +569,38 @@ public class MainChatViewModel {
     }
 
     private void loadMessagesForChat(ChatItemData chatItem) {
-        currentMessages.clear();
+        int chatId = toChatId(chatItem);
+        hasOlderMessages = false;
+        loadingOlderMessages = false;
+
+        Optional<MessageCacheService.CachedChat> cached = messageCache
+                .get(chatId)
+                .filter(chat -> !chat.messages().isEmpty());
+        if (cached.isPresent()) {
+            currentMessages.setAll(cached.get().messages());
+            hasOlderMessages = cached.get().hasOlderMessages();
+            markLatestMessageRead(chatId);
+            loadNewMessages(chatItem, chatId);
+            return;
+        }
 
-        CompletableFuture<java.util.List<MessageDTO>> messagesFuture;
+        currentMessages.clear();
 
-        if (chatItem.getType() == ChatItemData.ChatType.DIRECT) {
-            messagesFuture = chatService.getDirectChatMessagesAsync(
-                    chatItem.getId(),
-                    50);
-        } else {
-            messagesFuture = chatService.getGroupChatMessagesAsync(
-                    chatItem.getId(),
-                    50);
-        }
+        chatService
+                .getMessagesBeforeAsync(chatId, 0, MESSAGE_PAGE_SIZE)
+                .thenAccept(messages -> {
+                    boolean hasOlder = messages.size() == MESSAGE_PAGE_SIZE;
+                    messageCache.put(chatId, messages, hasOlder);
 
-        messagesFuture
-                .thenAccept(messages -> Platform.runLater(() -> currentMessages.addAll(messages)))
+                    Platform.runLater(() -> {
+                        if (chatItem != selectedChat) {
+                            return;
+                        }
+                        hasOlderMessages = hasOlder;
+                        currentMessages.addAll(messages);
+                        markLatestMessageRead(chatId);
+                    });
+                })
                 .exceptionally(throwable -> {
                     Platform.runLater(() -> setErrorMessage(
                             "Failed to load messages: " + throwable.getMessage()));
@@ -568,6 +608,184 @@ public class MainChatViewModel {
                 });
     }
 
+    /**
+     * Fetches only what was posted after the newest cached message of a chat
+     * that was rendered from the cache, one page at a time.
+     */
+    private void loadNewMessages(ChatItemData chatItem, int chatId) {
+        // Timestamps are millisecond precise; overlap by one and let the cache drop duplicates
+        long since = messageCache.getNewestTimestamp(chatId) - 1;
+
+        chatService
+                .getMessagesSinceAsync(chatId, since)
+                .thenAccept(messages -> mergeNewMessages(chatItem, chatId, messages))
+                .exceptionally(throwable -> {
+                    logger.warning("Failed to load new messages: " + throwable.getMessage());
+                    return null;
+                });
+    }
+
+    private void mergeNewMessages(ChatItemData chatItem, int chatId, List<MessageDTO> messages) {
+        List<MessageDTO> added = messageCache.mergeNewer(chatId, messages);
+        if (!added.isEmpty()) {
+            Platform.runLater(() -> {
+                if (chatItem != selectedChat) {
+                    return;
+                }
+                added.forEach(this::addMessageInOrder);
+                markLatestMessageRead(chatId);
+            });
+        }
+
+        // A full page means there may be more; stop once the user has moved on
+        if (messages.size() >= MESSAGE_PAGE_SIZE && chatItem == selectedChat) {
+            int newestId = messages.get(messages.size() - 1).getId();
+            chatService
+                    .getMessagesAfterAsync(chatId, newestId, MESSAGE_PAGE_SIZE)
+                    .thenAccept(next -> mergeNewMessages(chatItem, chatId, next))
+                    .exceptionally(throwable -> {
+                        logger.warning("Failed to load new messages: " + throwable.getMessage());
+                        return null;
+                    });
+        }
+    }
+
+    private void addMessageInOrder(MessageDTO message) {
+        int index = currentMessages.size();
+        while (index > 0) {
+            MessageDTO previous = currentMessages.get(index - 1);
+            if (previous.getId() == message.getId()) {
+                return;
+            }
+            if (previous.getTimestamp() <= message.getTimestamp()) {
+                break;
+            }
+            index--;
+        }
+        currentMessages.add(index, message);
+    }
+
+    /**
+     * Fetches the page of history just before the oldest loaded message and
+     * prepends it. Called when the user scrolls to the top of the chat.
+     */
+    public void loadOlderMessages() {
+        if (selectedChat == null || !hasOlderMessages || loadingOlderMessages
+                || currentMessages.isEmpty()) {
+            return;
+        }
+
+        ChatItemData chatItem = selectedChat;
+        int oldestMessageId = currentMessages.get(0).getId();
+        loadingOlderMessages = true;
+
+        chatService
+                .getMessagesBeforeAsync(toChatId(chatItem), oldestMessageId, MESSAGE_PAGE_SIZE)
+                .thenAccept(messages -> Platform.runLater(() -> {
+                    if (chatItem != selectedChat) {
+                        return;
+                    }
+                    loadingOlderMessages = false;
+                    hasOlderMessages = messages.size() == MESSAGE_PAGE_SIZE;
+                    messageCache.prependOlder(toChatId(chatItem), messages, hasOlderMessages);
+                    currentMessages.addAll(0, messages);
+                }))
+                .exceptionally(throwable -> {
+                    Platform.runLater(() -> {
+                        loadingOlderMessages = false;
+                        setErrorMessage("Failed to load older messages: " + throwable.getMessage());
+                    });
+                    return null;
+                });
+    }
+
+    /**
+     * Moves the server-side read position of the open chat to its newest
+     * loaded message. Receipts are coalesced by {@link ReadReceiptService}.
+     */
+    private void markLatestMessageRead(int chatId) {
+        if (currentMessages.isEmpty()) {
+            return;
+        }
+
+        int messageId = currentMessages.get(currentMessages.size() - 1).getId();
+        readReceiptService.markRead(chatId, messageId);
+    }
+
+    private void clearUnreadCount(ChatItemData chatItem) {
+        int index = allChats.indexOf(chatItem);
+        if (index < 0 || chatItem.getUnreadCount() == 0) {
+            return;
+        }
+
+        ChatItemData readChat = new ChatItemData(
+                chatItem.getId(),
+                chatItem.getName(),
+                chatItem.getPreview(),
+                chatItem.getAvatarText(),
+                chatItem.getTime(),
+                chatItem.getType(),
+                chatItem.isOnline(),
+                0);
+        selectedChat = readChat;
+        allChats.set(index, readChat);
+    }
+
+    private void handlePresenceChanged(PresenceChangedEvent event) {
+        Platform.runLater(() -> applyPresence(event.getChanges()));
+    }
+
+    // Direct chats are named after the other user
+    private void applyPresence(Map<String, PresenceStatus> changes) {
+        changes.forEach((username, status) -> {
+            if (status == PresenceStatus.OFFLINE) {
+                presence.remove(username);
+            } else {
+                presence.put(username, status);
+            }
+        });
+
+        for (int i = 0; i < allChats.size(); i++) {
+            ChatItemData chatItem = allChats.get(i);
+            if (chatItem.getType() != ChatItemData.ChatType.DIRECT) {
+                continue;
+            }
+
+            boolean online = isOnline(chatItem.getName());
+            if (chatItem.isOnline() == online) {
+                continue;
+            }
+
+            ChatItemData updatedChat = new ChatItemData(
+                    chatItem.getId(),
+                    chatItem.getName(),
+                    chatItem.getPreview(),
+                    chatItem.getAvatarText(),
+                    chatItem.getTime(),
+                    chatItem.getType(),
+                    online,
+                    chatItem.getUnreadCount());
+            if (selectedChat == chatItem) {
+                selectedChat = updatedChat;
+            }
+            allChats.set(i, updatedChat);
+        }
+    }
+
+    private boolean isOnline(String username) {
+        return presence.get(username) == PresenceStatus.ONLINE;
+    }
+
+    private static boolean isSameChat(ChatItemData a, ChatItemData b) {
+        return a != null && b != null && a.getId() == b.getId() && a.getType() == b.getType();
+    }
+
+    private static int toChatId(ChatItemData chatItem) {
+        return chatItem.getType() == ChatItemData.ChatType.DIRECT
+                ? -chatItem.getId()
+                : chatItem.getId();
+    }
+
     private void handleMessageReceived(MessageReceivedEvent event) {
         MessageDTO message = event.getMessage();
 
@@ -584,7 +802,8 @@ public class MainChatViewModel {
                 }
 
                 if (messageForCurrentChat) {
-                    currentMessages.add(message);
+                    addMessageInOrder(message);
+                    markLatestMessageRead(message.getRoomId());
                 }
             }
 
@@ -592,6 +811,22 @@ public class MainChatViewModel {
         });
     }
 
+    // Missed messages were replayed as events; only reload when the replay was cut short
+    private void handleSessionResumed(SessionResumedEvent event) {
+        // Presence changes are not replayed
+        if (event.isComplete()) {
+            Platform.runLater(this::loadPresence);
+            return;
+        }
+
+        Platform.runLater(() -> {
+            loadChats();
+            if (selectedChat != null) {
+                loadMessagesForChat(selectedChat);
+            }
+        });
+    }
+
     private void handleMessageEdited(MessageEditedEvent event) {
         Platform.runLater(() -> {
             MessageDTO editedMessage = event.getMessage();
@@ -744,6 +979,29 @@ public class MainChatViewModel {
         );
     }
 
+    private ChatItemData createChatItemFromOverview(ChatOverviewDTO chat) {
+        boolean isDirect = chat.getType() == ChatRoomType.DIRECT;
+
+        String preview;
+        if (chat.hasLastMessage()) {
+            preview = chat.getLastMessageSender() + ": " + chat.getLastMessageContent();
+        } else if (isDirect) {
+            preview = "Click to start chatting...";
+        } else {
+            preview = chat.getDescription() != null ? chat.getDescription() : "Group chat";
+        }
+
+        return new ChatItemData(
+                chat.getChatId(),
+                chat.getName(),
+                preview,
+                getInitials(chat.getName(), ""),
+                formatTime(chat.getLastMessageTimestamp()),
+                isDirect ? ChatItemData.ChatType.DIRECT : ChatItemData.ChatType.GROUP,
+                isDirect && isOnline(chat.getName()),
+                chat.getUnreadCount());
+    }
+
     private ChatItemData createChatItemFromGroupChat(ChatRoomDTO groupChat) {
         return new ChatItemData(
                 groupChat.getId(),
@@ -759,16 +1017,6 @@ public class MainChatViewModel {
         );
     }
 
-    private CompletableFuture<java.util.List<UserDTO>> searchForUsersAsync(
-            String searchTerm) {
-        return chatService
-                .searchUsersAsync(searchTerm)
-                .exceptionally(throwable -> {
-                    logger.warning("User search failed: " + throwable.getMessage());
-                    return java.util.List.of();
-                });
-    }
-
     private String getInitials(String firstName, String lastName) {
         StringBuilder initials = new StringBuilder();
         if (firstName != null && !firstName.isEmpty()) {
@@ -814,6 +1062,7 @@ public class MainChatViewModel {
     }
 
     public void cleanup() {
+        userSearchService.cancel();
         connectionManager
                 .getEventBus()
                 .unsubscribe(MessageReceivedEvent.class, messageReceivedListener);
@@ -822,6 +1071,8 @@ public class MainChatViewModel {
 
         connectionManager.getEventBus().unsubscribe(UserLeftGroupEvent.class, userLeftGroupListener);
         connectionManager.getEventBus().unsubscribe(UserJoinedGroupEvent.class, userJoinedGroupListener);
+        connectionManager.getEventBus().unsubscribe(SessionResumedEvent.class, sessionResumedListener);
+        connectionManager.getEventBus().unsubscribe(PresenceChangedEvent.class, presenceChangedListener);
     }
 
     public StringProperty searchTextProperty() {
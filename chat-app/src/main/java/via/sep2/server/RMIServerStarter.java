@@ -1,11 +1,21 @@
 package via.sep2.server;
 
-import java.rmi.registry.LocateRegistry;
-import java.rmi.registry.Registry;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Logger;
 
+import via.sep2.server.database.DatabaseConnection;
+import via.sep2.server.metrics.MeteredChatServer;
+import via.sep2.server.metrics.ServerMetrics;
 import via.sep2.server.rmi.ChatServerImpl;
+import via.sep2.server.transport.ChatTransport;
+import via.sep2.server.transport.NioTransport;
+import via.sep2.server.transport.RmiTransport;
+import via.sep2.server.util.AsyncLogHandler;
+import via.sep2.server.util.ServerConfig;
+import via.sep2.shared.rmi.CompressingClientSocketFactory;
 import via.sep2.shared.interfaces.ChatServerInterface;
+import via.sep2.shared.rmi.CompressingServerSocketFactory;
 
 public class RMIServerStarter {
 
@@ -14,6 +24,11 @@ public class RMIServerStarter {
     private static final int RMI_PORT = 1099;
 
     public static void main(String[] args) {
+        // Console output is slow; keep it off the request threads
+        if (ServerConfig.getBoolean("LOG_ASYNC", true)) {
+            AsyncLogHandler.installOnRootLogger(ServerConfig.getInt("LOG_BUFFER_SIZE", 8192));
+        }
+
         try {
             startServer();
         } catch (Exception e) {
@@ -26,20 +41,23 @@ public class RMIServerStarter {
     public static void startServer() throws Exception {
         logger.info("Starting RMI Chat Server...");
 
-        // Create and export the server object
-        ChatServerInterface server = new ChatServerImpl();
+        ChatServerImpl server = new ChatServerImpl();
 
-        // Create or locate the RMI registry
-        Registry registry = getOrCreateRegistry();
-
-        // Bind the server to the registry
-        registry.rebind(SERVER_NAME, server);
+        // Every transport serves the same metered view of the server
+        ServerMetrics metrics = ServerMetrics.getInstance();
+        ChatServerInterface served = server;
+        if (metrics.isEnabled()) {
+            metrics.start(DatabaseConnection.getPool());
+            served = MeteredChatServer.wrap(server, metrics);
+        }
 
-        logger.info("Chat server bound to registry as '" + SERVER_NAME + "'");
+        List<ChatTransport> transports = createTransports();
+        for (ChatTransport transport : transports) {
+            transport.start(served);
+        }
         logger.info("Server is ready and waiting for client connections...");
-        logger.info("Server URL: rmi://localhost:" + RMI_PORT + "/" + SERVER_NAME);
 
-        setupShutdownHook(registry);
+        setupShutdownHook(transports, server);
 
         // Keep the server running
         try {
@@ -49,27 +67,40 @@ public class RMIServerStarter {
         }
     }
 
-    private static Registry getOrCreateRegistry() throws Exception {
-        try {
-            Registry registry = LocateRegistry.createRegistry(RMI_PORT);
-            logger.info("Created RMI registry on port " + RMI_PORT);
-            return registry;
-        } catch (Exception e) {
-            Registry registry = LocateRegistry.getRegistry(RMI_PORT);
-            logger.info("Located existing RMI registry on port " + RMI_PORT);
-            return registry;
+    private static RmiTransport createRmiTransport() {
+        if (!ServerConfig.getBoolean("RMI_COMPRESSION", false)) {
+            return new RmiTransport(SERVER_NAME, RMI_PORT);
         }
+
+        int threshold = ServerConfig.getInt("RMI_COMPRESSION_THRESHOLD", 1024);
+        logger.info("Compressing RMI calls of at least " + threshold + " bytes");
+        return new RmiTransport(SERVER_NAME, RMI_PORT,
+                new CompressingClientSocketFactory(threshold),
+                new CompressingServerSocketFactory(threshold));
+    }
+
+    // CHAT_TRANSPORTS lists the transports to run, e.g. "rmi,nio"
+    private static List<ChatTransport> createTransports() {
+        List<ChatTransport> transports = new ArrayList<>();
+        for (String name : ServerConfig.get("CHAT_TRANSPORTS", "rmi").split(",")) {
+            switch (name.trim().toLowerCase()) {
+                case "rmi" -> transports.add(createRmiTransport());
+                case "nio" -> transports.add(new NioTransport(
+                        ServerConfig.getInt("NIO_PORT", 1100),
+                        ServerConfig.getLong("NIO_MAX_PENDING_BYTES", 4 * 1024 * 1024)));
+                default -> throw new IllegalArgumentException("Unknown transport in CHAT_TRANSPORTS: " + name);
+            }
+        }
+        return transports;
     }
 
-    private static void setupShutdownHook(Registry registry) {
+    private static void setupShutdownHook(List<ChatTransport> transports, ChatServerImpl server) {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             logger.info("Shutting down Chat Server...");
-            try {
-                registry.unbind(SERVER_NAME);
-                logger.info("Server unbound from registry");
-            } catch (Exception e) {
-                logger.warning("Error during shutdown: " + e.getMessage());
-            }
+            transports.forEach(ChatTransport::stop);
+            server.shutdown();
+            ServerMetrics.getInstance().stop();
+            DatabaseConnection.closeConnection();
         }));
     }
 }
@@ -0,0 +1,82 @@
+package via.sep2.server.cache;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory index of who each user has a direct chat with.
+ *
+ * Partner sets are loaded lazily by the owner of the cache and kept up to
+ * date by write-through calls when a chat is created or its visibility for
+ * one user changes. Sets are immutable snapshots that are replaced on
+ * write. The number of cached users is bounded and the least recently used
+ * user is evicted first.
+ */
+public class DirectChatPartnerCache {
+
+    private final int maxUsers;
+    private final LinkedHashMap<String, Set<String>> partnersByUser;
+
+    // Bumped on every write so a load that raced with a change is not cached
+    private long writeStamp = 0;
+
+    public DirectChatPartnerCache(int maxUsers) {
+        this.maxUsers = maxUsers;
+        this.partnersByUser = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Set<String>> eldest) {
+                return size() > DirectChatPartnerCache.this.maxUsers;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached partners of a user, or {@code null} if they have
+     * not been loaded.
+     */
+    public synchronized Set<String> getPartners(String username) {
+        return partnersByUser.get(username);
+    }
+
+    public synchronized long getWriteStamp() {
+        return writeStamp;
+    }
+
+    /**
+     * Caches freshly loaded partners unless a change happened after
+     * {@code stamp} was taken, in which case the loaded data may be stale.
+     */
+    public synchronized Set<String> putIfUnchanged(String username, Set<String> partners, long stamp) {
+        Set<String> snapshot = Set.copyOf(partners);
+        if (stamp == writeStamp) {
+            partnersByUser.put(username, snapshot);
+        }
+        return snapshot;
+    }
+
+    public synchronized void addChat(String user1, String user2) {
+        writeStamp++;
+        addPartner(user1, user2);
+        addPartner(user2, user1);
+    }
+
+    public synchronized void invalidate(String username) {
+        writeStamp++;
+        partnersByUser.remove(username);
+    }
+
+    public synchronized int size() {
+        return partnersByUser.size();
+    }
+
+    private void addPartner(String username, String partner) {
+        Set<String> partners = partnersByUser.get(username);
+        if (partners != null && !partners.contains(partner)) {
+            Set<String> updated = new HashSet<>(partners);
+            updated.add(partner);
+            partnersByUser.put(username, Set.copyOf(updated));
+        }
+    }
+}
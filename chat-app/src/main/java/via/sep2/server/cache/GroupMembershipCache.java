@@ -0,0 +1,178 @@
+package via.sep2.server.cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import via.sep2.shared.dto.MemberRole;
+
+/**
+ * In-memory index of group membership: room id to members with their role,
+ * and username to the cached rooms they belong to.
+ *
+ * The username index is only the whole truth for users whose complete room
+ * list has been loaded and marked with {@link #markRoomsComplete}; such a
+ * user stays complete until one of their rooms is evicted or invalidated,
+ * or they join a room that is not cached.
+ *
+ * Rooms are loaded lazily by the owner of the cache and kept up to date by
+ * write-through calls on every membership change. Member maps are immutable
+ * snapshots that are replaced on write, so readers can iterate them without
+ * copying or locking. The number of cached rooms is bounded and the least
+ * recently used room is evicted first.
+ */
+public class GroupMembershipCache {
+
+    private final int maxRooms;
+    private final LinkedHashMap<Integer, Map<String, MemberRole>> rooms;
+    private final Map<String, Set<Integer>> roomsByUser = new HashMap<>();
+    // Users for whom roomsByUser lists every room, not just the cached ones
+    private final Set<String> completeUsers = new HashSet<>();
+
+    // Bumped on every write so a load that raced with a change is not cached
+    private long writeStamp = 0;
+
+    public GroupMembershipCache(int maxRooms) {
+        this.maxRooms = maxRooms;
+        this.rooms = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Map<String, MemberRole>> eldest) {
+                if (size() > GroupMembershipCache.this.maxRooms) {
+                    unindex(eldest.getKey(), eldest.getValue().keySet());
+                    completeUsers.removeAll(eldest.getValue().keySet());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached members of a room, or {@code null} if the room has
+     * not been loaded.
+     */
+    public synchronized Map<String, MemberRole> getMembers(int roomId) {
+        return rooms.get(roomId);
+    }
+
+    public synchronized long getWriteStamp() {
+        return writeStamp;
+    }
+
+    /**
+     * Caches a freshly loaded room unless a membership change happened after
+     * {@code stamp} was taken, in which case the loaded data may be stale.
+     */
+    public synchronized Map<String, MemberRole> putIfUnchanged(int roomId, Map<String, MemberRole> members,
+            long stamp) {
+        Map<String, MemberRole> snapshot = Map.copyOf(members);
+        if (stamp == writeStamp) {
+            Map<String, MemberRole> previous = rooms.put(roomId, snapshot);
+            if (previous != null) {
+                unindex(roomId, previous.keySet());
+            }
+            index(roomId, snapshot.keySet());
+        }
+        return snapshot;
+    }
+
+    public synchronized void addMember(int roomId, String username, MemberRole role) {
+        writeStamp++;
+        Map<String, MemberRole> members = rooms.get(roomId);
+        if (members != null) {
+            Map<String, MemberRole> updated = new HashMap<>(members);
+            updated.put(username, role);
+            rooms.put(roomId, Map.copyOf(updated));
+            index(roomId, Set.of(username));
+        } else {
+            completeUsers.remove(username);
+        }
+    }
+
+    public synchronized void removeMember(int roomId, String username) {
+        writeStamp++;
+        Map<String, MemberRole> members = rooms.get(roomId);
+        if (members != null && members.containsKey(username)) {
+            Map<String, MemberRole> updated = new HashMap<>(members);
+            updated.remove(username);
+            rooms.put(roomId, Map.copyOf(updated));
+            unindex(roomId, Set.of(username));
+        }
+    }
+
+    public synchronized void updateRole(int roomId, String username, MemberRole role) {
+        writeStamp++;
+        Map<String, MemberRole> members = rooms.get(roomId);
+        if (members != null && members.containsKey(username)) {
+            Map<String, MemberRole> updated = new HashMap<>(members);
+            updated.put(username, role);
+            rooms.put(roomId, Map.copyOf(updated));
+        }
+    }
+
+    public synchronized void invalidateRoom(int roomId) {
+        writeStamp++;
+        Map<String, MemberRole> members = rooms.remove(roomId);
+        if (members != null) {
+            unindex(roomId, members.keySet());
+            completeUsers.removeAll(members.keySet());
+        }
+    }
+
+    /**
+     * Every room the user belongs to, or {@code null} if their complete
+     * room list is not known.
+     */
+    public synchronized Set<Integer> getRoomsForUser(String username) {
+        if (!completeUsers.contains(username)) {
+            return null;
+        }
+        Set<Integer> roomIds = roomsByUser.get(username);
+        return roomIds != null ? Set.copyOf(roomIds) : Collections.emptySet();
+    }
+
+    /**
+     * Records that {@code roomIds}, loaded after {@code stamp} was taken, are
+     * all the rooms of the user. Ignored if membership changed since or if
+     * any of the rooms is not cached.
+     */
+    public synchronized void markRoomsComplete(String username, Set<Integer> roomIds, long stamp) {
+        if (stamp == writeStamp && rooms.keySet().containsAll(roomIds)) {
+            completeUsers.add(username);
+        }
+    }
+
+    /**
+     * Rooms the user belongs to among those currently cached. Rooms that
+     * were never loaded or have been evicted are not included.
+     */
+    public synchronized Set<Integer> getCachedRoomsForUser(String username) {
+        Set<Integer> roomIds = roomsByUser.get(username);
+        return roomIds != null ? Set.copyOf(roomIds) : Collections.emptySet();
+    }
+
+    public synchronized int size() {
+        return rooms.size();
+    }
+
+    private void index(int roomId, Set<String> usernames) {
+        for (String username : usernames) {
+            roomsByUser.computeIfAbsent(username, key -> new HashSet<>()).add(roomId);
+        }
+    }
+
+    private void unindex(int roomId, Set<String> usernames) {
+        for (String username : usernames) {
+            Set<Integer> roomIds = roomsByUser.get(username);
+            if (roomIds != null) {
+                roomIds.remove(roomId);
+                if (roomIds.isEmpty()) {
+                    roomsByUser.remove(username);
+                }
+            }
+        }
+    }
+}
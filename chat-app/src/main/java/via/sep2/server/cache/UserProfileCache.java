@@ -0,0 +1,108 @@
+package via.sep2.server.cache;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import via.sep2.shared.dto.UserDTO;
+
+/**
+ * In-memory copy of user profiles, looked up by username or by id.
+ *
+ * Profiles are loaded lazily by the owner of the cache and expire after a
+ * fixed time, so a row changed outside the server is picked up eventually.
+ * {@link UserDTO} is mutable, so the cache keeps its own copy of every
+ * profile and hands each caller a fresh one. The number of cached users is
+ * bounded and the least recently used profile is evicted first.
+ */
+public class UserProfileCache {
+
+    private record Entry(UserDTO user, long expiresAt) {}
+
+    private final int maxUsers;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> byUsername;
+    private final Map<Integer, String> usernameById = new HashMap<>();
+
+    // Bumped on every invalidation so a load that raced with it is not cached
+    private long writeStamp = 0;
+
+    public UserProfileCache(int maxUsers, long ttlMillis) {
+        this.maxUsers = maxUsers;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.byUsername = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > UserProfileCache.this.maxUsers) {
+                    usernameById.remove(eldest.getValue().user().getId());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached profile of a user, or {@code null} if it is not
+     * cached or has expired.
+     */
+    public synchronized UserDTO getByUsername(String username) {
+        Entry entry = byUsername.get(username);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt() >= 0) {
+            remove(username);
+            return null;
+        }
+        return copy(entry.user());
+    }
+
+    public synchronized UserDTO getById(int id) {
+        String username = usernameById.get(id);
+        return username != null ? getByUsername(username) : null;
+    }
+
+    public synchronized long getWriteStamp() {
+        return writeStamp;
+    }
+
+    /**
+     * Caches a freshly loaded profile unless an invalidation happened after
+     * {@code stamp} was taken, in which case the loaded data may be stale.
+     */
+    public synchronized UserDTO putIfUnchanged(UserDTO user, long stamp) {
+        if (user != null && stamp == writeStamp) {
+            remove(user.getUsername());
+            byUsername.put(user.getUsername(), new Entry(copy(user), System.nanoTime() + ttlNanos));
+            usernameById.put(user.getId(), user.getUsername());
+        }
+        return user;
+    }
+
+    public synchronized void invalidate(String username) {
+        writeStamp++;
+        remove(username);
+    }
+
+    public synchronized void invalidateAll() {
+        writeStamp++;
+        byUsername.clear();
+        usernameById.clear();
+    }
+
+    public synchronized int size() {
+        return byUsername.size();
+    }
+
+    private static UserDTO copy(UserDTO user) {
+        return new UserDTO(user.getId(), user.getUsername(), user.getFirstName(), user.getLastName());
+    }
+
+    private void remove(String username) {
+        Entry entry = byUsername.remove(username);
+        if (entry != null) {
+            usernameById.remove(entry.user().getId());
+        }
+    }
+}
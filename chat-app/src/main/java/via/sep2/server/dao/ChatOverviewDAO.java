@@ -0,0 +1,70 @@
+package via.sep2.server.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import via.sep2.server.database.DatabaseConnection;
+import via.sep2.shared.dto.ChatOverviewDTO;
+import via.sep2.shared.dto.ChatRoomType;
+
+public class ChatOverviewDAO {
+
+    private static ChatOverviewDAO instance;
+
+    private ChatOverviewDAO() {
+    }
+
+    public static synchronized ChatOverviewDAO getInstance() {
+        if (instance == null) {
+            instance = new ChatOverviewDAO();
+        }
+        return instance;
+    }
+
+    /**
+     * Direct and group chats of a user with their last message and unread
+     * count, newest activity first, in a single query.
+     */
+    public List<ChatOverviewDTO> getChatOverview(String username) throws SQLException {
+        String sql = """
+                SELECT chat_type, chat_id, chat_name, description, created_timestamp,
+                       last_message_id, last_message_content, last_message_sender,
+                       last_message_timestamp, unread_count
+                FROM get_user_chats(?)
+                """;
+
+        List<ChatOverviewDTO> chats = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection("ChatOverviewDAO.getChatOverview");
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, username);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                chats.add(new ChatOverviewDTO(
+                        "direct".equals(rs.getString("chat_type")) ? ChatRoomType.DIRECT : ChatRoomType.GROUP,
+                        rs.getInt("chat_id"),
+                        rs.getString("chat_name"),
+                        rs.getString("description"),
+                        toMillis(rs.getTimestamp("created_timestamp")),
+                        rs.getInt("last_message_id"),
+                        rs.getString("last_message_content"),
+                        rs.getString("last_message_sender"),
+                        toMillis(rs.getTimestamp("last_message_timestamp")),
+                        rs.getInt("unread_count")));
+            }
+        }
+
+        return chats;
+    }
+
+    private static long toMillis(Timestamp timestamp) {
+        return timestamp != null ? timestamp.getTime() : 0;
+    }
+}
@@ -6,16 +6,24 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import via.sep2.server.cache.DirectChatPartnerCache;
 import via.sep2.server.database.DatabaseConnection;
+import via.sep2.server.util.ServerConfig;
 import via.sep2.shared.dto.DirectChatDTO;
 
 public class DirectChatDAO {
 
     private static DirectChatDAO instance;
 
+    private final DirectChatPartnerCache partnerCache;
+
     private DirectChatDAO() {
+        this.partnerCache = new DirectChatPartnerCache(
+                ServerConfig.getInt("DIRECT_CHAT_CACHE_MAX_USERS", 10000));
     }
 
     public static synchronized DirectChatDAO getInstance() {
@@ -36,7 +44,7 @@ public class DirectChatDAO {
                 RETURNING id, created_timestamp
                 """;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("DirectChatDAO.createDirectChat");
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             Timestamp now = new Timestamp(System.currentTimeMillis());
@@ -46,6 +54,7 @@ public class DirectChatDAO {
 
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
+                partnerCache.addChat(firstUser, secondUser);
                 return new DirectChatDTO(
                         rs.getInt("id"),
                         firstUser,
@@ -69,7 +78,7 @@ public class DirectChatDAO {
                 WHERE user1_username = ? AND user2_username = ?
                 """;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("DirectChatDAO.getDirectChat");
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, firstUser);
@@ -107,7 +116,7 @@ public class DirectChatDAO {
 
         List<DirectChatDTO> chats = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("DirectChatDAO.getUserDirectChats");
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, username);
@@ -136,6 +145,24 @@ public class DirectChatDAO {
         return chats;
     }
 
+    /**
+     * Everyone the user has a direct chat with that they have not archived,
+     * served from the partner cache.
+     */
+    public Set<String> getDirectChatPartners(String username) throws SQLException {
+        Set<String> cached = partnerCache.getPartners(username);
+        if (cached != null) {
+            return cached;
+        }
+
+        long stamp = partnerCache.getWriteStamp();
+        Set<String> partners = new HashSet<>();
+        for (DirectChatDTO chat : getUserDirectChats(username)) {
+            partners.add(chat.getOtherUser(username));
+        }
+        return partnerCache.putIfUnchanged(username, partners, stamp);
+    }
+
     public void updateDirectChatSettings(String username, int directChatId, Boolean archived, Boolean blocked)
             throws SQLException {
         DirectChatDTO chat = getDirectChatById(directChatId);
@@ -152,13 +179,18 @@ public class DirectChatDAO {
         if (column != null) {
             String sql = "UPDATE direct_chats SET " + column + " = ? WHERE id = ?";
 
-            try (Connection conn = DatabaseConnection.getConnection();
+            try (Connection conn = DatabaseConnection.getConnection("DirectChatDAO.updateDirectChatSettings");
                     PreparedStatement stmt = conn.prepareStatement(sql)) {
 
                 stmt.setBoolean(1, archived != null ? archived : blocked);
                 stmt.setInt(2, directChatId);
                 stmt.executeUpdate();
             }
+
+            if (archived != null) {
+                // Archived chats are left out of the user's partners
+                partnerCache.invalidate(username);
+            }
         }
     }
 
@@ -169,7 +201,7 @@ public class DirectChatDAO {
                 FROM direct_chats WHERE id = ?
                 """;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("DirectChatDAO.getDirectChatById");
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
@@ -192,16 +224,4 @@ public class DirectChatDAO {
             return null;
         }
     }
-
-    public void updateLastMessageTimestamp(int directChatId) throws SQLException {
-        String sql = "UPDATE direct_chats SET last_message_timestamp = ? WHERE id = ?";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
-            stmt.setInt(2, directChatId);
-            stmt.executeUpdate();
-        }
-    }
 }
@@ -6,9 +6,15 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import via.sep2.server.cache.GroupMembershipCache;
 import via.sep2.server.database.DatabaseConnection;
+import via.sep2.server.util.ServerConfig;
 import via.sep2.shared.dto.ChatMemberDTO;
 import via.sep2.shared.dto.ChatRoomDTO;
 import via.sep2.shared.dto.MemberRole;
@@ -17,7 +23,11 @@ public class GroupChatDAO {
 
     private static GroupChatDAO instance;
 
+    private final GroupMembershipCache membershipCache;
+
     private GroupChatDAO() {
+        this.membershipCache = new GroupMembershipCache(
+                ServerConfig.getInt("MEMBERSHIP_CACHE_MAX_ROOMS", 10000));
     }
 
     public static synchronized GroupChatDAO getInstance() {
@@ -35,7 +45,7 @@ public class GroupChatDAO {
                 RETURNING id, created_timestamp
                 """;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("GroupChatDAO.createGroupChat");
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             Timestamp now = new Timestamp(System.currentTimeMillis());
@@ -66,7 +76,7 @@ public class GroupChatDAO {
                 ON CONFLICT (room_id, username) DO NOTHING
                 """;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("GroupChatDAO.addMemberToGroup");
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, roomId);
@@ -80,32 +90,39 @@ public class GroupChatDAO {
                 stmt.setNull(5, java.sql.Types.VARCHAR);
             }
 
-            stmt.executeUpdate();
+            if (stmt.executeUpdate() > 0) {
+                membershipCache.addMember(roomId, username, role);
+            }
         }
     }
 
     public void removeMemberFromGroup(int roomId, String username) throws SQLException {
         String sql = "DELETE FROM group_members WHERE room_id = ? AND username = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("GroupChatDAO.removeMemberFromGroup");
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, roomId);
             stmt.setString(2, username);
             stmt.executeUpdate();
         }
+
+        membershipCache.removeMember(roomId, username);
     }
 
     public void updateMemberRole(int roomId, String username, MemberRole newRole) throws SQLException {
         String sql = "UPDATE group_members SET role = ? WHERE room_id = ? AND username = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("GroupChatDAO.updateMemberRole");
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, newRole.name());
             stmt.setInt(2, roomId);
             stmt.setString(3, username);
-            stmt.executeUpdate();
+
+            if (stmt.executeUpdate() > 0) {
+                membershipCache.updateRole(roomId, username, newRole);
+            }
         }
     }
 
@@ -119,7 +136,7 @@ public class GroupChatDAO {
 
         List<ChatMemberDTO> members = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("GroupChatDAO.getGroupMembers");
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, roomId);
@@ -139,35 +156,85 @@ public class GroupChatDAO {
         return members;
     }
 
+    /**
+     * Usernames of everyone in the group, served from the membership cache.
+     * Only the first lookup of a room after it has been evicted hits the
+     * database.
+     */
+    public Set<String> getGroupMemberUsernames(int roomId) throws SQLException {
+        return getMembership(roomId).keySet();
+    }
+
     public boolean isUserInGroup(String username, int roomId) throws SQLException {
-        String sql = "SELECT 1 FROM group_members WHERE room_id = ? AND username = ? LIMIT 1";
+        return getMembership(roomId).containsKey(username);
+    }
 
-        try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+    public MemberRole getUserRole(String username, int roomId) throws SQLException {
+        return getMembership(roomId).get(username);
+    }
 
-            stmt.setInt(1, roomId);
-            stmt.setString(2, username);
+    /**
+     * Rooms the user is known to belong to among the rooms currently held in
+     * the membership cache.
+     */
+    public Set<Integer> getCachedRoomsForUser(String username) {
+        return membershipCache.getCachedRoomsForUser(username);
+    }
+
+    /**
+     * Ids of every group the user belongs to, from the membership cache once
+     * the user's rooms have all been loaded into it.
+     */
+    public Set<Integer> getUserRoomIds(String username) throws SQLException {
+        Set<Integer> cached = membershipCache.getRoomsForUser(username);
+        if (cached != null) {
+            return cached;
+        }
+
+        long stamp = membershipCache.getWriteStamp();
+        String sql = "SELECT room_id FROM group_members WHERE username = ?";
+        Set<Integer> roomIds = new HashSet<>();
 
+        try (Connection conn = DatabaseConnection.getConnection("GroupChatDAO.getUserRoomIds");
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, username);
             ResultSet rs = stmt.executeQuery();
-            return rs.next();
+
+            while (rs.next()) {
+                roomIds.add(rs.getInt("room_id"));
+            }
+        }
+
+        for (int roomId : roomIds) {
+            getMembership(roomId);
         }
+        membershipCache.markRoomsComplete(username, roomIds, stamp);
+        return roomIds;
     }
 
-    public MemberRole getUserRole(String username, int roomId) throws SQLException {
-        String sql = "SELECT role FROM group_members WHERE room_id = ? AND username = ?";
+    private Map<String, MemberRole> getMembership(int roomId) throws SQLException {
+        Map<String, MemberRole> members = membershipCache.getMembers(roomId);
+        if (members != null) {
+            return members;
+        }
+
+        long stamp = membershipCache.getWriteStamp();
+        String sql = "SELECT username, role FROM group_members WHERE room_id = ?";
+        Map<String, MemberRole> loaded = new HashMap<>();
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("GroupChatDAO.getMembership");
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, roomId);
-            stmt.setString(2, username);
-
             ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return MemberRole.valueOf(rs.getString("role"));
+
+            while (rs.next()) {
+                loaded.put(rs.getString("username"), MemberRole.valueOf(rs.getString("role")));
             }
-            return null;
         }
+
+        return membershipCache.putIfUnchanged(roomId, loaded, stamp);
     }
 
     public List<ChatRoomDTO> getPublicGroupChats() throws SQLException {
@@ -192,7 +259,7 @@ public class GroupChatDAO {
 
         List<ChatRoomDTO> chats = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("GroupChatDAO.getUserGroupChats");
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, username);
@@ -226,7 +293,7 @@ public class GroupChatDAO {
         List<ChatRoomDTO> chats = new ArrayList<>();
         String searchPattern = "%" + query + "%";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("GroupChatDAO.searchGroupChats");
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, searchPattern);
@@ -255,7 +322,7 @@ public class GroupChatDAO {
                 FROM group_chats WHERE id = ?
                 """;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("GroupChatDAO.getGroupChatById");
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, roomId);
@@ -278,7 +345,7 @@ public class GroupChatDAO {
     public void updateGroupName(int roomId, String newName) throws SQLException {
         String sql = "UPDATE group_chats SET name = ? WHERE id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("GroupChatDAO.updateGroupName");
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, newName);
@@ -295,7 +362,7 @@ public class GroupChatDAO {
                 WHERE id = ?
                 """;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("GroupChatDAO.updateGroupChatSettings");
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, name);
@@ -311,7 +378,7 @@ public class GroupChatDAO {
     public void transferOwnership(int roomId, String newOwner) throws SQLException {
         String sql = "UPDATE group_chats SET creator_username = ? WHERE id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("GroupChatDAO.transferOwnership");
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, newOwner);
@@ -325,7 +392,7 @@ public class GroupChatDAO {
     private List<ChatRoomDTO> getGroupChatsFromQuery(String sql) throws SQLException {
         List<ChatRoomDTO> chats = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection("GroupChatDAO.getGroupChatsFromQuery");
                 PreparedStatement stmt = conn.prepareStatement(sql);
                 ResultSet rs = stmt.executeQuery()) {
 
@@ -0,0 +1,253 @@
+package via.sep2.server.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import via.sep2.server.database.DatabaseConnection;
+import via.sep2.shared.dto.MessageDTO;
+
+/**
+ * Group-commit writer for new messages.
+ *
+ * Callers queue a message and wait on its future. A single writer thread
+ * collects whatever arrives within a short window after the first message
+ * and stores the whole batch with one multi-row INSERT, so a burst of
+ * messages costs two round-trips instead of one per message. If the batch
+ * fails, its messages are retried one by one so a single bad row only fails
+ * its own sender. A caller that stops waiting abandons its message; the
+ * writer skips abandoned messages, and a message the writer has already
+ * started to insert can no longer be abandoned.
+ */
+class MessageBatchWriter {
+
+    private static final Logger logger = Logger.getLogger(MessageBatchWriter.class.getName());
+
+    // Six bind parameters per row; stays well below the PostgreSQL limit of 32767
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private final long batchWindowMillis;
+    private final int maxBatchSize;
+
+    private final BlockingQueue<PendingMessage> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    MessageBatchWriter(long batchWindowMillis, int maxBatchSize) {
+        this.batchWindowMillis = batchWindowMillis;
+        this.maxBatchSize = Math.max(1, Math.min(maxBatchSize, MAX_ROWS_PER_STATEMENT));
+
+        this.writer = new Thread(this::run, "MessageBatchWriter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    PendingMessage submit(MessageDTO message) {
+        PendingMessage pending = new PendingMessage(message);
+        if (!running) {
+            pending.result.completeExceptionally(new SQLException("Message writer is shut down"));
+            return pending;
+        }
+        queue.add(pending);
+
+        // Shutdown may have drained the queue between the check and the add;
+        // whoever removes the message from the queue completes it
+        if (!running && queue.remove(pending)) {
+            pending.result.completeExceptionally(new SQLException("Message writer is shut down"));
+        }
+        return pending;
+    }
+
+    /**
+     * Stops accepting messages and waits for the writer to store everything
+     * already queued.
+     */
+    void shutdown() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        PendingMessage left;
+        while ((left = queue.poll()) != null) {
+            left.result.completeExceptionally(new SQLException("Message writer is shut down"));
+        }
+    }
+
+    private void run() {
+        List<PendingMessage> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                // Shutdown: fall through and store what has already been collected
+                queue.drainTo(batch, maxBatchSize - batch.size());
+            }
+
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<PendingMessage> batch) throws InterruptedException {
+        PendingMessage first = queue.take();
+        batch.add(first);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchWindowMillis);
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || batch.size() >= maxBatchSize) {
+                break;
+            }
+            PendingMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<PendingMessage> batch) {
+        batch.removeIf(pending -> !pending.claim());
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            insertAll(batch);
+            for (PendingMessage pending : batch) {
+                pending.result.complete(pending.message);
+            }
+        } catch (SQLException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+
+            logger.log(Level.WARNING, "Batch insert of " + batch.size()
+                    + " messages failed, retrying individually", e);
+            for (PendingMessage pending : batch) {
+                try {
+                    insertAll(List.of(pending));
+                    pending.result.complete(pending.message);
+                } catch (SQLException single) {
+                    pending.result.completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes ids for the batch from the sequence first and inserts them
+     * explicitly, so each message keeps its own id. PostgreSQL does not
+     * promise that RETURNING lists rows in the order of the VALUES list.
+     */
+    private void insertAll(List<PendingMessage> batch) throws SQLException {
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO messages (id, room_id, direct_chat_id, sender_username, content, timestamp) VALUES ");
+        for (int i = 0; i < batch.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+        }
+
+        List<Integer> ids;
+        try (Connection conn = DatabaseConnection.getConnection("MessageBatchWriter.insertAll")) {
+            ids = allocateIds(conn, batch.size());
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                int index = 1;
+                for (int i = 0; i < batch.size(); i++) {
+                    MessageDTO message = batch.get(i).message;
+                    stmt.setInt(index++, ids.get(i));
+                    if (message.getRoomId() > 0) {
+                        stmt.setInt(index++, message.getRoomId());
+                        stmt.setNull(index++, java.sql.Types.INTEGER);
+                    } else {
+                        stmt.setNull(index++, java.sql.Types.INTEGER);
+                        stmt.setInt(index++, Math.abs(message.getRoomId()));
+                    }
+                    stmt.setString(index++, message.getSenderUsername());
+                    stmt.setString(index++, message.getContent());
+                    stmt.setTimestamp(index++, new Timestamp(message.getTimestamp()));
+                }
+                stmt.executeUpdate();
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).message.setId(ids.get(i));
+        }
+    }
+
+    private static List<Integer> allocateIds(Connection conn, int count) throws SQLException {
+        String sql = "SELECT nextval(pg_get_serial_sequence('messages', 'id')) FROM generate_series(1, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, count);
+            ResultSet rs = stmt.executeQuery();
+
+            List<Integer> ids = new ArrayList<>(count);
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+            if (ids.size() != count) {
+                throw new SQLException("Failed to save messages, expected " + count
+                        + " ids but got " + ids.size());
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * A queued message and the future its sender waits on.
+     */
+    static final class PendingMessage {
+
+        private enum State { QUEUED, WRITING, ABANDONED }
+
+        private final MessageDTO message;
+        private final CompletableFuture<MessageDTO> result = new CompletableFuture<>();
+        private final AtomicReference<State> state = new AtomicReference<>(State.QUEUED);
+
+        private PendingMessage(MessageDTO message) {
+            this.message = message;
+        }
+
+        CompletableFuture<MessageDTO> result() {
+            return result;
+        }
+
+        /**
+         * Withdraws the message if the writer has not started to insert it.
+         * Returns false if it has, in which case the result will still
+         * arrive.
+         */
+        boolean abandon() {
+            if (!state.compareAndSet(State.QUEUED, State.ABANDONED)) {
+                return false;
+            }
+            result.cancel(false);
+            return true;
+        }
+
+        private boolean claim() {
+            return state.compareAndSet(State.QUEUED, State.WRITING);
+        }
+    }
+}
@@ -6,15 +6,37 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import via.sep2.server.database.DatabaseConnection;
+import via.sep2.server.util.ServerConfig;
 import via.sep2.shared.dto.MessageDTO;
 
 public class MessageDAO {
 
     private static MessageDAO instance;
 
-    private MessageDAO() {}
+    private static final String CURSOR_BEFORE =
+        "AND (timestamp, id) < (SELECT timestamp, id FROM messages WHERE id = ?)";
+    private static final String CURSOR_AFTER =
+        "AND (timestamp, id) > (SELECT timestamp, id FROM messages WHERE id = ?)";
+
+    private final MessageBatchWriter batchWriter;
+    private final long saveTimeoutMillis;
+
+    private MessageDAO() {
+        this.batchWriter = new MessageBatchWriter(
+            ServerConfig.getLong("MESSAGE_BATCH_WINDOW_MS", 2),
+            ServerConfig.getInt("MESSAGE_BATCH_MAX_SIZE", 200)
+        );
+        this.saveTimeoutMillis = ServerConfig.getLong(
+            "MESSAGE_SAVE_TIMEOUT_MS",
+            10000
+        );
+    }
 
     public static synchronized MessageDAO getInstance() {
         if (instance == null) {
@@ -23,52 +45,49 @@ public class MessageDAO {
         return instance;
     }
 
+    /**
+     * Stores a new message and sets its generated id. Concurrent calls are
+     * coalesced into batched inserts; this blocks until the batch holding
+     * this message has been written. If the insert has not started within
+     * {@code MESSAGE_SAVE_TIMEOUT_MS}, the message is withdrawn and never
+     * stored; once it has started, this waits for its outcome. For direct
+     * chats the {@code last_message_timestamp} is kept current by a
+     * database trigger.
+     */
     public MessageDTO saveMessage(MessageDTO message) throws SQLException {
-        String sql = """
-            INSERT INTO messages (room_id, direct_chat_id, sender_username, content, timestamp)
-            VALUES (?, ?, ?, ?, ?)
-            RETURNING id
-            """;
-
-        try (
-            Connection conn = DatabaseConnection.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql);
-        ) {
-            if (message.getRoomId() > 0) {
-                stmt.setInt(1, message.getRoomId());
-                stmt.setNull(2, java.sql.Types.INTEGER);
-            } else {
-                stmt.setNull(1, java.sql.Types.INTEGER);
-                stmt.setInt(2, Math.abs(message.getRoomId()));
-            }
-            /*stmt.setObject(
-                1,
-                message.getRoomId() > 0 ? message.getRoomId() : null
-            );
-            stmt.setObject(
-                2,
-                message.getRoomId() <= 0 ? Math.abs(message.getRoomId()) : null
-                );*/
-            stmt.setString(3, message.getSenderUsername());
-            stmt.setString(4, message.getContent());
-            stmt.setTimestamp(5, new Timestamp(message.getTimestamp()));
-
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                message.setId(rs.getInt("id"));
-
-                if (message.getRoomId() <= 0) {
-                    DirectChatDAO.getInstance().updateLastMessageTimestamp(
-                        Math.abs(message.getRoomId())
+        MessageBatchWriter.PendingMessage pending = batchWriter.submit(message);
+        try {
+            try {
+                return pending.result().get(saveTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (pending.abandon()) {
+                    throw new SQLException(
+                        "Timed out after " + saveTimeoutMillis + " ms saving message; it was not stored",
+                        e
                     );
                 }
-
-                return message;
+                // Already being inserted, so only its outcome can tell
+                return pending.result().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.abandon();
+            throw new SQLException("Interrupted while saving message", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
             }
-            throw new SQLException("Failed to save message, no ID returned");
+            throw new SQLException("Failed to save message", e.getCause());
         }
     }
 
+    /**
+     * Writes out any queued messages and stops the batch writer.
+     */
+    public void shutdown() {
+        batchWriter.shutdown();
+    }
+
     public List<MessageDTO> getGroupChatMessages(int roomId, int limit)
         throws SQLException {
         String sql = """
@@ -101,10 +120,14 @@ public class MessageDAO {
         return messages;
     }
 
+    /**
+     * Up to {@code limit} messages newer than {@code timestamp}, oldest first.
+     */
     public List<MessageDTO> getMessagesAfter(
         int roomId,
         long timestamp,
-        boolean isDirectChat
+        boolean isDirectChat,
+        int limit
     ) throws SQLException {
         String sql;
         if (isDirectChat) {
@@ -112,25 +135,28 @@ public class MessageDAO {
                 SELECT id, direct_chat_id as room_id, sender_username, content, timestamp, is_edited, edited_timestamp, is_deleted
                 FROM messages
                 WHERE direct_chat_id = ? AND timestamp > ? AND is_deleted = false
-                ORDER BY timestamp ASC
+                ORDER BY timestamp ASC, id ASC
+                LIMIT ?
                 """;
         } else {
             sql = """
                 SELECT id, room_id, sender_username, content, timestamp, is_edited, edited_timestamp, is_deleted
                 FROM messages
                 WHERE room_id = ? AND timestamp > ? AND is_deleted = false
-                ORDER BY timestamp ASC
+                ORDER BY timestamp ASC, id ASC
+                LIMIT ?
                 """;
         }
 
         List<MessageDTO> messages = new ArrayList<>();
 
         try (
-            Connection conn = DatabaseConnection.getConnection();
+            Connection conn = DatabaseConnection.getConnection("MessageDAO.getMessagesAfter");
             PreparedStatement stmt = conn.prepareStatement(sql);
         ) {
             stmt.setInt(1, Math.abs(roomId));
             stmt.setTimestamp(2, new Timestamp(timestamp));
+            stmt.setInt(3, limit);
 
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -145,6 +171,117 @@ public class MessageDAO {
         return messages;
     }
 
+    /**
+     * Messages newer than {@code afterMessageId} in every chat the user
+     * belongs to, in id order, with the usual signed chat ids. Used to replay
+     * what a reconnecting client missed.
+     */
+    public List<MessageDTO> getMessagesForUserAfter(
+        String username,
+        int afterMessageId,
+        int limit
+    ) throws SQLException {
+        String sql = """
+            SELECT * FROM (
+                SELECT m.id, m.room_id, m.sender_username, m.content, m.timestamp, m.is_edited, m.edited_timestamp, m.is_deleted
+                FROM messages m
+                JOIN group_members gm ON gm.room_id = m.room_id AND gm.username = ?
+                WHERE m.id > ? AND m.is_deleted = false
+                UNION ALL
+                SELECT m.id, -m.direct_chat_id, m.sender_username, m.content, m.timestamp, m.is_edited, m.edited_timestamp, m.is_deleted
+                FROM messages m
+                JOIN direct_chats dc ON dc.id = m.direct_chat_id
+                WHERE (dc.user1_username = ? OR dc.user2_username = ?)
+                  AND m.id > ? AND m.is_deleted = false
+            ) missed
+            ORDER BY id
+            LIMIT ?
+            """;
+
+        List<MessageDTO> messages = new ArrayList<>();
+
+        try (
+            Connection conn = DatabaseConnection.getConnection("MessageDAO.getMessagesForUserAfter");
+            PreparedStatement stmt = conn.prepareStatement(sql);
+        ) {
+            stmt.setString(1, username);
+            stmt.setInt(2, afterMessageId);
+            stmt.setString(3, username);
+            stmt.setString(4, username);
+            stmt.setInt(5, afterMessageId);
+            stmt.setInt(6, limit);
+
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                messages.add(createMessageFromResultSet(rs));
+            }
+        }
+
+        return messages;
+    }
+
+    /**
+     * One page of history older than {@code beforeMessageId}, in chronological
+     * order. {@code chatId} follows the usual convention of negative ids for
+     * direct chats. A cursor of {@code 0} or less returns the newest page.
+     * Paging is keyed on {@code (timestamp, id)}, so the cost of a page does
+     * not depend on how far back it is.
+     */
+    public List<MessageDTO> getMessagesBefore(
+        int chatId,
+        int beforeMessageId,
+        int limit
+    ) throws SQLException {
+        boolean isDirectChat = chatId < 0;
+        String sql = """
+            SELECT id, %s as room_id, sender_username, content, timestamp, is_edited, edited_timestamp, is_deleted
+            FROM messages
+            WHERE %s = ? AND is_deleted = false
+              %s
+            ORDER BY timestamp DESC, id DESC
+            LIMIT ?
+            """.formatted(
+                chatColumn(isDirectChat),
+                chatColumn(isDirectChat),
+                beforeMessageId > 0 ? CURSOR_BEFORE : ""
+            );
+
+        List<MessageDTO> messages = getMessagePage(
+            sql,
+            chatId,
+            beforeMessageId,
+            limit
+        );
+        Collections.reverse(messages);
+        return messages;
+    }
+
+    /**
+     * One page of history newer than {@code afterMessageId}, in chronological
+     * order. A cursor of {@code 0} or less starts at the oldest message.
+     */
+    public List<MessageDTO> getMessagesAfter(
+        int chatId,
+        int afterMessageId,
+        int limit
+    ) throws SQLException {
+        boolean isDirectChat = chatId < 0;
+        String sql = """
+            SELECT id, %s as room_id, sender_username, content, timestamp, is_edited, edited_timestamp, is_deleted
+            FROM messages
+            WHERE %s = ? AND is_deleted = false
+              %s
+            ORDER BY timestamp ASC, id ASC
+            LIMIT ?
+            """.formatted(
+                chatColumn(isDirectChat),
+                chatColumn(isDirectChat),
+                afterMessageId > 0 ? CURSOR_AFTER : ""
+            );
+
+        return getMessagePage(sql, chatId, afterMessageId, limit);
+    }
+
     public void editMessage(
         int messageId,
         String newContent,
@@ -161,7 +298,7 @@ public class MessageDAO {
             """;
 
         try (
-            Connection conn = DatabaseConnection.getConnection();
+            Connection conn = DatabaseConnection.getConnection("MessageDAO.editMessage");
             PreparedStatement stmt = conn.prepareStatement(sql);
         ) {
             stmt.setString(1, newContent);
@@ -183,7 +320,7 @@ public class MessageDAO {
         String sql = "UPDATE messages SET is_deleted = true WHERE id = ?";
 
         try (
-            Connection conn = DatabaseConnection.getConnection();
+            Connection conn = DatabaseConnection.getConnection("MessageDAO.deleteMessage");
             PreparedStatement stmt = conn.prepareStatement(sql);
         ) {
             stmt.setInt(1, messageId);
@@ -198,7 +335,7 @@ public class MessageDAO {
             """;
 
         try (
-            Connection conn = DatabaseConnection.getConnection();
+            Connection conn = DatabaseConnection.getConnection("MessageDAO.getMessageById");
             PreparedStatement stmt = conn.prepareStatement(sql);
         ) {
             stmt.setInt(1, messageId);
@@ -217,7 +354,7 @@ public class MessageDAO {
             "SELECT sender_username FROM messages WHERE id = ? AND is_deleted = false";
 
         try (
-            Connection conn = DatabaseConnection.getConnection();
+            Connection conn = DatabaseConnection.getConnection("MessageDAO.canUserEditMessage");
             PreparedStatement stmt = conn.prepareStatement(sql);
         ) {
             stmt.setInt(1, messageId);
@@ -236,7 +373,7 @@ public class MessageDAO {
             "SELECT sender_username FROM messages WHERE id = ? AND is_deleted = false";
 
         try (
-            Connection conn = DatabaseConnection.getConnection();
+            Connection conn = DatabaseConnection.getConnection("MessageDAO.canUserDeleteMessage");
             PreparedStatement stmt = conn.prepareStatement(sql);
         ) {
             stmt.setInt(1, messageId);
@@ -260,7 +397,7 @@ public class MessageDAO {
             """;
 
         try (
-            Connection conn = DatabaseConnection.getConnection();
+            Connection conn = DatabaseConnection.getConnection("MessageDAO.canUserDeleteMessage");
             PreparedStatement stmt = conn.prepareStatement(sql);
         ) {
             stmt.setString(1, username);
@@ -286,22 +423,59 @@ public class MessageDAO {
         List<MessageDTO> messages = new ArrayList<>();
 
         try (
-            Connection conn = DatabaseConnection.getConnection();
+            Connection conn = DatabaseConnection.getConnection("MessageDAO.getMessagesFromQuery");
             PreparedStatement stmt = conn.prepareStatement(sql);
         ) {
             stmt.setInt(1, id);
             stmt.setInt(2, limit);
 
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                messages.add(createMessageFromResultSet(rs));
+            }
+        }
+
+        // Rows come newest first; callers expect chronological order
+        Collections.reverse(messages);
+        return messages;
+    }
+
+    private List<MessageDTO> getMessagePage(
+        String sql,
+        int chatId,
+        int cursorMessageId,
+        int limit
+    ) throws SQLException {
+        List<MessageDTO> messages = new ArrayList<>();
+
+        try (
+            Connection conn = DatabaseConnection.getConnection("MessageDAO.getMessagePage");
+            PreparedStatement stmt = conn.prepareStatement(sql);
+        ) {
+            int index = 1;
+            stmt.setInt(index++, Math.abs(chatId));
+            if (cursorMessageId > 0) {
+                stmt.setInt(index++, cursorMessageId);
+            }
+            stmt.setInt(index, limit);
+
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
                 MessageDTO message = createMessageFromResultSet(rs);
-                messages.add(0, message);
+                if (chatId < 0) {
+                    message.setRoomId(-message.getRoomId());
+                }
+                messages.add(message);
             }
         }
 
         return messages;
     }
 
+    private static String chatColumn(boolean isDirectChat) {
+        return isDirectChat ? "direct_chat_id" : "room_id";
+    }
+
     private MessageDTO createMessageFromResultSet(ResultSet rs)
         throws SQLException {
         MessageDTO message = new MessageDTO();
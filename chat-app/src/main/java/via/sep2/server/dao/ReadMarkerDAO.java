@@ -0,0 +1,295 @@
+package via.sep2.server.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import via.sep2.server.database.DatabaseConnection;
+import via.sep2.server.util.ServerConfig;
+import via.sep2.shared.dto.ChatOverviewDTO;
+import via.sep2.shared.dto.ChatRoomType;
+
+/**
+ * Read position and unread counter of every user in every chat.
+ *
+ * New messages and read receipts only touch an in-memory table of pending
+ * changes; a background task writes the accumulated changes to
+ * {@code chat_read_markers} in one batch per interval. Counters are therefore
+ * never recomputed from {@code messages}. Readers that need exact numbers
+ * before the next flush overlay the pending changes with
+ * {@link #applyPending(String, List)}. Chat ids are signed, negative for
+ * direct chats.
+ */
+public class ReadMarkerDAO {
+
+    private static final Logger logger = Logger.getLogger(ReadMarkerDAO.class.getName());
+
+    private static ReadMarkerDAO instance;
+
+    private final Map<MarkerKey, PendingChange> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    private ReadMarkerDAO() {
+        long flushIntervalMillis = ServerConfig.getLong("READ_MARKER_FLUSH_MS", 1000);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ReadMarker-Flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis,
+                flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized ReadMarkerDAO getInstance() {
+        if (instance == null) {
+            instance = new ReadMarkerDAO();
+        }
+        return instance;
+    }
+
+    /**
+     * Counts a new message as unread for every participant except the
+     * sender, whose read position moves to the message.
+     */
+    public void recordMessage(int chatId, int messageId, String senderUsername, Collection<String> participants) {
+        for (String username : participants) {
+            if (username.equals(senderUsername)) {
+                markRead(username, chatId, messageId);
+            } else {
+                while (!change(username, chatId).increment(messageId)) {
+                    // Entry was taken by a flush in the meantime; retry on a fresh one
+                }
+            }
+        }
+    }
+
+    public void markRead(String username, int chatId, int messageId) {
+        while (!change(username, chatId).markRead(messageId)) {
+            // Entry was taken by a flush in the meantime; retry on a fresh one
+        }
+    }
+
+    /**
+     * Adjusts unread counts loaded from the database by the changes that
+     * have not been flushed yet.
+     */
+    public void applyPending(String username, List<ChatOverviewDTO> chats) {
+        for (ChatOverviewDTO chat : chats) {
+            int chatId = chat.getType() == ChatRoomType.DIRECT ? -chat.getChatId() : chat.getChatId();
+            PendingChange change = pending.get(new MarkerKey(username, chatId));
+            if (change != null) {
+                chat.setUnreadCount(change.applyTo(chat.getUnreadCount()));
+            }
+        }
+    }
+
+    /**
+     * Writes all pending changes and stops the background flush.
+     */
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    private PendingChange change(String username, int chatId) {
+        return pending.computeIfAbsent(new MarkerKey(username, chatId), key -> new PendingChange());
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException | RuntimeException e) {
+            logger.log(Level.WARNING, "Failed to flush read markers", e);
+        }
+    }
+
+    private synchronized void flush() throws SQLException {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Take ownership of each entry; changes arriving meanwhile start a fresh one
+        List<Map.Entry<MarkerKey, PendingChange>> batch = new ArrayList<>();
+        for (MarkerKey key : pending.keySet()) {
+            PendingChange change = pending.remove(key);
+            if (change != null) {
+                change.close();
+                batch.add(Map.entry(key, change));
+            }
+        }
+
+        String incrementSql = """
+                INSERT INTO chat_read_markers (username, %s, unread_count)
+                VALUES (?, ?, ?)
+                ON CONFLICT (username, %s) WHERE %s IS NOT NULL
+                DO UPDATE SET unread_count = chat_read_markers.unread_count + EXCLUDED.unread_count,
+                              updated_at = CURRENT_TIMESTAMP
+                """;
+        String readSql = """
+                INSERT INTO chat_read_markers (username, %s, last_read_message_id, unread_count)
+                VALUES (?, ?, ?, ?)
+                ON CONFLICT (username, %s) WHERE %s IS NOT NULL
+                DO UPDATE SET last_read_message_id = GREATEST(chat_read_markers.last_read_message_id,
+                                                              EXCLUDED.last_read_message_id),
+                              unread_count = CASE
+                                  WHEN chat_read_markers.last_read_message_id > EXCLUDED.last_read_message_id
+                                  THEN chat_read_markers.unread_count + EXCLUDED.unread_count
+                                  ELSE EXCLUDED.unread_count
+                              END,
+                              updated_at = CURRENT_TIMESTAMP
+                """;
+
+        try (Connection conn = DatabaseConnection.getConnection("ReadMarkerDAO.flush");
+                PreparedStatement groupIncrement = conn.prepareStatement(forColumn(incrementSql, "room_id"));
+                PreparedStatement directIncrement = conn.prepareStatement(forColumn(incrementSql, "direct_chat_id"));
+                PreparedStatement groupRead = conn.prepareStatement(forColumn(readSql, "room_id"));
+                PreparedStatement directRead = conn.prepareStatement(forColumn(readSql, "direct_chat_id"))) {
+
+            conn.setAutoCommit(false);
+
+            for (Map.Entry<MarkerKey, PendingChange> entry : batch) {
+                MarkerKey key = entry.getKey();
+                PendingChange change = entry.getValue();
+                boolean isDirect = key.chatId() < 0;
+
+                synchronized (change) {
+                    if (change.readMessageId > 0) {
+                        PreparedStatement stmt = isDirect ? directRead : groupRead;
+                        stmt.setString(1, key.username());
+                        stmt.setInt(2, Math.abs(key.chatId()));
+                        stmt.setInt(3, change.readMessageId);
+                        stmt.setInt(4, change.unreadDelta());
+                        stmt.addBatch();
+                    } else if (change.unreadDelta() != 0) {
+                        PreparedStatement stmt = isDirect ? directIncrement : groupIncrement;
+                        stmt.setString(1, key.username());
+                        stmt.setInt(2, Math.abs(key.chatId()));
+                        stmt.setInt(3, change.unreadDelta());
+                        stmt.addBatch();
+                    }
+                }
+            }
+
+            groupIncrement.executeBatch();
+            directIncrement.executeBatch();
+            groupRead.executeBatch();
+            directRead.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            // Put the changes back so the next flush retries them
+            for (Map.Entry<MarkerKey, PendingChange> entry : batch) {
+                pending.merge(entry.getKey(), entry.getValue().reopen(), PendingChange::mergeNewer);
+            }
+            throw e;
+        }
+    }
+
+    private static String forColumn(String sql, String column) {
+        return sql.formatted(column, column, column);
+    }
+
+    private record MarkerKey(String username, int chatId) {
+    }
+
+    static final class PendingChange {
+        // 0 when the user has not read anything since the last flush
+        private int readMessageId = 0;
+        // Messages counted as unread since the read position, or on top of
+        // the stored count; ids are kept so a receipt for an older message
+        // leaves exactly the newer ones unread
+        private int[] countedIds = new int[4];
+        private int countedCount = 0;
+        // Set once a flush has taken the entry; later updates must use a new one
+        private boolean closed = false;
+
+        synchronized boolean increment(int messageId) {
+            if (closed) {
+                return false;
+            }
+            if (messageId > readMessageId || readMessageId == 0) {
+                count(messageId);
+            }
+            return true;
+        }
+
+        // A late receipt for an older message never moves the position back
+        synchronized boolean markRead(int messageId) {
+            if (closed) {
+                return false;
+            }
+            if (messageId > readMessageId) {
+                readMessageId = messageId;
+                forgetReadUpTo(messageId);
+            }
+            return true;
+        }
+
+        synchronized int unreadDelta() {
+            return countedCount;
+        }
+
+        synchronized int applyTo(int storedUnreadCount) {
+            return readMessageId > 0 ? countedCount : storedUnreadCount + countedCount;
+        }
+
+        private synchronized void close() {
+            closed = true;
+        }
+
+        private synchronized PendingChange reopen() {
+            PendingChange copy = new PendingChange();
+            copy.readMessageId = readMessageId;
+            copy.countedIds = Arrays.copyOf(countedIds, Math.max(countedCount, 4));
+            copy.countedCount = countedCount;
+            return copy;
+        }
+
+        // Combines a change that failed to flush with one recorded after it
+        static PendingChange mergeNewer(PendingChange newer, PendingChange older) {
+            synchronized (newer) {
+                newer.readMessageId = Math.max(newer.readMessageId, older.readMessageId);
+                for (int i = 0; i < older.countedCount; i++) {
+                    newer.count(older.countedIds[i]);
+                }
+                if (newer.readMessageId > 0) {
+                    newer.forgetReadUpTo(newer.readMessageId);
+                }
+            }
+            return newer;
+        }
+
+        private void count(int messageId) {
+            if (countedCount == countedIds.length) {
+                countedIds = Arrays.copyOf(countedIds, countedCount * 2);
+            }
+            countedIds[countedCount++] = messageId;
+        }
+
+        private void forgetReadUpTo(int messageId) {
+            int kept = 0;
+            for (int i = 0; i < countedCount; i++) {
+                if (countedIds[i] > messageId) {
+                    countedIds[kept++] = countedIds[i];
+                }
+            }
+            countedCount = kept;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package via.sep2.server.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import via.sep2.server.database.DatabaseConnection;
+import via.sep2.shared.dto.UserDTO;
+
+/**
+ * Login sessions in {@code user_sessions}. Only a hash of each token is
+ * stored, so the table alone cannot be used to take over a session.
+ */
+public class SessionDAO {
+
+    private static SessionDAO instance;
+
+    private SessionDAO() {}
+
+    public static synchronized SessionDAO getInstance() {
+        if (instance == null) {
+            instance = new SessionDAO();
+        }
+        return instance;
+    }
+
+    public void createSession(String username, String tokenHash) throws SQLException {
+        String sql =
+            "INSERT INTO user_sessions (username, session_token) VALUES (?, ?)";
+
+        try (
+            Connection conn = DatabaseConnection.getConnection("SessionDAO.createSession");
+            PreparedStatement stmt = conn.prepareStatement(sql);
+        ) {
+            stmt.setString(1, username);
+            stmt.setString(2, tokenHash);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Returns the user of an active session that was used within the last
+     * {@code maxIdleMinutes}, and records the activity. Returns {@code null}
+     * for unknown, ended or expired sessions.
+     */
+    public UserDTO touchSession(String tokenHash, long maxIdleMinutes) throws SQLException {
+        String sql = """
+            WITH session AS (
+                UPDATE user_sessions
+                SET last_activity = CURRENT_TIMESTAMP
+                WHERE session_token = ?
+                  AND is_active = TRUE
+                  AND last_activity > CURRENT_TIMESTAMP - make_interval(mins => ?)
+                RETURNING username
+            )
+            SELECT u.id, u.username, u.first_name, u.last_name
+            FROM users u
+            JOIN session s ON s.username = u.username
+            """;
+
+        try (
+            Connection conn = DatabaseConnection.getConnection("SessionDAO.touchSession");
+            PreparedStatement stmt = conn.prepareStatement(sql);
+        ) {
+            stmt.setString(1, tokenHash);
+            stmt.setInt(2, (int) Math.min(maxIdleMinutes, Integer.MAX_VALUE));
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return new UserDTO(
+                    rs.getInt("id"),
+                    rs.getString("username"),
+                    rs.getString("first_name"),
+                    rs.getString("last_name")
+                );
+            }
+            return null;
+        }
+    }
+
+    public void endSession(String tokenHash) throws SQLException {
+        String sql =
+            "UPDATE user_sessions SET is_active = FALSE WHERE session_token = ?";
+
+        try (
+            Connection conn = DatabaseConnection.getConnection("SessionDAO.endSession");
+            PreparedStatement stmt = conn.prepareStatement(sql);
+        ) {
+            stmt.setString(1, tokenHash);
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -6,14 +6,26 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import via.sep2.server.cache.UserProfileCache;
 import via.sep2.server.database.DatabaseConnection;
+import via.sep2.server.util.ServerConfig;
 import via.sep2.shared.dto.UserDTO;
 
 public class UserDAO {
 
+    public record UserCredentials(UserDTO user, String passwordHash) {}
+
     private static UserDAO instance;
 
-    private UserDAO() {}
+    private final UserProfileCache profileCache;
+
+    private UserDAO() {
+        this.profileCache = new UserProfileCache(
+            ServerConfig.getInt("USER_CACHE_MAX_USERS", 10000),
+            ServerConfig.getLong("USER_CACHE_TTL_MS", 300000)
+        );
+    }
 
     public static synchronized UserDAO getInstance() {
         if (instance == null) {
@@ -23,22 +35,31 @@ public class UserDAO {
     }
 
     public UserDTO findByUsername(String username) throws SQLException {
+        UserDTO cached = profileCache.getByUsername(username);
+        if (cached != null) {
+            return cached;
+        }
+
+        long stamp = profileCache.getWriteStamp();
         String sql =
             "SELECT id, username, first_name, last_name FROM users WHERE username = ?";
 
         try (
-            Connection conn = DatabaseConnection.getConnection();
+            Connection conn = DatabaseConnection.getConnection("UserDAO.findByUsername");
             PreparedStatement stmt = conn.prepareStatement(sql);
         ) {
             stmt.setString(1, username);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return new UserDTO(
-                    rs.getInt("id"),
-                    rs.getString("username"),
-                    rs.getString("first_name"),
-                    rs.getString("last_name")
+                return profileCache.putIfUnchanged(
+                    new UserDTO(
+                        rs.getInt("id"),
+                        rs.getString("username"),
+                        rs.getString("first_name"),
+                        rs.getString("last_name")
+                    ),
+                    stamp
                 );
             }
             return null;
@@ -46,22 +67,31 @@ public class UserDAO {
     }
 
     public UserDTO findById(int id) throws SQLException {
+        UserDTO cached = profileCache.getById(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        long stamp = profileCache.getWriteStamp();
         String sql =
             "SELECT id, username, first_name, last_name FROM users WHERE id = ?";
 
         try (
-            Connection conn = DatabaseConnection.getConnection();
+            Connection conn = DatabaseConnection.getConnection("UserDAO.findById");
             PreparedStatement stmt = conn.prepareStatement(sql);
         ) {
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return new UserDTO(
-                    rs.getInt("id"),
-                    rs.getString("username"),
-                    rs.getString("first_name"),
-                    rs.getString("last_name")
+                return profileCache.putIfUnchanged(
+                    new UserDTO(
+                        rs.getInt("id"),
+                        rs.getString("username"),
+                        rs.getString("first_name"),
+                        rs.getString("last_name")
+                    ),
+                    stamp
                 );
             }
             return null;
@@ -72,7 +102,7 @@ public class UserDAO {
         String sql = "SELECT password FROM users WHERE username = ?";
 
         try (
-            Connection conn = DatabaseConnection.getConnection();
+            Connection conn = DatabaseConnection.getConnection("UserDAO.getPasswordHash");
             PreparedStatement stmt = conn.prepareStatement(sql);
         ) {
             stmt.setString(1, username);
@@ -85,11 +115,41 @@ public class UserDAO {
         }
     }
 
+    /**
+     * Profile and password hash of a user in one round trip, or {@code null}
+     * if the user does not exist.
+     */
+    public UserCredentials findCredentials(String username) throws SQLException {
+        String sql =
+            "SELECT id, username, first_name, last_name, password FROM users WHERE username = ?";
+
+        try (
+            Connection conn = DatabaseConnection.getConnection("UserDAO.findCredentials");
+            PreparedStatement stmt = conn.prepareStatement(sql);
+        ) {
+            stmt.setString(1, username);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return new UserCredentials(
+                    new UserDTO(
+                        rs.getInt("id"),
+                        rs.getString("username"),
+                        rs.getString("first_name"),
+                        rs.getString("last_name")
+                    ),
+                    rs.getString("password")
+                );
+            }
+            return null;
+        }
+    }
+
     public boolean usernameExists(String username) throws SQLException {
         String sql = "SELECT 1 FROM users WHERE username = ? LIMIT 1";
 
         try (
-            Connection conn = DatabaseConnection.getConnection();
+            Connection conn = DatabaseConnection.getConnection("UserDAO.usernameExists");
             PreparedStatement stmt = conn.prepareStatement(sql);
         ) {
             stmt.setString(1, username);
@@ -108,7 +168,7 @@ public class UserDAO {
             "INSERT INTO users (username, first_name, last_name, password) VALUES (?, ?, ?, ?) RETURNING id";
 
         try (
-            Connection conn = DatabaseConnection.getConnection();
+            Connection conn = DatabaseConnection.getConnection("UserDAO.createUser");
             PreparedStatement stmt = conn.prepareStatement(sql);
         ) {
             stmt.setString(1, username);
@@ -119,27 +179,37 @@ public class UserDAO {
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
                 int generatedId = rs.getInt("id");
+                profileCache.invalidate(username);
                 return new UserDTO(generatedId, username, firstName, lastName);
             }
             throw new SQLException("Failed to create user, no ID returned");
         }
     }
 
+    /**
+     * Drops the cached profile of a user. Call after changing the user's row.
+     */
+    public void invalidateCachedUser(String username) {
+        profileCache.invalidate(username);
+    }
+
     public List<UserDTO> searchUsers(String searchTerm, int limit)
         throws SQLException {
+        // The predicates match the trigram expression indexes in database.sql,
+        // so the search is a bitmap index scan instead of a sequential scan
         String sql = """
             SELECT id, username, first_name, last_name
             FROM users
-            WHERE LOWER(username) LIKE LOWER(?)
-               OR LOWER(first_name) LIKE LOWER(?)
-               OR LOWER(last_name) LIKE LOWER(?)
-               OR LOWER(CONCAT(first_name, ' ', last_name)) LIKE LOWER(?)
+            WHERE LOWER(username) LIKE ?
+               OR LOWER(first_name) LIKE ?
+               OR LOWER(last_name) LIKE ?
+               OR LOWER(first_name || ' ' || last_name) LIKE ?
             ORDER BY
                 CASE
-                    WHEN LOWER(username) = LOWER(?) THEN 1
-                    WHEN LOWER(username) LIKE LOWER(?) THEN 2
-                    WHEN LOWER(first_name) LIKE LOWER(?) THEN 3
-                    WHEN LOWER(last_name) LIKE LOWER(?) THEN 4
+                    WHEN LOWER(username) = ? THEN 1
+                    WHEN LOWER(username) LIKE ? THEN 2
+                    WHEN LOWER(first_name) LIKE ? THEN 3
+                    WHEN LOWER(last_name) LIKE ? THEN 4
                     ELSE 5
                 END,
                 username
@@ -147,20 +217,23 @@ public class UserDAO {
             """;
 
         List<UserDTO> users = new ArrayList<>();
-        String searchPattern = "%" + searchTerm + "%";
+        String term = searchTerm.toLowerCase(Locale.ROOT);
+        String escapedTerm = escapeLikePattern(term);
+        String searchPattern = "%" + escapedTerm + "%";
+        String prefixPattern = escapedTerm + "%";
 
         try (
-            Connection conn = DatabaseConnection.getConnection();
+            Connection conn = DatabaseConnection.getConnection("UserDAO.searchUsers");
             PreparedStatement stmt = conn.prepareStatement(sql);
         ) {
             stmt.setString(1, searchPattern); // username LIKE
             stmt.setString(2, searchPattern); // first_name LIKE
             stmt.setString(3, searchPattern); // last_name LIKE
             stmt.setString(4, searchPattern); // full name LIKE
-            stmt.setString(5, searchTerm); // exact username match (highest priority)
-            stmt.setString(6, searchTerm + "%"); // username starts with (second priority)
-            stmt.setString(7, searchTerm + "%"); // first_name starts with
-            stmt.setString(8, searchTerm + "%"); // last_name starts with
+            stmt.setString(5, term); // exact username match (highest priority)
+            stmt.setString(6, prefixPattern); // username starts with (second priority)
+            stmt.setString(7, prefixPattern); // first_name starts with
+            stmt.setString(8, prefixPattern); // last_name starts with
             stmt.setInt(9, limit);
 
             ResultSet rs = stmt.executeQuery();
@@ -178,4 +251,12 @@ public class UserDAO {
 
         return users;
     }
+
+    // Makes wildcards typed by the user match literally
+    private static String escapeLikePattern(String term) {
+        return term
+            .replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_");
+    }
 }
@@ -0,0 +1,425 @@
+package via.sep2.server.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import via.sep2.server.metrics.CallStats;
+import via.sep2.server.metrics.ServerMetrics;
+
+/**
+ * Bounded JDBC connection pool.
+ *
+ * Callers borrow with {@link #getConnection()} and give the connection back by
+ * closing it, so the existing try-with-resources blocks in the DAOs keep
+ * working unchanged. Idle connections are reused most-recently-used first,
+ * validated before being handed out, and evicted down to the minimum size
+ * once they have been idle for too long.
+ *
+ * When metrics are enabled, the time each caller holds a connection is
+ * recorded in {@link ServerMetrics} under the name the caller passed to
+ * {@link #getConnection(String)}, by convention {@code DAOClass.method}.
+ */
+public class ConnectionPool implements ConnectionPoolMXBean {
+
+    private static final Logger logger = Logger.getLogger(ConnectionPool.class.getName());
+
+    // A connection that was in use this recently is assumed to still be alive
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long HOUSEKEEPING_INTERVAL_MILLIS = 5000;
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakDetectionThresholdMillis;
+
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledEntry> borrowed = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    private final AtomicLong connectionsCreated = new AtomicLong();
+    private final AtomicLong connectionsDiscarded = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+
+    private final ServerMetrics metrics = ServerMetrics.getInstance();
+
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+            long borrowTimeoutMillis, long idleTimeoutMillis, long leakDetectionThresholdMillis) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException(
+                    "Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ConnectionPool-Housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, HOUSEKEEPING_INTERVAL_MILLIS,
+                HOUSEKEEPING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+        fillToMinimum();
+
+        logger.info("Connection pool started (min=" + minSize + ", max=" + maxSize + ")");
+    }
+
+    public Connection getConnection() throws SQLException {
+        return getConnection(null);
+    }
+
+    /**
+     * Borrows a connection and records how long it is held under
+     * {@code caller}; a {@code null} caller is not recorded.
+     */
+    public Connection getConnection(String caller) throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long waitStart = System.nanoTime();
+        try {
+            boolean acquired = permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+            metrics.connectionWaits().record(waitStart, !acquired);
+            if (!acquired) {
+                borrowTimeouts.incrementAndGet();
+                throw new SQLTimeoutException("Timed out after " + borrowTimeoutMillis
+                        + " ms waiting for a database connection (pool size " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledEntry entry = takeValidIdleEntry();
+            if (entry == null) {
+                entry = openEntry();
+            }
+
+            entry.borrowedAt = System.currentTimeMillis();
+            entry.borrowSite = leakDetectionThresholdMillis > 0 ? new Exception("Connection borrowed here") : null;
+            entry.leakReported = false;
+            borrowed.add(entry);
+            borrowCount.incrementAndGet();
+
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new ConnectionHandle(entry, metrics.isEnabled() ? caller : null));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        housekeeper.shutdownNow();
+
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry);
+        }
+
+        if (!borrowed.isEmpty()) {
+            logger.warning(borrowed.size() + " connection(s) still borrowed while closing the pool; "
+                    + "they will be closed when returned");
+        }
+        logger.info("Connection pool closed");
+    }
+
+    @Override
+    public int getMinSize() {
+        return minSize;
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public int getActiveConnections() {
+        return borrowed.size();
+    }
+
+    @Override
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    @Override
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    @Override
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    @Override
+    public long getBorrowTimeouts() {
+        return borrowTimeouts.get();
+    }
+
+    @Override
+    public long getConnectionsCreated() {
+        return connectionsCreated.get();
+    }
+
+    @Override
+    public long getConnectionsDiscarded() {
+        return connectionsDiscarded.get();
+    }
+
+    @Override
+    public long getLeaksDetected() {
+        return leaksDetected.get();
+    }
+
+    private PooledEntry takeValidIdleEntry() {
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            if (isUsable(entry)) {
+                return entry;
+            }
+            discard(entry);
+        }
+        return null;
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        if (System.currentTimeMillis() - entry.lastReturnedAt < VALIDATION_BYPASS_MILLIS) {
+            return true;
+        }
+        try {
+            return entry.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledEntry openEntry() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, user, password);
+        totalConnections.incrementAndGet();
+        connectionsCreated.incrementAndGet();
+        return new PooledEntry(connection);
+    }
+
+    private void release(PooledEntry entry) {
+        borrowed.remove(entry);
+        entry.borrowSite = null;
+
+        try {
+            if (!closed && !entry.broken && resetState(entry)) {
+                entry.lastReturnedAt = System.currentTimeMillis();
+                idle.offerFirst(entry);
+            } else {
+                discard(entry);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean resetState(PooledEntry entry) {
+        try {
+            Connection connection = entry.connection;
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            connection.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            logger.warning("Discarding connection that could not be reset: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void discard(PooledEntry entry) {
+        totalConnections.decrementAndGet();
+        connectionsDiscarded.incrementAndGet();
+        try {
+            entry.connection.close();
+        } catch (SQLException e) {
+            logger.fine("Error closing discarded connection: " + e.getMessage());
+        }
+    }
+
+    private void housekeep() {
+        try {
+            evictIdle();
+            fillToMinimum();
+            detectLeaks();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Connection pool housekeeping failed", e);
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        // Oldest idle connections sit at the tail of the deque
+        Iterator<PooledEntry> it = idle.descendingIterator();
+        while (it.hasNext() && totalConnections.get() > minSize) {
+            PooledEntry entry = it.next();
+            if (now - entry.lastReturnedAt > idleTimeoutMillis && idle.remove(entry)) {
+                discard(entry);
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && totalConnections.get() < minSize) {
+            try {
+                PooledEntry entry = openEntry();
+                entry.lastReturnedAt = System.currentTimeMillis();
+                idle.offerLast(entry);
+            } catch (SQLException e) {
+                logger.warning("Could not open connection to reach minimum pool size: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        if (leakDetectionThresholdMillis <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (PooledEntry entry : borrowed) {
+            if (!entry.leakReported && now - entry.borrowedAt > leakDetectionThresholdMillis) {
+                entry.leakReported = true;
+                leaksDetected.incrementAndGet();
+                logger.log(Level.WARNING, "Possible connection leak: connection held for "
+                        + (now - entry.borrowedAt) + " ms", entry.borrowSite);
+            }
+        }
+    }
+
+    private static boolean isConnectionFailure(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+
+    private static final class PooledEntry {
+        private final Connection connection;
+        private volatile long lastReturnedAt;
+        private volatile long borrowedAt;
+        private volatile Exception borrowSite;
+        private volatile boolean leakReported;
+        private volatile boolean broken;
+
+        private PooledEntry(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    /**
+     * The handle given to callers. Closing it returns the underlying connection
+     * to the pool; any later use of the same handle fails.
+     */
+    private final class ConnectionHandle implements InvocationHandler {
+        private final PooledEntry entry;
+        private final String borrower;
+        private final long borrowedNanos = System.nanoTime();
+        private boolean released = false;
+        private boolean failed = false;
+
+        private ConnectionHandle(PooledEntry entry, String borrower) {
+            this.entry = entry;
+            this.borrower = borrower;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(entry);
+                        if (borrower != null) {
+                            metrics.daoMethod(borrower).record(borrowedNanos, failed);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return released || entry.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + entry.connection + "]";
+                default:
+                    break;
+            }
+
+            if (released) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+
+            try {
+                return method.invoke(entry.connection, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                failed = true;
+                if (cause instanceof SQLException && isConnectionFailure((SQLException) cause)) {
+                    entry.broken = true;
+                }
+                throw cause;
+            }
+        }
+    }
+}
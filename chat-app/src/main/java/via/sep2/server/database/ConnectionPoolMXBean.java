@@ -0,0 +1,29 @@
+package via.sep2.server.database;
+
+/**
+ * JMX view of a {@link ConnectionPool}.
+ */
+public interface ConnectionPoolMXBean {
+
+    int getMinSize();
+
+    int getMaxSize();
+
+    int getActiveConnections();
+
+    int getIdleConnections();
+
+    int getTotalConnections();
+
+    int getWaitingThreads();
+
+    long getBorrowCount();
+
+    long getBorrowTimeouts();
+
+    long getConnectionsCreated();
+
+    long getConnectionsDiscarded();
+
+    long getLeaksDetected();
+}
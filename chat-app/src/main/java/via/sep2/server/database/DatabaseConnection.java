@@ -1,38 +1,67 @@
 package via.sep2.server.database;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
-import io.github.cdimascio.dotenv.Dotenv;
+import via.sep2.server.util.ServerConfig;
 
 public class DatabaseConnection {
 
-    private static final Dotenv dotenv = Dotenv.load();
-    private static final String DB_URL = dotenv.get("DB_URL");
-    private static final String DB_USER = dotenv.get("DB_USER");
-    private static final String DB_PASSWORD = dotenv.get("DB_PASSWORD");
+    private static final String DB_URL = ServerConfig.get("DB_URL");
+    private static final String DB_USER = ServerConfig.get("DB_USER");
+    private static final String DB_PASSWORD = ServerConfig.get("DB_PASSWORD");
 
-    private static Connection connection = null;
+    private static volatile ConnectionPool pool = null;
 
     private DatabaseConnection() {
     }
 
+    /**
+     * Borrows a connection from the shared pool. Closing the returned
+     * connection hands it back to the pool instead of closing the socket.
+     */
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            validateEnvironmentVariables();
-            connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        return getPool().getConnection();
+    }
+
+    /**
+     * Borrows a connection like {@link #getConnection()} and records the time
+     * it is held in the server metrics under {@code caller}, e.g.
+     * {@code "MessageDAO.getMessagePage"}.
+     */
+    public static Connection getConnection(String caller) throws SQLException {
+        return getPool().getConnection(caller);
+    }
+
+    public static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = pool;
+                if (current == null) {
+                    validateEnvironmentVariables();
+                    current = new ConnectionPool(
+                            DB_URL,
+                            DB_USER,
+                            DB_PASSWORD,
+                            ServerConfig.getInt("DB_POOL_MIN_SIZE", 2),
+                            ServerConfig.getInt("DB_POOL_MAX_SIZE", 10),
+                            ServerConfig.getLong("DB_POOL_BORROW_TIMEOUT_MS", 5000),
+                            ServerConfig.getLong("DB_POOL_IDLE_TIMEOUT_MS", 300000),
+                            ServerConfig.getLong("DB_POOL_LEAK_THRESHOLD_MS", 30000));
+                    pool = current;
+                }
+            }
         }
-        return connection;
+        return current;
     }
 
     public static void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+        synchronized (DatabaseConnection.class) {
+            if (pool != null) {
+                pool.close();
+                pool = null;
             }
-        } catch (SQLException e) {
-            System.err.println("Error closing database connection: " + e.getMessage());
         }
     }
 
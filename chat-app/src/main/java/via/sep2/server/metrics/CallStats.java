@@ -0,0 +1,64 @@
+package via.sep2.server.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call count, error count and latency of one kind of call.
+ */
+public class CallStats implements CallStatsMXBean {
+
+    private final Histogram latencyMicros = new Histogram();
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Records a call that started at {@code startNanos}, a
+     * {@link System#nanoTime()} value, and ended now.
+     */
+    public void record(long startNanos, boolean failed) {
+        latencyMicros.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    @Override
+    public long getCalls() {
+        return latencyMicros.getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getTotalMicros() {
+        return latencyMicros.getSum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latencyMicros.getMean();
+    }
+
+    @Override
+    public long getP50Micros() {
+        return latencyMicros.getP50();
+    }
+
+    @Override
+    public long getP90Micros() {
+        return latencyMicros.getP90();
+    }
+
+    @Override
+    public long getP99Micros() {
+        return latencyMicros.getP99();
+    }
+
+    @Override
+    public long getMaxMicros() {
+        return latencyMicros.getMax();
+    }
+}
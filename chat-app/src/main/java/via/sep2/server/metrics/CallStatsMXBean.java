@@ -0,0 +1,23 @@
+package via.sep2.server.metrics;
+
+/**
+ * JMX view of {@link CallStats}. Latencies are in microseconds.
+ */
+public interface CallStatsMXBean {
+
+    long getCalls();
+
+    long getErrors();
+
+    long getTotalMicros();
+
+    double getMeanMicros();
+
+    long getP50Micros();
+
+    long getP90Micros();
+
+    long getP99Micros();
+
+    long getMaxMicros();
+}
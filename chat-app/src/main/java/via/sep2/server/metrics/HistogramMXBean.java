@@ -0,0 +1,24 @@
+package via.sep2.server.metrics;
+
+/**
+ * JMX view of a {@link Histogram}. Values are in the unit they were
+ * recorded in.
+ */
+public interface HistogramMXBean {
+
+    long getCount();
+
+    long getSum();
+
+    double getMean();
+
+    long getMax();
+
+    long getP50();
+
+    long getP90();
+
+    long getP99();
+
+    long getP999();
+}
@@ -0,0 +1,57 @@
+package via.sep2.server.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import via.sep2.shared.interfaces.ChatServerInterface;
+
+/**
+ * Wraps a {@link ChatServerInterface} so every call is counted and timed
+ * under its method name, whichever transport it came in on.
+ */
+public final class MeteredChatServer implements InvocationHandler {
+
+    private final ChatServerInterface server;
+    private final ServerMetrics metrics;
+    private final Map<Method, CallStats> stats = new ConcurrentHashMap<>();
+
+    private MeteredChatServer(ChatServerInterface server, ServerMetrics metrics) {
+        this.server = server;
+        this.metrics = metrics;
+    }
+
+    public static ChatServerInterface wrap(ChatServerInterface server, ServerMetrics metrics) {
+        return (ChatServerInterface) Proxy.newProxyInstance(
+                ChatServerInterface.class.getClassLoader(),
+                new Class<?>[] { ChatServerInterface.class },
+                new MeteredChatServer(server, metrics));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> "MeteredChatServer[" + server + "]";
+            };
+        }
+
+        CallStats calls = stats.computeIfAbsent(method, m -> metrics.remoteMethod(m.getName()));
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = method.invoke(server, args);
+            failed = false;
+            return result;
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        } finally {
+            calls.record(start, failed);
+        }
+    }
+}
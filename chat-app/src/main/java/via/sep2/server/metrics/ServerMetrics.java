@@ -0,0 +1,179 @@
+package via.sep2.server.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import via.sep2.server.database.ConnectionPool;
+import via.sep2.server.util.ServerConfig;
+
+/**
+ * Where the server's time goes: latency of every remote method, of every
+ * DAO method's database work and of client callbacks, the size of message
+ * fan-outs and the state of the connection pool.
+ *
+ * Everything is registered as an MXBean in the {@code via.sep2} JMX domain
+ * and, if {@code METRICS_DUMP_INTERVAL_MS} is set, logged as a text table
+ * at that interval. With {@code METRICS_ENABLED=false} remote methods and
+ * DAO methods are not timed at all, no MXBean is registered and nothing is
+ * dumped; callbacks, fan-out sizes and connection waits are still recorded
+ * by their callers but can no longer be read.
+ */
+public final class ServerMetrics {
+
+    private static final Logger logger = Logger.getLogger(ServerMetrics.class.getName());
+    private static final String DOMAIN = "via.sep2";
+
+    private static final ServerMetrics instance = new ServerMetrics(
+            ServerConfig.getBoolean("METRICS_ENABLED", true));
+
+    private final boolean enabled;
+    private final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    private final Map<String, CallStats> remoteMethods = new ConcurrentHashMap<>();
+    private final Map<String, CallStats> daoMethods = new ConcurrentHashMap<>();
+    private final CallStats callbacks = new CallStats();
+    private final CallStats connectionWaits = new CallStats();
+    private final Histogram messageFanOut = new Histogram();
+
+    private volatile ConnectionPool connectionPool;
+    private ScheduledExecutorService dumper;
+
+    private ServerMetrics(boolean enabled) {
+        this.enabled = enabled;
+        if (enabled) {
+            register(callbacks, "Callbacks", null);
+            register(connectionWaits, "ConnectionPool", "borrowWait");
+            register(messageFanOut, "MessageFanOut", null);
+        }
+    }
+
+    public static ServerMetrics getInstance() {
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CallStats remoteMethod(String name) {
+        return remoteMethods.computeIfAbsent(name, key -> register(new CallStats(), "RemoteMethod", key));
+    }
+
+    // Named Class.method of the DAO that borrowed the connection
+    public CallStats daoMethod(String name) {
+        return daoMethods.computeIfAbsent(name, key -> register(new CallStats(), "DaoMethod", key));
+    }
+
+    public CallStats callbacks() {
+        return callbacks;
+    }
+
+    public CallStats connectionWaits() {
+        return connectionWaits;
+    }
+
+    // Members a new message is delivered to
+    public Histogram messageFanOut() {
+        return messageFanOut;
+    }
+
+    /**
+     * Publishes the pool's MXBean and starts the periodic dump if an
+     * interval is configured.
+     */
+    public synchronized void start(ConnectionPool pool) {
+        if (!enabled || dumper != null) {
+            return;
+        }
+        connectionPool = pool;
+        register(pool, "ConnectionPool", "pool");
+
+        long interval = ServerConfig.getLong("METRICS_DUMP_INTERVAL_MS", 0);
+        if (interval > 0) {
+            dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "Metrics-Dump");
+                t.setDaemon(true);
+                return t;
+            });
+            dumper.scheduleAtFixedRate(() -> logger.info(dump()), interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized void stop() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+        }
+    }
+
+    /**
+     * All metrics since start as a text table, slowest total first.
+     */
+    public String dump() {
+        StringBuilder out = new StringBuilder("Server metrics since start (latencies in microseconds)\n");
+        appendCalls(out, "Remote method", remoteMethods);
+        appendCalls(out, "DAO method", daoMethods);
+        appendCalls(out, "Other", Map.of("client callback", callbacks, "connection borrow wait", connectionWaits));
+
+        out.append(String.format(Locale.ROOT,
+                "Message fan-out: %d messages, mean %.1f, p50 %d, p99 %d, max %d members%n",
+                messageFanOut.getCount(), messageFanOut.getMean(), messageFanOut.getP50(),
+                messageFanOut.getP99(), messageFanOut.getMax()));
+
+        ConnectionPool pool = connectionPool;
+        if (pool != null) {
+            out.append(String.format(Locale.ROOT,
+                    "Connection pool: %d active, %d idle, %d of max %d open, %d waiting, "
+                            + "%d borrows, %d timeouts, %d leaks%n",
+                    pool.getActiveConnections(), pool.getIdleConnections(), pool.getTotalConnections(),
+                    pool.getMaxSize(), pool.getWaitingThreads(), pool.getBorrowCount(),
+                    pool.getBorrowTimeouts(), pool.getLeaksDetected()));
+        }
+        return out.toString();
+    }
+
+    private static void appendCalls(StringBuilder out, String title, Map<String, CallStats> calls) {
+        List<Map.Entry<String, CallStats>> rows = new ArrayList<>(calls.entrySet());
+        rows.removeIf(row -> row.getValue().getCalls() == 0);
+        if (rows.isEmpty()) {
+            return;
+        }
+        rows.sort(Comparator.comparingLong((Map.Entry<String, CallStats> row) -> row.getValue().getTotalMicros())
+                .reversed());
+
+        out.append(String.format(Locale.ROOT, "%-40s %10s %8s %12s %10s %10s %10s %10s%n",
+                title, "calls", "errors", "total ms", "mean", "p50", "p99", "max"));
+        for (Map.Entry<String, CallStats> row : rows) {
+            CallStats stats = row.getValue();
+            out.append(String.format(Locale.ROOT, "  %-38s %10d %8d %12d %10.0f %10d %10d %10d%n",
+                    row.getKey(), stats.getCalls(), stats.getErrors(), stats.getTotalMicros() / 1000,
+                    stats.getMeanMicros(), stats.getP50Micros(), stats.getP99Micros(), stats.getMaxMicros()));
+        }
+    }
+
+    private <T> T register(T mbean, String type, String name) {
+        if (!enabled) {
+            return mbean;
+        }
+        try {
+            String objectName = DOMAIN + ":type=" + type + (name != null ? ",name=" + name : "");
+            mbeanServer.registerMBean(mbean, new ObjectName(objectName));
+        } catch (JMException e) {
+            logger.warning("Could not register metrics MBean " + type + " " + name + ": " + e.getMessage());
+        }
+        return mbean;
+    }
+}
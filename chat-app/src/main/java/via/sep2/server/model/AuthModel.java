@@ -1,5 +1,6 @@
 package via.sep2.server.model;
 
+import via.sep2.shared.dto.SessionDTO;
 import via.sep2.shared.dto.UserDTO;
 import via.sep2.shared.exception.AuthenticationException;
 
@@ -7,6 +8,12 @@ public interface AuthModel {
 
     UserDTO login(String username, String password) throws AuthenticationException;
 
+    SessionDTO openSession(String username, String password) throws AuthenticationException;
+
+    UserDTO resumeSession(String token) throws AuthenticationException;
+
+    void endSession(String token);
+
     UserDTO createAccount(String username, String password, String firstName, String lastName)
             throws AuthenticationException;
 
@@ -15,4 +22,8 @@ public interface AuthModel {
     boolean isValidPassword(String password);
 
     UserDTO getUserById(int userId);
+
+    UserDTO getUserByUsername(String username);
+
+    void shutdown();
 }
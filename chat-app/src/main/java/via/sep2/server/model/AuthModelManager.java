@@ -1,19 +1,67 @@
 package via.sep2.server.model;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.sql.SQLException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Logger;
+import via.sep2.server.dao.SessionDAO;
 import via.sep2.server.dao.UserDAO;
+import via.sep2.server.dao.UserDAO.UserCredentials;
 import via.sep2.server.util.PasswordHasher;
+import via.sep2.server.util.PasswordVerificationPool;
+import via.sep2.server.util.ServerConfig;
+import via.sep2.shared.dto.SessionDTO;
 import via.sep2.shared.dto.UserDTO;
 import via.sep2.shared.exception.AuthenticationException;
 
 public class AuthModelManager implements AuthModel {
 
+    private static final Logger logger = Logger.getLogger(
+        AuthModelManager.class.getName()
+    );
+
+    private static final int TOKEN_BYTES = 32;
+
+    // How long a resumed session is trusted before the database is asked again
+    private static final long SESSION_CACHE_TTL_MILLIS = 60_000;
+
+    private record CachedSession(UserDTO user, long verifiedAt) {}
+
     private final UserDAO userDAO;
+    private final SessionDAO sessionDAO;
     private final PasswordHasher passwordHasher;
+    private final PasswordVerificationPool verificationPool;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final long sessionIdleMinutes;
+
+    // Keyed by token hash
+    private final Map<String, CachedSession> sessionCache =
+        new ConcurrentHashMap<>();
 
     public AuthModelManager() {
         this.userDAO = UserDAO.getInstance();
+        this.sessionDAO = SessionDAO.getInstance();
         this.passwordHasher = PasswordHasher.getInstance();
+        this.verificationPool = new PasswordVerificationPool(
+            passwordHasher,
+            ServerConfig.getInt(
+                "AUTH_VERIFY_THREADS",
+                Runtime.getRuntime().availableProcessors()
+            ),
+            ServerConfig.getInt("AUTH_VERIFY_QUEUE_SIZE", 64),
+            ServerConfig.getLong("AUTH_VERIFY_TIMEOUT_MS", 10000)
+        );
+        this.sessionIdleMinutes = ServerConfig.getLong(
+            "SESSION_IDLE_TIMEOUT_MIN",
+            10080
+        );
     }
 
     @Override
@@ -22,30 +70,120 @@ public class AuthModelManager implements AuthModel {
         validateLoginInput(username, password);
 
         try {
-            String storedPasswordHash = userDAO.getPasswordHash(username);
-            if (storedPasswordHash == null) {
+            UserCredentials credentials = userDAO.findCredentials(username);
+            if (credentials == null) {
                 throw new AuthenticationException(
                     "Invalid username or password"
                 );
             }
 
-            if (!passwordHasher.verifyPassword(password, storedPasswordHash)) {
+            if (
+                !verificationPool.verify(password, credentials.passwordHash())
+            ) {
                 throw new AuthenticationException(
                     "Invalid username or password"
                 );
             }
 
-            UserDTO user = userDAO.findByUsername(username);
+            return credentials.user();
+        } catch (SQLException e) {
+            throw new AuthenticationException("Database error during login", e);
+        } catch (RejectedExecutionException e) {
+            throw new AuthenticationException(
+                "Server is busy, please try again in a moment",
+                e
+            );
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuthenticationException("Login was interrupted", e);
+        }
+    }
+
+    @Override
+    public SessionDTO openSession(String username, String password)
+        throws AuthenticationException {
+        UserDTO user = login(username, password);
+
+        byte[] tokenBytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(tokenBytes);
+        String token = Base64.getUrlEncoder()
+            .withoutPadding()
+            .encodeToString(tokenBytes);
+        String tokenHash = hashToken(token);
+
+        try {
+            sessionDAO.createSession(user.getUsername(), tokenHash);
+        } catch (SQLException e) {
+            throw new AuthenticationException(
+                "Database error while creating session",
+                e
+            );
+        }
+
+        long now = System.currentTimeMillis();
+        sessionCache
+            .values()
+            .removeIf(cached -> now - cached.verifiedAt() > SESSION_CACHE_TTL_MILLIS);
+        sessionCache.put(tokenHash, new CachedSession(user, now));
+
+        return new SessionDTO(token, user);
+    }
+
+    /**
+     * Logs in with a session token instead of a password. No PBKDF2 work is
+     * done, and a session checked within the last minute is not even looked
+     * up in the database.
+     */
+    @Override
+    public UserDTO resumeSession(String token) throws AuthenticationException {
+        if (token == null || token.isEmpty()) {
+            throw new AuthenticationException("Session token cannot be empty");
+        }
+
+        String tokenHash = hashToken(token);
+        long now = System.currentTimeMillis();
+
+        CachedSession cached = sessionCache.get(tokenHash);
+        if (cached != null && now - cached.verifiedAt() <= SESSION_CACHE_TTL_MILLIS) {
+            return cached.user();
+        }
+
+        try {
+            UserDTO user = sessionDAO.touchSession(tokenHash, sessionIdleMinutes);
             if (user == null) {
-                throw new AuthenticationException("User not found");
+                sessionCache.remove(tokenHash);
+                throw new AuthenticationException("Session has expired");
             }
-
+            sessionCache.put(tokenHash, new CachedSession(user, now));
             return user;
         } catch (SQLException e) {
-            throw new AuthenticationException("Database error during login", e);
+            throw new AuthenticationException(
+                "Database error while resuming session",
+                e
+            );
+        }
+    }
+
+    @Override
+    public void endSession(String token) {
+        if (token == null || token.isEmpty()) {
+            return;
+        }
+
+        String tokenHash = hashToken(token);
+        sessionCache.remove(tokenHash);
+        try {
+            sessionDAO.endSession(tokenHash);
+        } catch (SQLException e) {
+            logger.warning("Failed to end session: " + e.getMessage());
         }
     }
 
+    @Override
+    public void shutdown() {
+        verificationPool.shutdown();
+    }
+
     @Override
     public UserDTO createAccount(
         String username,
@@ -109,6 +247,17 @@ public class AuthModelManager implements AuthModel {
         try {
             return userDAO.findById(userId);
         } catch (SQLException e) {
+            logger.warning("Failed to look up user " + userId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public UserDTO getUserByUsername(String username) {
+        try {
+            return userDAO.findByUsername(username);
+        } catch (SQLException e) {
+            logger.warning("Failed to look up user " + username + ": " + e.getMessage());
             return null;
         }
     }
@@ -194,6 +343,17 @@ public class AuthModelManager implements AuthModel {
         }
     }
 
+    private static String hashToken(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(
+                token.getBytes(StandardCharsets.UTF_8)
+            );
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
     public static String capitalizeFirstChar(String input) {
         if (input == null || input.isEmpty()) {
             return input;
@@ -1,50 +1,108 @@
 package via.sep2.server.rmi;
 
 import java.rmi.RemoteException;
-import java.rmi.server.UnicastRemoteObject;
 import java.sql.SQLException;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import via.sep2.server.dao.ChatOverviewDAO;
 import via.sep2.server.dao.DirectChatDAO;
 import via.sep2.server.dao.GroupChatDAO;
 import via.sep2.server.dao.MessageDAO;
+import via.sep2.server.dao.ReadMarkerDAO;
 import via.sep2.server.dao.UserDAO;
+import via.sep2.server.metrics.ServerMetrics;
 import via.sep2.server.model.AuthModel;
 import via.sep2.server.model.AuthModelManager;
+import via.sep2.server.util.SampledLog;
+import via.sep2.server.util.ServerConfig;
 import via.sep2.shared.dto.ChatMemberDTO;
+import via.sep2.shared.dto.ChatOverviewDTO;
 import via.sep2.shared.dto.ChatRoomDTO;
 import via.sep2.shared.dto.DirectChatDTO;
+import via.sep2.shared.dto.EventReplayDTO;
 import via.sep2.shared.dto.MemberRole;
 import via.sep2.shared.dto.MessageDTO;
+import via.sep2.shared.dto.MessagePage;
+import via.sep2.shared.dto.PresenceStatus;
+import via.sep2.shared.dto.ResumeDTO;
+import via.sep2.shared.dto.SessionDTO;
 import via.sep2.shared.dto.UserDTO;
 import via.sep2.shared.exception.AuthenticationException;
+import via.sep2.shared.event.ChatEvent;
+import via.sep2.shared.event.JournaledEvent;
 import via.sep2.shared.interfaces.ChatClientCallbackInterface;
 import via.sep2.shared.interfaces.ChatServerInterface;
 
-public class ChatServerImpl
-        extends UnicastRemoteObject
-        implements ChatServerInterface {
+public class ChatServerImpl implements ChatServerInterface {
 
     private static final Logger logger = Logger.getLogger(
             ChatServerImpl.class.getName());
 
+    private static final int MAX_MESSAGE_PAGE_SIZE = 200;
+    // Clients that missed more than this reload their chats instead
+    private static final int MAX_RESUME_REPLAY = 500;
+
     private final AuthModel authModel;
 
+    private final ChatOverviewDAO chatOverviewDAO;
     private final DirectChatDAO directChatDAO;
     private final GroupChatDAO groupChatDAO;
     private final MessageDAO messageDAO;
+    private final ReadMarkerDAO readMarkerDAO;
 
     private final Map<String, ChatClientCallbackInterface> clients = new ConcurrentHashMap<>();
-
-    public ChatServerImpl() throws RemoteException {
-        super();
+    private final NotificationDispatcher dispatcher;
+    private final EventJournal journal;
+    private final ClientLivenessMonitor liveness;
+    private final PresenceTracker presence;
+    private final ServerMetrics metrics = ServerMetrics.getInstance();
+    private final SampledLog messageLog = new SampledLog(logger, Level.INFO,
+            ServerConfig.getInt("LOG_SAMPLE_EVERY", 100));
+
+    // Exported by the transports that serve it
+    public ChatServerImpl() {
         this.authModel = new AuthModelManager();
-
+        this.dispatcher = new NotificationDispatcher(
+                ServerConfig.getInt("NOTIFY_QUEUE_CAPACITY", 1000),
+                ServerConfig.getLong("NOTIFY_TIMEOUT_MS", 5000),
+                ServerConfig.getInt("EVENT_BATCH_MAX", 100),
+                ServerConfig.getLong("EVENT_BATCH_WINDOW_MS", 5),
+                (username, client, reason) -> clientLost(username, client));
+        this.liveness = new ClientLivenessMonitor(
+                ServerConfig.getLong("HEARTBEAT_INTERVAL_MS", 5000),
+                ServerConfig.getInt("HEARTBEAT_MAX_MISSES", 3),
+                clients,
+                dispatcher,
+                (username, client, reason) -> {
+                    clientLost(username, client);
+                    dispatcher.forget(username);
+                });
+        this.journal = new EventJournal(
+                ServerConfig.getInt("EVENT_JOURNAL_CAPACITY", 1000),
+                ServerConfig.getLong("EVENT_JOURNAL_RETENTION_MS", 600000));
+
+        this.chatOverviewDAO = ChatOverviewDAO.getInstance();
         this.directChatDAO = DirectChatDAO.getInstance();
         this.groupChatDAO = GroupChatDAO.getInstance();
         this.messageDAO = MessageDAO.getInstance();
+        this.readMarkerDAO = ReadMarkerDAO.getInstance();
+
+        this.presence = new PresenceTracker(
+                ServerConfig.getLong("PRESENCE_TICK_MS", 1000),
+                ServerConfig.getLong("PRESENCE_AWAY_TIMEOUT_MS", 60000),
+                clients,
+                this::getContacts,
+                (recipient, changes) -> {
+                    ChatClientCallbackInterface client = clients.get(recipient);
+                    if (client != null) {
+                        dispatcher.dispatch(recipient, client, c -> c.onPresenceChanged(changes));
+                    }
+                });
 
         logger.info(
                 "Chat server implementation initialized with database DAOs");
@@ -70,6 +128,113 @@ public class ChatServerImpl
         }
     }
 
+    @Override
+    public SessionDTO openSession(String username, String password)
+            throws RemoteException {
+        try {
+            logger.info("Login attempt for user: " + username);
+
+            SessionDTO session = authModel.openSession(username, password);
+
+            logger.info("User logged in successfully: " + username);
+            return session;
+        } catch (AuthenticationException e) {
+            logger.warning(
+                    "Login failed for user " + username + ": " + e.getMessage());
+            throw new RemoteException(e.getMessage());
+        } catch (Exception e) {
+            logger.severe("Unexpected error during login: " + e.getMessage());
+            throw new RemoteException("Login failed due to server error");
+        }
+    }
+
+    @Override
+    public UserDTO loginWithToken(String sessionToken) throws RemoteException {
+        try {
+            UserDTO user = authModel.resumeSession(sessionToken);
+
+            logger.info("User resumed session: " + user.getUsername());
+            return user;
+        } catch (AuthenticationException e) {
+            logger.warning("Session login failed: " + e.getMessage());
+            throw new RemoteException(e.getMessage());
+        } catch (Exception e) {
+            logger.severe("Unexpected error during session login: " + e.getMessage());
+            throw new RemoteException("Login failed due to server error");
+        }
+    }
+
+    @Override
+    public void endSession(String sessionToken) throws RemoteException {
+        authModel.endSession(sessionToken);
+    }
+
+    @Override
+    public boolean heartbeat(String username, String sessionToken)
+            throws RemoteException {
+        // Keeps user_sessions.last_activity current; checked against the database at most once a minute
+        UserDTO user;
+        try {
+            user = authModel.resumeSession(sessionToken);
+        } catch (AuthenticationException e) {
+            logger.warning("Heartbeat for " + username + " without a valid session: " + e.getMessage());
+            return false;
+        }
+        // Only the session's own user can keep a callback alive
+        if (!user.getUsername().equals(username)) {
+            logger.warning("Heartbeat for " + username + " with the session of " + user.getUsername());
+            return false;
+        }
+
+        liveness.heard(username);
+        return clients.containsKey(username);
+    }
+
+    @Override
+    public ResumeDTO resume(
+            String sessionToken,
+            int lastSeenMessageId,
+            long lastEventSequence,
+            ChatClientCallbackInterface client) throws RemoteException {
+        UserDTO user = loginWithToken(sessionToken);
+        registerClient(user.getUsername(), client);
+
+        // The journal covers every kind of event; fall back to messages only when it cannot
+        EventReplayDTO replay = journal.since(user.getUsername(), lastEventSequence);
+        if (replay.isComplete()) {
+            logger.info("Resumed session for " + user.getUsername() + ", replaying "
+                    + replay.getEvents().size() + " missed events");
+            return new ResumeDTO(user, replay.getEvents(), List.of(), true);
+        }
+
+        // Without a known position the client has to reload anyway
+        if (lastSeenMessageId <= 0) {
+            return new ResumeDTO(user, List.of(), List.of(), false);
+        }
+
+        try {
+            List<MessageDTO> missed = messageDAO.getMessagesForUserAfter(
+                    user.getUsername(), lastSeenMessageId, MAX_RESUME_REPLAY + 1);
+            boolean complete = missed.size() <= MAX_RESUME_REPLAY;
+            if (!complete) {
+                missed = List.copyOf(missed.subList(0, MAX_RESUME_REPLAY));
+            }
+
+            logger.info("Resumed session for " + user.getUsername() + ", replaying "
+                    + missed.size() + " missed messages");
+            return new ResumeDTO(user, List.of(), new MessagePage(missed), complete);
+        } catch (SQLException e) {
+            logger.severe("Error loading missed messages: " + e.getMessage());
+            return new ResumeDTO(user, List.of(), List.of(), false);
+        }
+    }
+
+    @Override
+    public EventReplayDTO getEventsSince(String username, long sequence)
+            throws RemoteException {
+        return journal.since(username, sequence);
+    }
+
     @Override
     public UserDTO createAccount(
             String username,
@@ -122,7 +287,7 @@ public class ChatServerImpl
     public List<UserDTO> searchUsers(String searchTerm, int limit)
             throws RemoteException {
         try {
-            logger.info("Searching for users with term: " + searchTerm);
+            logger.fine(() -> "Searching for users with term: " + searchTerm);
             return UserDAO.getInstance().searchUsers(searchTerm, limit);
         } catch (SQLException e) {
             logger.severe("Error searching users: " + e.getMessage());
@@ -158,6 +323,19 @@ public class ChatServerImpl
         }
     }
 
+    @Override
+    public List<ChatOverviewDTO> getChatOverview(String username)
+            throws RemoteException {
+        try {
+            List<ChatOverviewDTO> chats = chatOverviewDAO.getChatOverview(username);
+            readMarkerDAO.applyPending(username, chats);
+            return chats;
+        } catch (SQLException e) {
+            logger.severe("Error getting chat overview: " + e.getMessage());
+            throw new RemoteException("Error getting chat overview");
+        }
+    }
+
     @Override
     public List<DirectChatDTO> getUserDirectChats(String username)
             throws RemoteException {
@@ -200,7 +378,7 @@ public class ChatServerImpl
     @Override
     public ChatRoomDTO getGroupChatById(int roomId) throws RemoteException {
         try {
-            logger.info("Getting group chat by ID: " + roomId);
+            logger.fine(() -> "Getting group chat by ID: " + roomId);
             ChatRoomDTO room = groupChatDAO.getGroupChatById(roomId);
             if (room == null) {
                 throw new RemoteException("Group chat not found");
@@ -255,7 +433,7 @@ public class ChatServerImpl
                     MemberRole.MEMBER,
                     null);
 
-            UserDTO user = authModel.getUserById(getUserIdByUsername(username));
+            UserDTO user = authModel.getUserByUsername(username);
             if (user != null) {
                 notifyUserJoinedGroup(roomId, user, null);
             }
@@ -272,7 +450,7 @@ public class ChatServerImpl
             logger.info("User " + username + " leaving group " + roomId);
             groupChatDAO.removeMemberFromGroup(roomId, username);
 
-            UserDTO user = authModel.getUserById(getUserIdByUsername(username));
+            UserDTO user = authModel.getUserByUsername(username);
             if (user != null) {
                 notifyUserLeftGroup(roomId, user);
             }
@@ -314,8 +492,7 @@ public class ChatServerImpl
                     targetUsername,
                     MemberRole.ADMIN);
 
-            UserDTO targetUser = authModel.getUserById(
-                    getUserIdByUsername(targetUsername));
+            UserDTO targetUser = authModel.getUserByUsername(targetUsername);
             if (targetUser != null) {
                 notifyUserPromotedToAdmin(roomId, targetUser, promoterUsername);
             }
@@ -343,8 +520,7 @@ public class ChatServerImpl
                     targetUsername,
                     MemberRole.MEMBER);
 
-            UserDTO targetUser = authModel.getUserById(
-                    getUserIdByUsername(targetUsername));
+            UserDTO targetUser = authModel.getUserByUsername(targetUsername);
             if (targetUser != null) {
                 notifyUserDemotedFromAdmin(roomId, targetUser, demoterUsername);
             }
@@ -431,17 +607,20 @@ public class ChatServerImpl
 
             UserDTO user = UserDAO.getInstance().findByUsername(username);
 
-            List<ChatMemberDTO> membersBeforeRemoval = groupChatDAO.getGroupMembers(roomId);
+            // Snapshot is immutable, so it still includes the removed user afterwards
+            Set<String> membersBeforeRemoval = groupChatDAO.getGroupMemberUsernames(roomId);
 
             groupChatDAO.removeMemberFromGroup(roomId, username);
 
             if (user != null) {
                 // notifyUserLeftGroup(roomId, user);
-                for (ChatMemberDTO member : membersBeforeRemoval) {
-                    logger.info("Notifying member: " + member.getUsername() + " about removal of " + username);
-                    notifyUser(member.getUsername(),
-                            client -> client.onUserLeftGroup(roomId, user, true, removerUsername)); // true = was
-                                                                                                    // removed
+                boolean traceNotify = logger.isLoggable(Level.FINE);
+                for (String member : membersBeforeRemoval) {
+                    if (traceNotify) {
+                        logger.fine("Notifying member: " + member + " about removal of " + username);
+                    }
+                    notifyUser(member,
+                            new ChatEvent.UserLeftGroup(roomId, user, true, removerUsername));
                 }
             }
 
@@ -455,31 +634,57 @@ public class ChatServerImpl
 
     @Override
     public void sendMessage(MessageDTO message) throws RemoteException {
+        long start = System.nanoTime();
+        MessageDTO savedMessage;
         try {
-            logger.info(
-                    "Message from " +
-                            message.getSenderUsername() +
-                            " in room " +
-                            message.getRoomId());
-
-            MessageDTO savedMessage = messageDAO.saveMessage(message);
-
-            if (savedMessage.isDirectMessage()) {
-                notifyDirectMessage(savedMessage);
-            } else {
-                notifyGroupMessage(savedMessage);
-            }
+            savedMessage = messageDAO.saveMessage(message);
         } catch (SQLException e) {
             logger.severe("Error sending message: " + e.getMessage());
             throw new RemoteException("Error sending message");
         }
+
+        // The message is stored; from here on failures must not be reported to the sender
+        Set<String> participants;
+        try {
+            participants = getChatParticipants(savedMessage.getRoomId());
+        } catch (SQLException e) {
+            logger.warning("Message " + savedMessage.getId()
+                    + " saved, but unread counters and notifications were skipped: " + e.getMessage());
+            return;
+        }
+        metrics.messageFanOut().record(participants.size());
+
+        readMarkerDAO.recordMessage(
+                savedMessage.getRoomId(),
+                savedMessage.getId(),
+                savedMessage.getSenderUsername(),
+                participants);
+
+        for (String participant : participants) {
+            notifyUser(participant, new ChatEvent.MessageReceived(savedMessage));
+        }
+
+        if (messageLog.shouldLog()) {
+            messageLog.log("message",
+                    "id", savedMessage.getId(),
+                    "room", savedMessage.getRoomId(),
+                    "sender", savedMessage.getSenderUsername(),
+                    "fanOut", participants.size(),
+                    "micros", (System.nanoTime() - start) / 1000);
+        }
+    }
+
+    @Override
+    public void markRead(String username, int chatId, int messageId)
+            throws RemoteException {
+        readMarkerDAO.markRead(username, chatId, messageId);
     }
 
     @Override
     public List<MessageDTO> getGroupChatMessages(int roomId, int limit)
             throws RemoteException {
         try {
-            return messageDAO.getGroupChatMessages(roomId, limit);
+            return new MessagePage(messageDAO.getGroupChatMessages(roomId, limit));
         } catch (SQLException e) {
             logger.severe(
                     "Error getting group chat messages: " + e.getMessage());
@@ -491,7 +696,7 @@ public class ChatServerImpl
     public List<MessageDTO> getDirectChatMessages(int directChatId, int limit)
             throws RemoteException {
         try {
-            return messageDAO.getDirectChatMessages(directChatId, limit);
+            return new MessagePage(messageDAO.getDirectChatMessages(directChatId, limit));
         } catch (SQLException e) {
             logger.severe(
                     "Error getting direct chat messages: " + e.getMessage());
@@ -499,18 +704,65 @@ public class ChatServerImpl
         }
     }
 
+    @Override
+    public List<MessageDTO> getMessagesBefore(int chatId, int beforeMessageId, int limit)
+            throws RemoteException {
+        try {
+            return new MessagePage(
+                    messageDAO.getMessagesBefore(chatId, beforeMessageId, clampPageSize(limit)));
+        } catch (SQLException e) {
+            logger.severe("Error getting message history: " + e.getMessage());
+            throw new RemoteException("Error getting message history");
+        }
+    }
+
+    @Override
+    public List<MessageDTO> getMessagesAfter(int chatId, int afterMessageId, int limit)
+            throws RemoteException {
+        try {
+            return new MessagePage(
+                    messageDAO.getMessagesAfter(chatId, afterMessageId, clampPageSize(limit)));
+        } catch (SQLException e) {
+            logger.severe("Error getting message history: " + e.getMessage());
+            throw new RemoteException("Error getting message history");
+        }
+    }
+
+    @Override
+    public List<MessageDTO> getMessagesSince(int chatId, long timestamp)
+            throws RemoteException {
+        try {
+            return new MessagePage(
+                    messageDAO.getMessagesAfter(chatId, timestamp, chatId < 0, MAX_MESSAGE_PAGE_SIZE));
+        } catch (SQLException e) {
+            logger.severe("Error getting new messages: " + e.getMessage());
+            throw new RemoteException("Error getting new messages");
+        }
+    }
+
     @Override
     public void registerClient(
             String username,
             ChatClientCallbackInterface client) throws RemoteException {
         logger.info("Registering client callback for user: " + username);
         clients.put(username, client);
+        liveness.heard(username);
+        presence.online(username);
     }
 
     @Override
     public void unregisterClient(String username) throws RemoteException {
         logger.info("Unregistering client callback for user: " + username);
         clients.remove(username);
+        dispatcher.forget(username);
+        liveness.forget(username);
+        presence.offline(username);
+    }
+
+    @Override
+    public Map<String, PresenceStatus> getPresence(String username)
+            throws RemoteException {
+        return presence.getContactPresence(username);
     }
 
     @Override
@@ -519,8 +771,7 @@ public class ChatServerImpl
             String newContent,
             String editorUsername) throws RemoteException {
         try {
-            logger.info(
-                    "User " + editorUsername + " editing message " + messageId);
+            logger.fine(() -> "User " + editorUsername + " editing message " + messageId);
 
             MessageDTO originalMessage = messageDAO.getMessageById(messageId);
             if (originalMessage == null) {
@@ -548,8 +799,7 @@ public class ChatServerImpl
     public void deleteMessage(int messageId, String deleterUsername)
             throws RemoteException {
         try {
-            logger.info(
-                    "User " + deleterUsername + " deleting message " + messageId);
+            logger.fine(() -> "User " + deleterUsername + " deleting message " + messageId);
 
             MessageDTO originalMessage = messageDAO.getMessageById(messageId);
             if (originalMessage == null) {
@@ -573,46 +823,79 @@ public class ChatServerImpl
         }
     }
 
-    private int getUserIdByUsername(String username) {
-        try {
-            UserDAO userDAO = UserDAO.getInstance();
-            UserDTO user = userDAO.findByUsername(username);
-            return user != null ? user.getId() : -1;
-        } catch (Exception e) {
-            logger.warning("Could not get user ID for username: " + username);
-            return -1;
+    /**
+     * Stops background delivery. Queued notifications that have not been
+     * sent yet are dropped.
+     */
+    public void shutdown() {
+        messageDAO.shutdown();
+        readMarkerDAO.shutdown();
+        authModel.shutdown();
+        presence.shutdown();
+        liveness.shutdown();
+        journal.shutdown();
+        dispatcher.shutdown();
+        logger.info("Chat server implementation shut down");
+    }
+
+    /**
+     * Called when a callback fails or stops answering. Only the callback
+     * that failed is dropped, in case the user has already reconnected.
+     */
+    private void clientLost(String username, ChatClientCallbackInterface client) {
+        if (clients.remove(username, client)) {
+            presence.connectionLost(username);
         }
     }
 
+    /**
+     * Everyone the user shares a group or direct chat with, resolved from
+     * the membership and direct chat partner caches.
+     */
+    private Set<String> getContacts(String username) throws SQLException {
+        Set<String> contacts = new HashSet<>();
+        for (int roomId : groupChatDAO.getUserRoomIds(username)) {
+            contacts.addAll(groupChatDAO.getGroupMemberUsernames(roomId));
+        }
+        contacts.addAll(directChatDAO.getDirectChatPartners(username));
+        contacts.remove(username);
+        return contacts;
+    }
+
+    /**
+     * Everyone who receives messages posted to a chat. Group members come
+     * from the membership cache; direct chats have exactly two participants.
+     */
+    private Set<String> getChatParticipants(int chatId) throws SQLException {
+        if (chatId < 0) {
+            DirectChatDTO chat = directChatDAO.getDirectChatById(Math.abs(chatId));
+            return chat != null
+                    ? Set.of(chat.getUser1Username(), chat.getUser2Username())
+                    : Set.of();
+        }
+        return groupChatDAO.getGroupMemberUsernames(chatId);
+    }
+
+    private static int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_MESSAGE_PAGE_SIZE));
+    }
+
     private void notifyDirectChatCreated(DirectChatDTO chat) {
-        notifyUser(chat.getUser1Username(), client -> client.onDirectChatCreated(chat));
-        notifyUser(chat.getUser2Username(), client -> client.onDirectChatCreated(chat));
+        ChatEvent event = new ChatEvent.DirectChatCreated(chat);
+        notifyUser(chat.getUser1Username(), event);
+        notifyUser(chat.getUser2Username(), event);
     }
 
     private void notifyGroupChatCreated(ChatRoomDTO room) {
-        clients.forEach((username, client) -> {
-            try {
-                client.onGroupChatCreated(room);
-            } catch (RemoteException e) {
-                logger.warning(
-                        "Failed to notify client " +
-                                username +
-                                ": " +
-                                e.getMessage());
-                clients.remove(username);
-            }
-        });
+        ChatEvent event = new ChatEvent.GroupChatCreated(room);
+        clients.keySet().forEach(username -> notifyUser(username, event));
     }
 
     private void notifyUserJoinedGroup(int roomId, UserDTO user, String inviterUsername) {
         try {
-            List<ChatMemberDTO> members = groupChatDAO.getGroupMembers(roomId);
-            for (ChatMemberDTO member : members) {
-                // if (!member.getUsername().equals(user.getUsername())) {
-                String notificationInviter = inviterUsername != null ? inviterUsername : "system";
-                notifyUser(member.getUsername(),
-                        client -> client.onUserJoinedGroup(roomId, user, notificationInviter));
-                // }
+            String notificationInviter = inviterUsername != null ? inviterUsername : "system";
+            for (String member : groupChatDAO.getGroupMemberUsernames(roomId)) {
+                notifyUser(member, new ChatEvent.UserJoinedGroup(roomId, user, notificationInviter));
             }
         } catch (SQLException e) {
             logger.severe("Error notifying group members: " + e.getMessage());
@@ -621,9 +904,8 @@ public class ChatServerImpl
 
     private void notifyUserLeftGroup(int roomId, UserDTO user) {
         try {
-            List<ChatMemberDTO> members = groupChatDAO.getGroupMembers(roomId);
-            for (ChatMemberDTO member : members) {
-                notifyUser(member.getUsername(), client -> client.onUserLeftGroup(roomId, user, false, null));
+            for (String member : groupChatDAO.getGroupMemberUsernames(roomId)) {
+                notifyUser(member, new ChatEvent.UserLeftGroup(roomId, user, false, null));
             }
         } catch (SQLException e) {
             logger.severe("Error notifying group members: " + e.getMessage());
@@ -635,9 +917,8 @@ public class ChatServerImpl
             UserDTO user,
             String promotedBy) {
         try {
-            List<ChatMemberDTO> members = groupChatDAO.getGroupMembers(roomId);
-            for (ChatMemberDTO member : members) {
-                notifyUser(member.getUsername(), client -> client.onPromotedToAdmin(roomId, user, promotedBy));
+            for (String member : groupChatDAO.getGroupMemberUsernames(roomId)) {
+                notifyUser(member, new ChatEvent.PromotedToAdmin(roomId, user, promotedBy));
             }
         } catch (SQLException e) {
             logger.severe("Error notifying group members: " + e.getMessage());
@@ -649,47 +930,22 @@ public class ChatServerImpl
             UserDTO user,
             String demotedBy) {
         try {
-            List<ChatMemberDTO> members = groupChatDAO.getGroupMembers(roomId);
-            for (ChatMemberDTO member : members) {
-                notifyUser(member.getUsername(), client -> client.onDemotedFromAdmin(roomId, user, demotedBy));
+            for (String member : groupChatDAO.getGroupMemberUsernames(roomId)) {
+                notifyUser(member, new ChatEvent.DemotedFromAdmin(roomId, user, demotedBy));
             }
         } catch (SQLException e) {
             logger.severe("Error notifying group members: " + e.getMessage());
         }
     }
 
-    private void notifyDirectMessage(MessageDTO message) {
-        try {
-            DirectChatDTO chat = directChatDAO.getDirectChatById(
-                    Math.abs(message.getRoomId()));
-            if (chat != null) {
-                notifyUser(chat.getUser1Username(), client -> client.onMessageReceived(message));
-                notifyUser(chat.getUser2Username(), client -> client.onMessageReceived(message));
-            }
-        } catch (SQLException e) {
-            logger.severe("Error notifying direct message: " + e.getMessage());
-        }
-    }
-
-    private void notifyGroupMessage(MessageDTO message) {
-        try {
-            List<ChatMemberDTO> members = groupChatDAO.getGroupMembers(
-                    message.getRoomId());
-            for (ChatMemberDTO member : members) {
-                notifyUser(member.getUsername(), client -> client.onMessageReceived(message));
-            }
-        } catch (SQLException e) {
-            logger.severe("Error notifying group message: " + e.getMessage());
-        }
-    }
-
     private void notifyDirectMessageEdited(MessageDTO message) {
         try {
             DirectChatDTO chat = directChatDAO.getDirectChatById(
                     Math.abs(message.getRoomId()));
             if (chat != null) {
-                notifyUser(chat.getUser1Username(), client -> client.onMessageEdited(message));
-                notifyUser(chat.getUser2Username(), client -> client.onMessageEdited(message));
+                ChatEvent event = new ChatEvent.MessageEdited(message);
+                notifyUser(chat.getUser1Username(), event);
+                notifyUser(chat.getUser2Username(), event);
             }
         } catch (SQLException e) {
             logger.severe(
@@ -699,10 +955,8 @@ public class ChatServerImpl
 
     private void notifyGroupMessageEdited(MessageDTO message) {
         try {
-            List<ChatMemberDTO> members = groupChatDAO.getGroupMembers(
-                    message.getRoomId());
-            for (ChatMemberDTO member : members) {
-                notifyUser(member.getUsername(), client -> client.onMessageEdited(message));
+            for (String member : groupChatDAO.getGroupMemberUsernames(message.getRoomId())) {
+                notifyUser(member, new ChatEvent.MessageEdited(message));
             }
         } catch (SQLException e) {
             logger.severe(
@@ -715,8 +969,9 @@ public class ChatServerImpl
             DirectChatDTO chat = directChatDAO.getDirectChatById(
                     Math.abs(roomId));
             if (chat != null) {
-                notifyUser(chat.getUser1Username(), client -> client.onMessageDeleted(messageId, roomId));
-                notifyUser(chat.getUser2Username(), client -> client.onMessageDeleted(messageId, roomId));
+                ChatEvent event = new ChatEvent.MessageDeleted(messageId, roomId);
+                notifyUser(chat.getUser1Username(), event);
+                notifyUser(chat.getUser2Username(), event);
             }
         } catch (SQLException e) {
             logger.severe(
@@ -726,9 +981,8 @@ public class ChatServerImpl
 
     private void notifyGroupMessageDeleted(int messageId, int roomId) {
         try {
-            List<ChatMemberDTO> members = groupChatDAO.getGroupMembers(roomId);
-            for (ChatMemberDTO member : members) {
-                notifyUser(member.getUsername(), client -> client.onMessageDeleted(messageId, roomId));
+            for (String member : groupChatDAO.getGroupMemberUsernames(roomId)) {
+                notifyUser(member, new ChatEvent.MessageDeleted(messageId, roomId));
             }
         } catch (SQLException e) {
             logger.severe(
@@ -736,24 +990,17 @@ public class ChatServerImpl
         }
     }
 
-    private void notifyUser(String username, ClientNotification notification) {
+    /**
+     * Records the event in the user's journal and queues it for delivery if
+     * they are connected. Delivery happens asynchronously, so this never
+     * blocks on the client; a client that misses it can fetch it again with
+     * {@link #getEventsSince(String, long)}.
+     */
+    private void notifyUser(String username, ChatEvent event) {
+        JournaledEvent journaled = journal.append(username, event);
         ChatClientCallbackInterface client = clients.get(username);
         if (client != null) {
-            try {
-                notification.notify(client);
-            } catch (RemoteException e) {
-                logger.warning(
-                        "Failed to notify client " +
-                                username +
-                                ": " +
-                                e.getMessage());
-                clients.remove(username);
-            }
+            dispatcher.dispatchEvent(username, client, journaled);
         }
     }
-
-    @FunctionalInterface
-    private interface ClientNotification {
-        void notify(ChatClientCallbackInterface client) throws RemoteException;
-    }
 }
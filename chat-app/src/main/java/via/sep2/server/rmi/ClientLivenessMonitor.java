@@ -0,0 +1,86 @@
+package via.sep2.server.rmi;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import via.sep2.shared.interfaces.ChatClientCallbackInterface;
+
+/**
+ * Finds registered clients that have gone away without logging out.
+ *
+ * Clients send a heartbeat every interval. A client that has not been heard
+ * from for {@code maxMisses} intervals is evicted, so fan-out stops waiting
+ * on connection timeouts to it. The remaining clients are pinged through the
+ * notification dispatcher, which checks the callback direction as well: a
+ * ping that fails or times out drops the client like any other failed
+ * callback.
+ */
+class ClientLivenessMonitor {
+
+    private static final Logger logger = Logger.getLogger(ClientLivenessMonitor.class.getName());
+
+    @FunctionalInterface
+    interface Evictor {
+        void evict(String username, ChatClientCallbackInterface client, String reason);
+    }
+
+    private final long intervalMillis;
+    private final int maxMisses;
+    private final Map<String, ChatClientCallbackInterface> clients;
+    private final NotificationDispatcher dispatcher;
+    private final Evictor evictor;
+
+    private final Map<String, Long> lastHeard = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    ClientLivenessMonitor(long intervalMillis, int maxMisses, Map<String, ChatClientCallbackInterface> clients,
+            NotificationDispatcher dispatcher, Evictor evictor) {
+        this.intervalMillis = intervalMillis;
+        this.maxMisses = Math.max(1, maxMisses);
+        this.clients = clients;
+        this.dispatcher = dispatcher;
+        this.evictor = evictor;
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ClientLiveness");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void heard(String username) {
+        lastHeard.put(username, System.currentTimeMillis());
+    }
+
+    void forget(String username) {
+        lastHeard.remove(username);
+    }
+
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void check() {
+        long now = System.currentTimeMillis();
+        long deadline = intervalMillis * maxMisses;
+
+        clients.forEach((username, client) -> {
+            Long heard = lastHeard.putIfAbsent(username, now);
+            if (heard != null && now - heard > deadline) {
+                lastHeard.remove(username, heard);
+                logger.info("Evicting unresponsive client " + username);
+                evictor.evict(username, client, "no heartbeat for " + (now - heard) + " ms");
+            } else {
+                dispatcher.dispatch(username, client, ChatClientCallbackInterface::ping);
+            }
+        });
+
+        // Forget users whose callback is gone for another reason, e.g. a failed delivery
+        lastHeard.keySet().removeIf(username -> !clients.containsKey(username));
+    }
+}
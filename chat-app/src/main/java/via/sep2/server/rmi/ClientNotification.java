@@ -0,0 +1,10 @@
+package via.sep2.server.rmi;
+
+import java.rmi.RemoteException;
+
+import via.sep2.shared.interfaces.ChatClientCallbackInterface;
+
+@FunctionalInterface
+interface ClientNotification {
+    void notify(ChatClientCallbackInterface client) throws RemoteException;
+}
@@ -0,0 +1,160 @@
+package via.sep2.server.rmi;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import via.sep2.shared.dto.EventReplayDTO;
+import via.sep2.shared.event.ChatEvent;
+import via.sep2.shared.event.JournaledEvent;
+
+/**
+ * Recent events per user, so a client that missed callbacks can fetch just
+ * what it missed instead of reloading everything.
+ *
+ * Every event gets a sequence number from one server-wide counter. The
+ * counter starts at the current time in microseconds, so numbers keep
+ * growing across restarts and a client holding a number from an earlier run
+ * is told its replay is incomplete. Each user's journal keeps at most
+ * {@code capacity} events, none older than {@code retentionMillis}, and
+ * remembers the newest sequence number it had to drop to stay within those
+ * bounds.
+ *
+ * A background sweep expires old events of users who receive nothing new
+ * and removes journals that end up empty, so users who never come back do
+ * not hold memory. Once a user's journal is gone, the server only knows
+ * the newest sequence number dropped from any removed journal; replays
+ * older than that are reported incomplete.
+ */
+class EventJournal {
+
+    private final int capacity;
+    private final long retentionMillis;
+    private final long startSequence;
+    private final AtomicLong sequence;
+
+    private final Map<String, UserJournal> journals = new ConcurrentHashMap<>();
+    // Newest sequence number dropped from a journal that has been removed
+    private final AtomicLong removedThrough;
+    private final ScheduledExecutorService sweeper;
+
+    EventJournal(int capacity, long retentionMillis) {
+        this.capacity = Math.max(1, capacity);
+        this.retentionMillis = retentionMillis;
+        this.startSequence = System.currentTimeMillis() * 1000;
+        this.sequence = new AtomicLong(startSequence);
+        this.removedThrough = new AtomicLong(startSequence);
+
+        long sweepMillis = Math.clamp(retentionMillis, 1000, 60000);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "EventJournal-Sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(() -> sweep(System.currentTimeMillis()), sweepMillis, sweepMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    JournaledEvent append(String username, ChatEvent event) {
+        while (true) {
+            UserJournal journal = journals.computeIfAbsent(username, key -> new UserJournal());
+            synchronized (journal) {
+                if (journal.removed) {
+                    // Swept in the meantime; retry on a fresh journal
+                    continue;
+                }
+                // Numbered under the journal lock so each journal stays in order
+                JournaledEvent journaled = new JournaledEvent(sequence.incrementAndGet(), event);
+                long now = System.currentTimeMillis();
+                journal.entries.addLast(new Entry(journaled, now));
+                journal.prune(now);
+                return journaled;
+            }
+        }
+    }
+
+    /**
+     * Events for the user with a sequence number above {@code afterSequence},
+     * oldest first.
+     */
+    EventReplayDTO since(String username, long afterSequence) {
+        if (afterSequence < startSequence) {
+            return new EventReplayDTO(List.of(), false);
+        }
+
+        UserJournal journal = journals.get(username);
+        if (journal == null) {
+            // Nothing was sent to this user, or only events that have expired since
+            return new EventReplayDTO(List.of(), afterSequence >= removedThrough.get());
+        }
+
+        synchronized (journal) {
+            journal.prune(System.currentTimeMillis());
+            if (journal.removed) {
+                return since(username, afterSequence);
+            }
+            if (afterSequence < journal.droppedThrough) {
+                return new EventReplayDTO(List.of(), false);
+            }
+
+            List<JournaledEvent> events = new ArrayList<>();
+            for (Entry entry : journal.entries) {
+                if (entry.event.sequence() > afterSequence) {
+                    events.add(entry.event);
+                }
+            }
+            return new EventReplayDTO(events, true);
+        }
+    }
+
+    /**
+     * Expires old events in every journal and removes the journals left
+     * empty.
+     */
+    void sweep(long now) {
+        for (Map.Entry<String, UserJournal> entry : journals.entrySet()) {
+            UserJournal journal = entry.getValue();
+            synchronized (journal) {
+                journal.prune(now);
+                if (journal.entries.isEmpty()) {
+                    journal.removed = true;
+                    removedThrough.accumulateAndGet(journal.droppedThrough, Math::max);
+                    journals.remove(entry.getKey(), journal);
+                }
+            }
+        }
+    }
+
+    int size() {
+        return journals.size();
+    }
+
+    void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private record Entry(JournaledEvent event, long recordedAt) {
+    }
+
+    private final class UserJournal {
+        private final Deque<Entry> entries = new ArrayDeque<>();
+        // Newest sequence number that is no longer in the journal
+        private long droppedThrough = startSequence;
+        // Set once the sweep removed the journal; later appends must use a new one
+        private boolean removed = false;
+
+        private void prune(long now) {
+            while (!entries.isEmpty() && (entries.size() > capacity
+                    || now - entries.peekFirst().recordedAt > retentionMillis)) {
+                droppedThrough = entries.removeFirst().event.sequence();
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package via.sep2.server.rmi;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+import via.sep2.server.metrics.CallStats;
+import via.sep2.server.metrics.ServerMetrics;
+import via.sep2.shared.event.JournaledEvent;
+import via.sep2.shared.interfaces.ChatClientCallbackInterface;
+
+/**
+ * Delivers callbacks to clients off the calling RMI thread.
+ *
+ * Every registered client gets its own bounded outbound queue that is drained
+ * by at most one worker at a time, so a client sees its notifications in the
+ * order they were queued while a slow client only delays itself. A callback
+ * that throws, does not return within the timeout, or whose queue overflows
+ * marks the client as failed and it is handed to the failure handler.
+ *
+ * Consecutive events in a queue are sent together in one {@code onEvents}
+ * call. A batch is started by the first queued event and takes whatever
+ * follows within the batch window, up to the batch size, so a busy client
+ * gets one call per window instead of one per event while a quiet one only
+ * waits for the window.
+ */
+class NotificationDispatcher {
+
+    private static final Logger logger = Logger.getLogger(NotificationDispatcher.class.getName());
+
+    @FunctionalInterface
+    interface FailureHandler {
+        void onClientFailed(String username, ChatClientCallbackInterface client, String reason);
+    }
+
+    private record EventNotification(JournaledEvent event) implements ClientNotification {
+        @Override
+        public void notify(ChatClientCallbackInterface client) throws RemoteException {
+            client.onEvent(event);
+        }
+    }
+
+    private final int queueCapacity;
+    private final long callbackTimeoutMillis;
+    private final int batchMaxEvents;
+    private final long batchWindowMillis;
+    private final FailureHandler failureHandler;
+    private final CallStats callbackStats = ServerMetrics.getInstance().callbacks();
+
+    private final Map<String, Outbox> outboxes = new ConcurrentHashMap<>();
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+
+    NotificationDispatcher(int queueCapacity, long callbackTimeoutMillis, int batchMaxEvents,
+            long batchWindowMillis, FailureHandler failureHandler) {
+        this.queueCapacity = queueCapacity;
+        this.callbackTimeoutMillis = callbackTimeoutMillis;
+        this.batchMaxEvents = Math.max(1, batchMaxEvents);
+        this.batchWindowMillis = batchWindowMillis;
+        this.failureHandler = failureHandler;
+    }
+
+    void dispatchEvent(String username, ChatClientCallbackInterface client, JournaledEvent event) {
+        dispatch(username, client, new EventNotification(event));
+    }
+
+    void dispatch(String username, ChatClientCallbackInterface client, ClientNotification notification) {
+        Outbox outbox = outboxes.compute(username, (key, existing) -> {
+            if (existing != null && existing.client == client) {
+                return existing;
+            }
+            if (existing != null) {
+                existing.closed = true;
+            }
+            return new Outbox(username, client);
+        });
+
+        if (!outbox.queue.offer(notification)) {
+            fail(outbox, "outbound queue full (" + queueCapacity + " pending notifications)");
+            return;
+        }
+        schedule(outbox);
+    }
+
+    /**
+     * Drops any queued notifications for a client that has logged out or
+     * re-registered with a different callback.
+     */
+    void forget(String username) {
+        Outbox outbox = outboxes.remove(username);
+        if (outbox != null) {
+            outbox.closed = true;
+            outbox.queue.clear();
+        }
+    }
+
+    void shutdown() {
+        workers.shutdownNow();
+        outboxes.clear();
+    }
+
+    private void schedule(Outbox outbox) {
+        if (outbox.draining.compareAndSet(false, true)) {
+            try {
+                workers.execute(() -> drain(outbox));
+            } catch (RejectedExecutionException e) {
+                outbox.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Outbox outbox) {
+        try {
+            ClientNotification notification = outbox.queue.poll();
+            while (!outbox.closed && notification != null) {
+                ClientNotification next = null;
+
+                if (notification instanceof EventNotification first) {
+                    List<JournaledEvent> batch = new ArrayList<>();
+                    batch.add(first.event());
+                    next = collectBatch(outbox, batch);
+
+                    notification = batch.size() == 1
+                            ? first
+                            : client -> client.onEvents(batch);
+                }
+
+                if (!deliver(outbox, notification)) {
+                    return;
+                }
+                notification = next != null ? next : outbox.queue.poll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            outbox.draining.set(false);
+        }
+
+        // Something may have been queued between the last poll and clearing the flag
+        if (!outbox.closed && !outbox.queue.isEmpty()) {
+            schedule(outbox);
+        }
+    }
+
+    /**
+     * Adds the events that follow in the queue to {@code batch}, waiting up
+     * to the batch window for more. Returns the notification that ended the
+     * batch if it is not an event, so it is delivered next.
+     */
+    private ClientNotification collectBatch(Outbox outbox, List<JournaledEvent> batch)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchWindowMillis);
+
+        while (batch.size() < batchMaxEvents && !outbox.closed) {
+            long remaining = deadline - System.nanoTime();
+            ClientNotification next = remaining > 0
+                    ? outbox.queue.poll(remaining, TimeUnit.NANOSECONDS)
+                    : outbox.queue.poll();
+
+            if (next == null) {
+                return null;
+            }
+            if (!(next instanceof EventNotification event)) {
+                return next;
+            }
+            batch.add(event.event());
+        }
+        return null;
+    }
+
+    private boolean deliver(Outbox outbox, ClientNotification notification) {
+        long start = System.nanoTime();
+        Future<?> call = workers.submit(() -> {
+            notification.notify(outbox.client);
+            return null;
+        });
+
+        try {
+            call.get(callbackTimeoutMillis, TimeUnit.MILLISECONDS);
+            callbackStats.record(start, false);
+            return true;
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            callbackStats.record(start, true);
+            fail(outbox, "callback timed out after " + callbackTimeoutMillis + " ms");
+        } catch (ExecutionException e) {
+            callbackStats.record(start, true);
+            fail(outbox, String.valueOf(e.getCause().getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private void fail(Outbox outbox, String reason) {
+        outbox.closed = true;
+        outbox.queue.clear();
+        outboxes.remove(outbox.username, outbox);
+
+        logger.warning("Failed to notify client " + outbox.username + ": " + reason);
+        failureHandler.onClientFailed(outbox.username, outbox.client, reason);
+    }
+
+    private final class Outbox {
+        private final String username;
+        private final ChatClientCallbackInterface client;
+        private final BlockingQueue<ClientNotification> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private volatile boolean closed = false;
+
+        private Outbox(String username, ChatClientCallbackInterface client) {
+            this.username = username;
+            this.client = client;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package via.sep2.server.rmi;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import via.sep2.shared.dto.PresenceStatus;
+import via.sep2.shared.interfaces.ChatClientCallbackInterface;
+
+/**
+ * Online status of users, pushed to the connected users who share a chat
+ * with them.
+ *
+ * A user is online while a callback is registered, away once the connection
+ * is lost without a logout, and offline after logging out or after being
+ * away for {@code awayTimeoutMillis}. Status changes are only collected when
+ * they happen. Once per tick the changes since the last tick are coalesced,
+ * so a user who flaps back to the status last broadcast sends nothing, and
+ * each connected client receives at most one callback with the changes of
+ * its contacts. A mass reconnect therefore costs one callback per client
+ * and tick rather than one per pair of users.
+ */
+class PresenceTracker {
+
+    private static final Logger logger = Logger.getLogger(PresenceTracker.class.getName());
+
+    // Contacts of connected users are reloaded after this long to pick up new chats
+    private static final long CONTACTS_TTL_MILLIS = 5 * 60_000;
+
+    @FunctionalInterface
+    interface ContactLoader {
+        Set<String> load(String username) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface Broadcaster {
+        void send(String recipient, Map<String, PresenceStatus> changes);
+    }
+
+    private record Contacts(Set<String> usernames, long loadedAt) {
+    }
+
+    private final long awayTimeoutMillis;
+    private final Map<String, ChatClientCallbackInterface> clients;
+    private final ContactLoader contactLoader;
+    private final Broadcaster broadcaster;
+
+    // Missing entries are offline
+    private final Map<String, PresenceStatus> status = new ConcurrentHashMap<>();
+    private final Map<String, Long> awaySince = new ConcurrentHashMap<>();
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+    private final Map<String, Contacts> contacts = new ConcurrentHashMap<>();
+
+    // Only touched on the tick thread
+    private final Map<String, PresenceStatus> broadcast = new HashMap<>();
+
+    private final ScheduledExecutorService ticker;
+
+    PresenceTracker(long tickMillis, long awayTimeoutMillis, Map<String, ChatClientCallbackInterface> clients,
+            ContactLoader contactLoader, Broadcaster broadcaster) {
+        this.awayTimeoutMillis = awayTimeoutMillis;
+        this.clients = clients;
+        this.contactLoader = contactLoader;
+        this.broadcaster = broadcaster;
+
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Presence-Ticker");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleWithFixedDelay(this::tickQuietly, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void online(String username) {
+        status.put(username, PresenceStatus.ONLINE);
+        awaySince.remove(username);
+        changed.add(username);
+    }
+
+    void connectionLost(String username) {
+        if (status.replace(username, PresenceStatus.ONLINE, PresenceStatus.AWAY)) {
+            awaySince.put(username, System.currentTimeMillis());
+            changed.add(username);
+        }
+    }
+
+    void offline(String username) {
+        status.remove(username);
+        awaySince.remove(username);
+        changed.add(username);
+    }
+
+    /**
+     * Current status of the user's contacts that are not offline.
+     */
+    Map<String, PresenceStatus> getContactPresence(String username) {
+        Map<String, PresenceStatus> result = new HashMap<>();
+        for (String contact : contactsOf(username, System.currentTimeMillis())) {
+            PresenceStatus contactStatus = status.get(contact);
+            if (contactStatus != null) {
+                result.put(contact, contactStatus);
+            }
+        }
+        return result;
+    }
+
+    void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    private void tickQuietly() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Presence tick failed", e);
+        }
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+
+        awaySince.forEach((username, since) -> {
+            if (now - since > awayTimeoutMillis && awaySince.remove(username, since)) {
+                status.remove(username, PresenceStatus.AWAY);
+                changed.add(username);
+            }
+        });
+
+        Map<String, PresenceStatus> changes = new HashMap<>();
+        for (String username : changed) {
+            changed.remove(username);
+            PresenceStatus current = status.getOrDefault(username, PresenceStatus.OFFLINE);
+            PresenceStatus previous = broadcast.getOrDefault(username, PresenceStatus.OFFLINE);
+            if (current != previous) {
+                changes.put(username, current);
+                if (current == PresenceStatus.OFFLINE) {
+                    broadcast.remove(username);
+                } else {
+                    broadcast.put(username, current);
+                }
+            }
+        }
+
+        contacts.keySet().removeIf(username -> !clients.containsKey(username));
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        for (String recipient : clients.keySet()) {
+            Set<String> recipientContacts = contactsOf(recipient, now);
+            Map<String, PresenceStatus> delta = new HashMap<>();
+
+            // Walk whichever side is smaller
+            if (recipientContacts.size() < changes.size()) {
+                for (String contact : recipientContacts) {
+                    PresenceStatus contactStatus = changes.get(contact);
+                    if (contactStatus != null) {
+                        delta.put(contact, contactStatus);
+                    }
+                }
+            } else {
+                changes.forEach((username, newStatus) -> {
+                    if (recipientContacts.contains(username)) {
+                        delta.put(username, newStatus);
+                    }
+                });
+            }
+
+            if (!delta.isEmpty()) {
+                broadcaster.send(recipient, delta);
+            }
+        }
+    }
+
+    private Set<String> contactsOf(String username, long now) {
+        Contacts cached = contacts.get(username);
+        if (cached != null && now - cached.loadedAt() < CONTACTS_TTL_MILLIS) {
+            return cached.usernames();
+        }
+
+        try {
+            Set<String> loaded = Set.copyOf(contactLoader.load(username));
+            contacts.put(username, new Contacts(loaded, now));
+            return loaded;
+        } catch (SQLException e) {
+            logger.warning("Failed to load contacts of " + username + ": " + e.getMessage());
+            return cached != null ? cached.usernames() : Set.of();
+        }
+    }
+}
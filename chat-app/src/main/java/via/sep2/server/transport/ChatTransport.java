@@ -0,0 +1,20 @@
+package via.sep2.server.transport;
+
+import java.io.IOException;
+
+import via.sep2.shared.interfaces.ChatServerInterface;
+
+/**
+ * A way for clients to reach the chat server. Every transport serves the
+ * same {@link ChatServerInterface}, and callbacks reach clients through the
+ * {@code ChatClientCallbackInterface} each transport hands to the server, so
+ * the server does not know which transport a client uses.
+ */
+public interface ChatTransport {
+
+    String getName();
+
+    void start(ChatServerInterface server) throws IOException;
+
+    void stop();
+}
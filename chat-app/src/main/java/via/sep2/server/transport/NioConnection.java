@@ -0,0 +1,191 @@
+package via.sep2.server.transport;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.rmi.RemoteException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import via.sep2.shared.interfaces.ChatClientCallbackInterface;
+import via.sep2.shared.transport.NioProtocol;
+
+/**
+ * One client connection of the {@link NioTransport}. Reads happen on the
+ * selector thread, which only splits the input into frames; decoding them
+ * is left to the request handlers. {@link #send(Object)} writes straight to the socket when
+ * nothing is queued and the socket takes the whole frame; anything left over
+ * is queued and written by the selector once the socket can take more.
+ */
+class NioConnection {
+
+    private static final Map<String, Method> CALLBACK_METHODS = NioProtocol.methodsOf(
+            ChatClientCallbackInterface.class);
+
+    private final NioTransport transport;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final long maxPendingBytes;
+
+    private ByteBuffer readBuffer = ByteBuffer.allocate(8192);
+
+    // Guarded by itself
+    private final ArrayDeque<ByteBuffer> writeQueue = new ArrayDeque<>();
+    private long pendingBytes = 0;
+
+    private volatile boolean closed = false;
+    private final ChatClientCallbackInterface callback;
+
+    NioConnection(NioTransport transport, SocketChannel channel, SelectionKey key, long maxPendingBytes) {
+        this.transport = transport;
+        this.channel = channel;
+        this.key = key;
+        this.maxPendingBytes = maxPendingBytes;
+        this.callback = (ChatClientCallbackInterface) Proxy.newProxyInstance(
+                ChatClientCallbackInterface.class.getClassLoader(),
+                new Class<?>[] { ChatClientCallbackInterface.class },
+                (proxy, method, args) -> invokeCallback(proxy, method, args));
+    }
+
+    /**
+     * Callback handed to the server in place of the client's own; every call
+     * is queued as a push and returns right away.
+     */
+    ChatClientCallbackInterface getCallback() {
+        return callback;
+    }
+
+    SelectionKey getKey() {
+        return key;
+    }
+
+    /**
+     * Queues a frame for the selector to write. A client that stops reading
+     * is disconnected once more than {@code maxPendingBytes} are waiting.
+     */
+    void send(Object message) throws IOException {
+        if (closed) {
+            throw new IOException("Connection closed");
+        }
+
+        ByteBuffer frame = NioProtocol.encode(message);
+        synchronized (writeQueue) {
+            // Nothing queued: write right away and skip waking the selector
+            if (writeQueue.isEmpty()) {
+                channel.write(frame);
+                if (!frame.hasRemaining()) {
+                    return;
+                }
+            }
+
+            if (pendingBytes + frame.remaining() > maxPendingBytes) {
+                transport.close(this);
+                throw new IOException("Client is not reading; " + pendingBytes + " bytes pending");
+            }
+            writeQueue.add(frame);
+            pendingBytes += frame.remaining();
+        }
+        transport.requestWrite(this);
+    }
+
+    /**
+     * Reads what the socket has and returns the bodies of the complete
+     * frames. Throws when the client has closed the connection.
+     */
+    List<byte[]> read() throws IOException {
+        if (channel.read(readBuffer) < 0) {
+            throw new IOException("Connection closed by client");
+        }
+
+        List<byte[]> frames = new ArrayList<>();
+        readBuffer.flip();
+        while (readBuffer.remaining() >= Integer.BYTES) {
+            int length = readBuffer.getInt(readBuffer.position());
+            if (length < 0 || length > NioProtocol.MAX_FRAME_BYTES) {
+                throw new IOException("Invalid frame length " + length);
+            }
+            if (readBuffer.remaining() < Integer.BYTES + length) {
+                break;
+            }
+
+            readBuffer.position(readBuffer.position() + Integer.BYTES);
+            byte[] body = new byte[length];
+            readBuffer.get(body);
+            frames.add(body);
+        }
+        readBuffer.compact();
+
+        // Make room for a frame larger than the buffer
+        if (!readBuffer.hasRemaining()) {
+            readBuffer = grow(readBuffer);
+        }
+        return frames;
+    }
+
+    /**
+     * Writes queued frames until the socket is full. Returns true once the
+     * queue is empty.
+     */
+    boolean write() throws IOException {
+        synchronized (writeQueue) {
+            while (!writeQueue.isEmpty()) {
+                ByteBuffer frame = writeQueue.peek();
+                int written = channel.write(frame);
+                pendingBytes -= written;
+                if (frame.hasRemaining()) {
+                    return false;
+                }
+                writeQueue.poll();
+            }
+            return true;
+        }
+    }
+
+    void close() {
+        closed = true;
+        synchronized (writeQueue) {
+            writeQueue.clear();
+            pendingBytes = 0;
+        }
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+
+    private Object invokeCallback(Object proxy, Method method, Object[] args) throws RemoteException {
+        if (method.getDeclaringClass() == Object.class) {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> "NioCallback[" + channel + "]";
+            };
+        }
+
+        String methodKey = NioProtocol.methodKey(method);
+        if (!CALLBACK_METHODS.containsKey(methodKey)) {
+            throw new RemoteException("Unknown callback " + methodKey);
+        }
+        try {
+            send(new NioProtocol.Push(methodKey, args));
+        } catch (IOException e) {
+            throw new RemoteException("Push failed: " + e.getMessage(), e);
+        }
+        return null;
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer larger = ByteBuffer.allocate(Math.min(buffer.capacity() * 2,
+                NioProtocol.MAX_FRAME_BYTES + Integer.BYTES));
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+}
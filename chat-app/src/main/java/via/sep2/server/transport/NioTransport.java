@@ -0,0 +1,240 @@
+package via.sep2.server.transport;
+
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.rmi.RemoteException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import via.sep2.shared.interfaces.ChatServerInterface;
+import via.sep2.shared.transport.NioProtocol;
+
+/**
+ * Serves the chat server over plain framed sockets, see {@link NioProtocol}.
+ *
+ * One selector thread accepts, reads and writes every connection, so idle
+ * clients cost a socket and a buffer rather than a thread. The selector only
+ * cuts the input into frames; requests are decoded and run on virtual
+ * threads, so neither a large frame nor the database holds it up. Responses
+ * and all pushes are queued on the connection and written by the selector.
+ * Unlike RMI, callbacks travel over the connection the client opened, so the
+ * server never connects back to clients.
+ */
+public class NioTransport implements ChatTransport {
+
+    private static final Logger logger = Logger.getLogger(NioTransport.class.getName());
+
+    private static final Map<String, Method> SERVER_METHODS = NioProtocol.methodsOf(ChatServerInterface.class);
+
+    private final int port;
+    private final long maxPendingBytes;
+
+    private final ExecutorService handlers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Queue<NioConnection> writeRequests = new ConcurrentLinkedQueue<>();
+
+    private ChatServerInterface server;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread selectorThread;
+
+    public NioTransport(int port, long maxPendingBytes) {
+        this.port = port;
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    @Override
+    public String getName() {
+        return "nio";
+    }
+
+    @Override
+    public void start(ChatServerInterface server) throws IOException {
+        this.server = server;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        selectorThread = new Thread(this::runSelector, "NIO-Selector");
+        selectorThread.start();
+
+        logger.info("NIO transport listening on port " + port);
+    }
+
+    @Override
+    public void stop() {
+        try {
+            selector.close();
+            serverChannel.close();
+        } catch (IOException e) {
+            logger.warning("Error stopping NIO transport: " + e.getMessage());
+        }
+        handlers.shutdownNow();
+    }
+
+    void requestWrite(NioConnection connection) {
+        writeRequests.add(connection);
+        selector.wakeup();
+    }
+
+    void close(NioConnection connection) {
+        connection.close();
+    }
+
+    private void runSelector() {
+        try {
+            while (selector.isOpen()) {
+                selector.select();
+                registerWrites();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+            }
+        } catch (ClosedSelectorException e) {
+            // Stopped
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "NIO selector failed", e);
+        }
+    }
+
+    private void registerWrites() {
+        NioConnection connection;
+        while ((connection = writeRequests.poll()) != null) {
+            SelectionKey key = connection.getKey();
+            if (key.isValid()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+
+        NioConnection connection = (NioConnection) key.attachment();
+        try {
+            if (key.isReadable()) {
+                for (byte[] frame : connection.read()) {
+                    handlers.execute(() -> process(connection, frame));
+                }
+            }
+            // Frames queued after the write re-register through requestWrite
+            if (key.isValid() && key.isWritable() && connection.write()) {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        } catch (IOException e) {
+            logger.fine("Closing NIO connection: " + e.getMessage());
+            connection.close();
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new NioConnection(this, channel, key, maxPendingBytes));
+        } catch (IOException e) {
+            logger.warning("Failed to accept NIO connection: " + e.getMessage());
+        }
+    }
+
+    private void process(NioConnection connection, byte[] frame) {
+        Object message;
+        try {
+            message = NioProtocol.decode(frame);
+        } catch (IOException e) {
+            logger.warning("Closing NIO connection after undecodable frame: " + e.getMessage());
+            connection.close();
+            return;
+        }
+        if (message instanceof NioProtocol.Request request) {
+            process(connection, request);
+        }
+    }
+
+    private void process(NioConnection connection, NioProtocol.Request request) {
+        NioProtocol.Response response;
+        try {
+            response = new NioProtocol.Response(request.id(), invoke(connection, request), null);
+        } catch (RemoteException e) {
+            response = new NioProtocol.Response(request.id(), null, e);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "NIO request " + request.method() + " failed", e);
+            response = new NioProtocol.Response(request.id(), null, new RemoteException(e.toString()));
+        }
+
+        try {
+            connection.send(response);
+        } catch (ObjectStreamException e) {
+            logger.warning("Could not serialize response to " + request.method() + ": " + e.getMessage());
+            sendQuietly(connection, new NioProtocol.Response(request.id(), null,
+                    new RemoteException("Response could not be serialized")));
+        } catch (IOException e) {
+            logger.fine("Could not send response: " + e.getMessage());
+        }
+    }
+
+    private void sendQuietly(NioConnection connection, NioProtocol.Response response) {
+        try {
+            connection.send(response);
+        } catch (IOException e) {
+            logger.fine("Could not send response: " + e.getMessage());
+        }
+    }
+
+    private Object invoke(NioConnection connection, NioProtocol.Request request) throws RemoteException {
+        Method method = SERVER_METHODS.get(request.method());
+        if (method == null) {
+            throw new RemoteException("Unknown method " + request.method());
+        }
+
+        Object[] args = request.args() != null ? request.args() : new Object[0];
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] == NioProtocol.CallbackMarker.INSTANCE) {
+                args[i] = connection.getCallback();
+            }
+        }
+
+        try {
+            return method.invoke(server, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RemoteException remote) {
+                throw remote;
+            }
+            throw new RemoteException(String.valueOf(e.getCause()));
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            throw new RemoteException("Cannot invoke " + request.method(), e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package via.sep2.server.transport;
+
+import java.io.IOException;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.RMIClientSocketFactory;
+import java.rmi.server.RMIServerSocketFactory;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.logging.Logger;
+
+import via.sep2.shared.interfaces.ChatServerInterface;
+
+/**
+ * Exports the server and binds it in the RMI registry. Callbacks go over a
+ * separate RMI connection to each client.
+ */
+public class RmiTransport implements ChatTransport {
+
+    private static final Logger logger = Logger.getLogger(RmiTransport.class.getName());
+
+    private final String serverName;
+    private final int port;
+    private final RMIClientSocketFactory clientSocketFactory;
+    private final RMIServerSocketFactory serverSocketFactory;
+    private Registry registry;
+    private ChatServerInterface exported;
+
+    public RmiTransport(String serverName, int port) {
+        this(serverName, port, null, null);
+    }
+
+    /**
+     * Exports with the given socket factories; {@code null} factories use
+     * plain sockets.
+     */
+    public RmiTransport(String serverName, int port, RMIClientSocketFactory clientSocketFactory,
+            RMIServerSocketFactory serverSocketFactory) {
+        this.serverName = serverName;
+        this.port = port;
+        this.clientSocketFactory = clientSocketFactory;
+        this.serverSocketFactory = serverSocketFactory;
+    }
+
+    @Override
+    public String getName() {
+        return "rmi";
+    }
+
+    @Override
+    public void start(ChatServerInterface server) throws IOException {
+        UnicastRemoteObject.exportObject(server, 0, clientSocketFactory, serverSocketFactory);
+        exported = server;
+        registry = getOrCreateRegistry();
+        registry.rebind(serverName, server);
+
+        logger.info("Chat server bound to registry as '" + serverName + "'");
+        logger.info("Server URL: rmi://localhost:" + port + "/" + serverName);
+    }
+
+    @Override
+    public void stop() {
+        try {
+            registry.unbind(serverName);
+            UnicastRemoteObject.unexportObject(exported, true);
+            logger.info("Server unbound from registry");
+        } catch (Exception e) {
+            logger.warning("Error during shutdown: " + e.getMessage());
+        }
+    }
+
+    private Registry getOrCreateRegistry() throws RemoteException {
+        try {
+            Registry created = LocateRegistry.createRegistry(port);
+            logger.info("Created RMI registry on port " + port);
+            return created;
+        } catch (Exception e) {
+            Registry located = LocateRegistry.getRegistry(port);
+            logger.info("Located existing RMI registry on port " + port);
+            return located;
+        }
+    }
+}
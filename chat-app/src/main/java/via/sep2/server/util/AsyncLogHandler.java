@@ -0,0 +1,118 @@
+package via.sep2.server.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Hands log records to another handler on a background thread, so logging
+ * never waits for console or file output.
+ *
+ * Records go into a bounded ring buffer. When it is full the record is
+ * dropped instead of blocking the caller; the number of dropped records is
+ * logged once the writer catches up.
+ */
+public class AsyncLogHandler extends Handler {
+
+    private static final int WRITE_BATCH = 256;
+
+    private final Handler target;
+    private final BlockingQueue<LogRecord> buffer;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean closed = false;
+
+    public AsyncLogHandler(Handler target, int capacity) {
+        this.target = target;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        setLevel(target.getLevel());
+
+        this.writer = new Thread(this::writeLoop, "AsyncLog-Writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Replaces every handler of the root logger with an asynchronous
+     * wrapper around it.
+     */
+    public static void installOnRootLogger(int capacity) {
+        Logger root = Logger.getLogger("");
+        for (Handler handler : root.getHandlers()) {
+            if (!(handler instanceof AsyncLogHandler)) {
+                root.removeHandler(handler);
+                root.addHandler(new AsyncLogHandler(handler, capacity));
+            }
+        }
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+        // The source is found by walking the stack, which only works on the logging thread
+        record.getSourceClassName();
+
+        if (!buffer.offer(record)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void flush() {
+        // The writer flushes after every batch
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeBatch(new ArrayList<>(buffer));
+        buffer.clear();
+        target.close();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void writeLoop() {
+        List<LogRecord> batch = new ArrayList<>(WRITE_BATCH);
+        while (!closed) {
+            try {
+                batch.add(buffer.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            buffer.drainTo(batch, WRITE_BATCH - 1);
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<LogRecord> batch) {
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            LogRecord notice = new LogRecord(Level.WARNING, "Log buffer full, dropped " + lost + " records");
+            notice.setLoggerName(AsyncLogHandler.class.getName());
+            target.publish(notice);
+        }
+        for (LogRecord record : batch) {
+            target.publish(record);
+        }
+        target.flush();
+    }
+}
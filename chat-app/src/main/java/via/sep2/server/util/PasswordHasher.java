@@ -18,6 +18,15 @@ public class PasswordHasher {
     private static PasswordHasher instance;
     private final SecureRandom secureRandom;
 
+    // Provider lookup is not free and factories are not thread-safe; keep one per thread
+    private final ThreadLocal<SecretKeyFactory> keyFactory = ThreadLocal.withInitial(() -> {
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("PBKDF2 is not available", e);
+        }
+    });
+
     private PasswordHasher() {
         this.secureRandom = new SecureRandom();
     }
@@ -67,9 +76,12 @@ public class PasswordHasher {
                     salt,
                     ITERATIONS,
                     KEY_LENGTH);
-            SecretKeyFactory factory = SecretKeyFactory.getInstance(ALGORITHM);
-            return factory.generateSecret(spec).getEncoded();
-        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            try {
+                return keyFactory.get().generateSecret(spec).getEncoded();
+            } finally {
+                spec.clearPassword();
+            }
+        } catch (InvalidKeySpecException e) {
             throw new RuntimeException("Error hashing password", e);
         }
     }
@@ -0,0 +1,65 @@
+package via.sep2.server.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password verification on a fixed number of threads sized to the CPU.
+ *
+ * PBKDF2 is deliberately expensive. Running it directly on RMI threads lets
+ * a burst of logins, such as every client reconnecting after a restart,
+ * start far more hashes than there are cores, and they all get slow
+ * together. Here at most one verification per core runs at a time, a
+ * bounded number wait their turn, and anything beyond that is rejected
+ * immediately so the caller can tell the client to retry.
+ */
+public class PasswordVerificationPool {
+
+    private final PasswordHasher passwordHasher;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    public PasswordVerificationPool(PasswordHasher passwordHasher, int threads, int queueCapacity,
+            long timeoutMillis) {
+        this.passwordHasher = passwordHasher;
+        this.timeoutMillis = timeoutMillis;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "PasswordVerifier-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Verifies a password against its stored hash and waits for the result.
+     *
+     * @throws RejectedExecutionException if too many verifications are
+     *                                    already waiting, or this one did not
+     *                                    finish in time
+     */
+    public boolean verify(String password, String storedHash) throws InterruptedException {
+        Future<Boolean> result = executor.submit(() -> passwordHasher.verifyPassword(password, storedHash));
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw new RejectedExecutionException("Password verification timed out", e);
+        } catch (ExecutionException e) {
+            // verifyPassword reports malformed hashes as a mismatch, so this is unexpected
+            throw new IllegalStateException("Password verification failed", e.getCause());
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
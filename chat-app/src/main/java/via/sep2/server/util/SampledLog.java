@@ -0,0 +1,43 @@
+package via.sep2.server.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Logs one in every {@code every} occurrences of a frequent event as a
+ * single {@code key=value} line, e.g.
+ * {@code event=message room=42 sender=alice fanOut=12 sampled=1/100}.
+ *
+ * Callers check {@link #shouldLog()} first, so an occurrence that is not
+ * sampled costs one counter increment and allocates nothing.
+ */
+public class SampledLog {
+
+    private final Logger logger;
+    private final Level level;
+    private final int every;
+    private final AtomicLong occurrences = new AtomicLong();
+
+    public SampledLog(Logger logger, Level level, int every) {
+        this.logger = logger;
+        this.level = level;
+        this.every = Math.max(1, every);
+    }
+
+    public boolean shouldLog() {
+        return logger.isLoggable(level) && occurrences.getAndIncrement() % every == 0;
+    }
+
+    /**
+     * Logs the event with alternating keys and values.
+     */
+    public void log(String event, Object... keyValues) {
+        StringBuilder line = new StringBuilder("event=").append(event);
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            line.append(' ').append(keyValues[i]).append('=').append(keyValues[i + 1]);
+        }
+        line.append(" sampled=1/").append(every);
+        logger.log(level, line.toString());
+    }
+}
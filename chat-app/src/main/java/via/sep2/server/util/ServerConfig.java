@@ -0,0 +1,62 @@
+package via.sep2.server.util;
+
+import java.util.logging.Logger;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+/**
+ * Read-only access to server settings. Values come from JVM system
+ * properties first, the process environment second and the {@code .env}
+ * file last, so tuning knobs can be overridden per deployment, or per run
+ * with {@code -DKEY=value}, without touching the file.
+ */
+public final class ServerConfig {
+
+    private static final Logger logger = Logger.getLogger(ServerConfig.class.getName());
+
+    private static final Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+
+    private ServerConfig() {
+    }
+
+    public static String get(String key) {
+        String value = System.getProperty(key);
+        return value != null ? value : dotenv.get(key);
+    }
+
+    public static String get(String key, String defaultValue) {
+        String value = get(key);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            logger.warning("Invalid integer for " + key + ": '" + value + "', using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            logger.warning("Invalid number for " + key + ": '" + value + "', using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
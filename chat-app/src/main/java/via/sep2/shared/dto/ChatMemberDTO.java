@@ -1,6 +1,9 @@
 package via.sep2.shared.dto;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -9,9 +12,9 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class ChatMemberDTO implements Serializable {
+public class ChatMemberDTO implements Externalizable {
 
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
 
     private int roomId;
     private String username;
@@ -30,4 +33,22 @@ public class ChatMemberDTO implements Serializable {
     public boolean canInviteUsers() {
         return role != MemberRole.MEMBER; // only admins and creator can invite
     }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeInt(roomId);
+        ExternalFormat.writeString(out, username);
+        ExternalFormat.writeEnum(out, role);
+        out.writeLong(joinedTimestamp);
+        ExternalFormat.writeString(out, invitedBy);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        roomId = in.readInt();
+        username = ExternalFormat.readString(in);
+        role = ExternalFormat.readEnum(in, MemberRole.values());
+        joinedTimestamp = in.readLong();
+        invitedBy = ExternalFormat.readString(in);
+    }
 }
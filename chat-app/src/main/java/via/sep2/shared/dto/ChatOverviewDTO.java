@@ -0,0 +1,35 @@
+package via.sep2.shared.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row of a user's chat list: the chat, its latest message and how many
+ * messages the user has not read yet. For direct chats {@code name} is the
+ * other participant.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChatOverviewDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private ChatRoomType type;
+    private int chatId;
+    private String name;
+    private String description;
+    private long createdTimestamp;
+    private int lastMessageId;
+    private String lastMessageContent;
+    private String lastMessageSender;
+    private long lastMessageTimestamp;
+    private int unreadCount;
+
+    public boolean hasLastMessage() {
+        return lastMessageId > 0;
+    }
+}
@@ -1,6 +1,9 @@
 package via.sep2.shared.dto;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.List;
 
 import lombok.AllArgsConstructor;
@@ -10,9 +13,9 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class ChatRoomDTO implements Serializable {
+public class ChatRoomDTO implements Externalizable {
 
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
 
     private int id;
     private String name;
@@ -68,4 +71,32 @@ public class ChatRoomDTO implements Serializable {
     public boolean canUserManage(String username) {
         return username.equals(creatorUsername) || isUserAdmin(username);
     }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeInt(id);
+        ExternalFormat.writeString(out, name);
+        ExternalFormat.writeEnum(out, type);
+        ExternalFormat.writeString(out, creatorUsername);
+        out.writeLong(createdTimestamp);
+        ExternalFormat.writeStrings(out, members);
+        ExternalFormat.writeStrings(out, admins);
+        ExternalFormat.writeString(out, description);
+        out.writeBoolean(isPrivate);
+        out.writeInt(maxMembers);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        id = in.readInt();
+        name = ExternalFormat.readString(in);
+        type = ExternalFormat.readEnum(in, ChatRoomType.values());
+        creatorUsername = ExternalFormat.readString(in);
+        createdTimestamp = in.readLong();
+        members = ExternalFormat.readStrings(in);
+        admins = ExternalFormat.readStrings(in);
+        description = ExternalFormat.readString(in);
+        isPrivate = in.readBoolean();
+        maxMembers = in.readInt();
+    }
 }
@@ -1,6 +1,9 @@
 package via.sep2.shared.dto;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -9,9 +12,14 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class DirectChatDTO implements Serializable {
+public class DirectChatDTO implements Externalizable {
 
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
+
+    private static final int USER1_ARCHIVED = 1;
+    private static final int USER2_ARCHIVED = 2;
+    private static final int USER1_BLOCKED = 4;
+    private static final int USER2_BLOCKED = 8;
 
     private int id;
     private String user1Username;
@@ -44,4 +52,31 @@ public class DirectChatDTO implements Serializable {
         }
         return false;
     }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeInt(id);
+        ExternalFormat.writeString(out, user1Username);
+        ExternalFormat.writeString(out, user2Username);
+        out.writeLong(createdTimestamp);
+        out.writeLong(lastMessageTimestamp);
+        out.writeByte((user1Archived ? USER1_ARCHIVED : 0)
+                | (user2Archived ? USER2_ARCHIVED : 0)
+                | (user1Blocked ? USER1_BLOCKED : 0)
+                | (user2Blocked ? USER2_BLOCKED : 0));
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        id = in.readInt();
+        user1Username = ExternalFormat.readString(in);
+        user2Username = ExternalFormat.readString(in);
+        createdTimestamp = in.readLong();
+        lastMessageTimestamp = in.readLong();
+        int flags = in.readByte();
+        user1Archived = (flags & USER1_ARCHIVED) != 0;
+        user2Archived = (flags & USER2_ARCHIVED) != 0;
+        user1Blocked = (flags & USER1_BLOCKED) != 0;
+        user2Blocked = (flags & USER2_BLOCKED) != 0;
+    }
 }
@@ -0,0 +1,25 @@
+package via.sep2.shared.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import via.sep2.shared.event.JournaledEvent;
+
+/**
+ * Events a client missed, oldest first. When {@code complete} is false the
+ * journal no longer holds everything after the requested position, and the
+ * client has to reload instead.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventReplayDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<JournaledEvent> events;
+    private boolean complete;
+}
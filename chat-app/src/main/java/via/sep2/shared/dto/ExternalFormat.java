@@ -0,0 +1,103 @@
+package via.sep2.shared.dto;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Field encodings shared by the {@link java.io.Externalizable} DTOs.
+ *
+ * Strings are written as UTF-8 with a length prefix, so unlike
+ * {@code writeUTF} they may be null and longer than 64 KB. Enums are written
+ * as their ordinal, which is safe because client and server are built from
+ * the same sources.
+ *
+ * Lengths read from a stream are checked against fixed limits before
+ * anything is allocated, so a corrupt or forged stream fails with an
+ * {@link InvalidObjectException} instead of an out-of-memory error.
+ */
+final class ExternalFormat {
+
+    private static final int NULL_LENGTH = -1;
+
+    // Far above anything client or server produce
+    static final int MAX_STRING_BYTES = 1 << 20;
+    static final int MAX_LIST_SIZE = 100_000;
+
+    private ExternalFormat() {
+    }
+
+    static void writeString(ObjectOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ObjectInput in) throws IOException {
+        int length = readLength(in, MAX_STRING_BYTES);
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeStrings(ObjectOutput out, List<String> values) throws IOException {
+        if (values == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    static List<String> readStrings(ObjectInput in) throws IOException {
+        int size = readLength(in, MAX_LIST_SIZE);
+        if (size == NULL_LENGTH) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    static void writeEnum(ObjectOutput out, Enum<?> value) throws IOException {
+        out.writeByte(value != null ? value.ordinal() : NULL_LENGTH);
+    }
+
+    static <E extends Enum<E>> E readEnum(ObjectInput in, E[] values) throws IOException {
+        int ordinal = in.readByte();
+        if (ordinal == NULL_LENGTH) {
+            return null;
+        }
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new InvalidObjectException("Invalid enum ordinal " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    /**
+     * Reads a length or element count written by this class: {@code -1} for
+     * null, otherwise between {@code 0} and {@code max}.
+     */
+    static int readLength(ObjectInput in, int max) throws IOException {
+        int length = in.readInt();
+        if (length != NULL_LENGTH && (length < 0 || length > max)) {
+            throw new InvalidObjectException("Invalid length " + length + ", expected -1 to " + max);
+        }
+        return length;
+    }
+}
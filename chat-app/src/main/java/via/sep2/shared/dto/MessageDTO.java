@@ -1,6 +1,9 @@
 package via.sep2.shared.dto;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -8,9 +11,12 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class MessageDTO implements Serializable {
+public class MessageDTO implements Externalizable {
 
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
+
+    private static final int EDITED = 1;
+    private static final int DELETED = 2;
 
     private int id;
     private int roomId;
@@ -45,4 +51,39 @@ public class MessageDTO implements Serializable {
     public boolean canUserDelete(String username) {
         return username.equals(senderUsername) && !isDeleted;
     }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        ExternalFormat.writeString(out, senderUsername);
+        writeFields(out);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        senderUsername = ExternalFormat.readString(in);
+        readFields(in);
+    }
+
+    // Everything but the sender, which MessagePage writes to its string table
+    void writeFields(ObjectOutput out) throws IOException {
+        out.writeInt(id);
+        out.writeInt(roomId);
+        ExternalFormat.writeString(out, content);
+        out.writeLong(timestamp);
+        out.writeByte((isEdited ? EDITED : 0) | (isDeleted ? DELETED : 0));
+        if (isEdited) {
+            out.writeLong(editedTimestamp);
+        }
+    }
+
+    void readFields(ObjectInput in) throws IOException {
+        id = in.readInt();
+        roomId = in.readInt();
+        content = ExternalFormat.readString(in);
+        timestamp = in.readLong();
+        int flags = in.readByte();
+        isEdited = (flags & EDITED) != 0;
+        isDeleted = (flags & DELETED) != 0;
+        editedTimestamp = isEdited ? in.readLong() : 0;
+    }
 }
@@ -0,0 +1,104 @@
+package via.sep2.shared.dto;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A list of messages with a compact wire format, returned wherever the
+ * server sends a page of chat history.
+ *
+ * A page is mostly a handful of people talking, so each sender's username
+ * is written once to a table and every message refers to it by index. The
+ * messages themselves are written field by field without per-object class
+ * descriptors. On either side it behaves as an ordinary mutable list.
+ */
+public class MessagePage extends AbstractList<MessageDTO> implements RandomAccess, Externalizable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<MessageDTO> messages;
+
+    public MessagePage() {
+        this.messages = new ArrayList<>();
+    }
+
+    public MessagePage(List<MessageDTO> messages) {
+        this.messages = new ArrayList<>(messages);
+    }
+
+    @Override
+    public MessageDTO get(int index) {
+        return messages.get(index);
+    }
+
+    @Override
+    public MessageDTO set(int index, MessageDTO message) {
+        return messages.set(index, message);
+    }
+
+    @Override
+    public void add(int index, MessageDTO message) {
+        messages.add(index, message);
+        modCount++;
+    }
+
+    @Override
+    public MessageDTO remove(int index) {
+        modCount++;
+        return messages.remove(index);
+    }
+
+    @Override
+    public int size() {
+        return messages.size();
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        Map<String, Integer> senderIndex = new HashMap<>();
+        List<String> senders = new ArrayList<>();
+        for (MessageDTO message : messages) {
+            if (!senderIndex.containsKey(message.getSenderUsername())) {
+                senderIndex.put(message.getSenderUsername(), senders.size());
+                senders.add(message.getSenderUsername());
+            }
+        }
+
+        ExternalFormat.writeStrings(out, senders);
+        out.writeInt(messages.size());
+        for (MessageDTO message : messages) {
+            out.writeInt(senderIndex.get(message.getSenderUsername()));
+            message.writeFields(out);
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        List<String> senders = ExternalFormat.readStrings(in);
+        int size = ExternalFormat.readLength(in, ExternalFormat.MAX_LIST_SIZE);
+        if (senders == null || size < 0) {
+            throw new InvalidObjectException("Message page without senders or messages");
+        }
+
+        messages = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int sender = in.readInt();
+            if (sender < 0 || sender >= senders.size()) {
+                throw new InvalidObjectException("Invalid sender index " + sender);
+            }
+            MessageDTO message = new MessageDTO();
+            message.setSenderUsername(senders.get(sender));
+            message.readFields(in);
+            messages.add(message);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package via.sep2.shared.dto;
+
+public enum PresenceStatus {
+    ONLINE,
+    // Connection dropped recently; the session may still be resumed
+    AWAY,
+    OFFLINE
+}
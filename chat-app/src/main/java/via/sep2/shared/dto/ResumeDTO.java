@@ -0,0 +1,30 @@
+package via.sep2.shared.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import via.sep2.shared.event.JournaledEvent;
+
+/**
+ * Result of resuming a session: the user and what they missed while the
+ * client was away, oldest first. That is either every missed event from the
+ * server's event journal or, when the journal no longer covers the gap, the
+ * messages posted to their chats. When {@code complete} is false more was
+ * missed than the server replays, and the client has to reload its chats
+ * instead.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResumeDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private UserDTO user;
+    private List<JournaledEvent> missedEvents;
+    private List<MessageDTO> missedMessages;
+    private boolean complete;
+}
@@ -0,0 +1,22 @@
+package via.sep2.shared.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A logged-in user and the token that lets the client log in again without
+ * the password, e.g. after a dropped connection.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SessionDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String token;
+    private UserDTO user;
+}
@@ -4,15 +4,36 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class UserDTO implements Serializable {
+public class UserDTO implements Externalizable {
+
+    private static final long serialVersionUID = 2L;
 
     private int id;
     private String username;
     private String firstName;
     private String lastName;
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeInt(id);
+        ExternalFormat.writeString(out, username);
+        ExternalFormat.writeString(out, firstName);
+        ExternalFormat.writeString(out, lastName);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        id = in.readInt();
+        username = ExternalFormat.readString(in);
+        firstName = ExternalFormat.readString(in);
+        lastName = ExternalFormat.readString(in);
+    }
 }
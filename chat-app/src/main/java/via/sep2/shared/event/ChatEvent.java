@@ -0,0 +1,84 @@
+package via.sep2.shared.event;
+
+import java.io.Serializable;
+import java.rmi.RemoteException;
+
+import via.sep2.shared.dto.ChatRoomDTO;
+import via.sep2.shared.dto.DirectChatDTO;
+import via.sep2.shared.dto.MessageDTO;
+import via.sep2.shared.dto.UserDTO;
+import via.sep2.shared.interfaces.ChatClientCallbackInterface;
+
+/**
+ * A notification for one user, in a form that can be kept in the server's
+ * event journal and sent again later. Each event replays itself through the
+ * matching method of {@link ChatClientCallbackInterface}, so clients handle
+ * live and replayed events the same way.
+ */
+public sealed interface ChatEvent extends Serializable {
+
+    void deliverTo(ChatClientCallbackInterface client) throws RemoteException;
+
+    record MessageReceived(MessageDTO message) implements ChatEvent {
+        @Override
+        public void deliverTo(ChatClientCallbackInterface client) throws RemoteException {
+            client.onMessageReceived(message);
+        }
+    }
+
+    record MessageEdited(MessageDTO message) implements ChatEvent {
+        @Override
+        public void deliverTo(ChatClientCallbackInterface client) throws RemoteException {
+            client.onMessageEdited(message);
+        }
+    }
+
+    record MessageDeleted(int messageId, int roomId) implements ChatEvent {
+        @Override
+        public void deliverTo(ChatClientCallbackInterface client) throws RemoteException {
+            client.onMessageDeleted(messageId, roomId);
+        }
+    }
+
+    record DirectChatCreated(DirectChatDTO directChat) implements ChatEvent {
+        @Override
+        public void deliverTo(ChatClientCallbackInterface client) throws RemoteException {
+            client.onDirectChatCreated(directChat);
+        }
+    }
+
+    record GroupChatCreated(ChatRoomDTO groupChat) implements ChatEvent {
+        @Override
+        public void deliverTo(ChatClientCallbackInterface client) throws RemoteException {
+            client.onGroupChatCreated(groupChat);
+        }
+    }
+
+    record UserJoinedGroup(int roomId, UserDTO user, String invitedBy) implements ChatEvent {
+        @Override
+        public void deliverTo(ChatClientCallbackInterface client) throws RemoteException {
+            client.onUserJoinedGroup(roomId, user, invitedBy);
+        }
+    }
+
+    record UserLeftGroup(int roomId, UserDTO user, boolean wasRemoved, String removedBy) implements ChatEvent {
+        @Override
+        public void deliverTo(ChatClientCallbackInterface client) throws RemoteException {
+            client.onUserLeftGroup(roomId, user, wasRemoved, removedBy);
+        }
+    }
+
+    record PromotedToAdmin(int roomId, UserDTO user, String promotedBy) implements ChatEvent {
+        @Override
+        public void deliverTo(ChatClientCallbackInterface client) throws RemoteException {
+            client.onPromotedToAdmin(roomId, user, promotedBy);
+        }
+    }
+
+    record DemotedFromAdmin(int roomId, UserDTO user, String demotedBy) implements ChatEvent {
+        @Override
+        public void deliverTo(ChatClientCallbackInterface client) throws RemoteException {
+            client.onDemotedFromAdmin(roomId, user, demotedBy);
+        }
+    }
+}
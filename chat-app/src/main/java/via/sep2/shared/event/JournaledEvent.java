@@ -0,0 +1,10 @@
+package via.sep2.shared.event;
+
+import java.io.Serializable;
+
+/**
+ * An event with its position in the recipient's journal. Sequence numbers
+ * only ever grow, but are not contiguous for a single user.
+ */
+public record JournaledEvent(long sequence, ChatEvent event) implements Serializable {
+}
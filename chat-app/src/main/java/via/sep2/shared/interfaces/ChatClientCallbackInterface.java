@@ -2,12 +2,22 @@ package via.sep2.shared.interfaces;
 
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.List;
+import java.util.Map;
 import via.sep2.shared.dto.ChatRoomDTO;
 import via.sep2.shared.dto.DirectChatDTO;
 import via.sep2.shared.dto.MessageDTO;
+import via.sep2.shared.dto.PresenceStatus;
 import via.sep2.shared.dto.UserDTO;
+import via.sep2.shared.event.JournaledEvent;
 
 public interface ChatClientCallbackInterface extends Remote {
+    // Every notification the server sends; the event replays itself through the methods below
+    void onEvent(JournaledEvent event) throws RemoteException;
+
+    // Several events in the order they happened, sent in one call when they pile up
+    void onEvents(List<JournaledEvent> events) throws RemoteException;
+
     // Message notifications
     void onMessageReceived(MessageDTO message) throws RemoteException;
 
@@ -39,6 +49,13 @@ public interface ChatClientCallbackInterface extends Remote {
     void onDemotedFromAdmin(int roomId, UserDTO user, String demotedBy)
             throws RemoteException;
 
+    // Presence of contacts that changed since the last call; not journaled
+    void onPresenceChanged(Map<String, PresenceStatus> changes)
+            throws RemoteException;
+
     // System notifications
     void onDisconnect(String reason) throws RemoteException;
+
+    // Liveness check from the server; does nothing but return
+    void ping() throws RemoteException;
 }
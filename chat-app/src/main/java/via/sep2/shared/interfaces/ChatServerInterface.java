@@ -3,16 +3,44 @@ package via.sep2.shared.interfaces;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
 import java.util.List;
+import java.util.Map;
 import via.sep2.shared.dto.ChatMemberDTO;
+import via.sep2.shared.dto.ChatOverviewDTO;
 import via.sep2.shared.dto.ChatRoomDTO;
 import via.sep2.shared.dto.DirectChatDTO;
+import via.sep2.shared.dto.EventReplayDTO;
 import via.sep2.shared.dto.MessageDTO;
+import via.sep2.shared.dto.PresenceStatus;
+import via.sep2.shared.dto.ResumeDTO;
+import via.sep2.shared.dto.SessionDTO;
 import via.sep2.shared.dto.UserDTO;
 
 public interface ChatServerInterface extends Remote {
         // Authentication
         UserDTO login(String username, String password) throws RemoteException;
 
+        // Logs in and issues a token for loginWithToken
+        SessionDTO openSession(String username, String password) throws RemoteException;
+
+        UserDTO loginWithToken(String sessionToken) throws RemoteException;
+
+        void endSession(String sessionToken) throws RemoteException;
+
+        // Sent periodically by logged-in clients; false if the session is not
+        // the user's or the server no longer has a callback registered for them
+        boolean heartbeat(String username, String sessionToken) throws RemoteException;
+
+        // Logs in with a session token, registers the callback and returns
+        // the events after lastEventSequence, or the messages posted after
+        // lastSeenMessageId if those events are no longer journaled
+        ResumeDTO resume(
+                        String sessionToken,
+                        int lastSeenMessageId,
+                        long lastEventSequence,
+                        ChatClientCallbackInterface client) throws RemoteException;
+
+        EventReplayDTO getEventsSince(String username, long sequence) throws RemoteException;
+
         UserDTO createAccount(
                         String username,
                         String password,
@@ -27,6 +55,12 @@ public interface ChatServerInterface extends Remote {
         List<UserDTO> searchUsers(String searchTerm, int limit)
                         throws RemoteException;
 
+        // Contacts of the user that are online or away; everyone else is offline
+        Map<String, PresenceStatus> getPresence(String username) throws RemoteException;
+
+        // Chat list: direct and group chats with last message and unread count
+        List<ChatOverviewDTO> getChatOverview(String username) throws RemoteException;
+
         // Direct chat
         DirectChatDTO createDirectChat(String user1, String user2)
                         throws RemoteException;
@@ -90,6 +124,19 @@ public interface ChatServerInterface extends Remote {
         List<MessageDTO> getDirectChatMessages(int directChatId, int limit)
                         throws RemoteException;
 
+        // Paged history; chatId is negative for direct chats, a cursor of 0 means no cursor
+        List<MessageDTO> getMessagesBefore(int chatId, int beforeMessageId, int limit)
+                        throws RemoteException;
+
+        List<MessageDTO> getMessagesAfter(int chatId, int afterMessageId, int limit)
+                        throws RemoteException;
+
+        // Oldest first and at most one server page; continue with getMessagesAfter
+        List<MessageDTO> getMessagesSince(int chatId, long timestamp) throws RemoteException;
+
+        // Read receipts; chatId is negative for direct chats
+        void markRead(String username, int chatId, int messageId) throws RemoteException;
+
         // Client callback registration
         void registerClient(String username, ChatClientCallbackInterface client)
                         throws RemoteException;
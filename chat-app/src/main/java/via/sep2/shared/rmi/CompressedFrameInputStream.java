@@ -0,0 +1,109 @@
+package via.sep2.shared.rmi;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the frames written by {@link CompressedFrameOutputStream}.
+ *
+ * Frame lengths come from the peer, so they are checked against
+ * {@link CompressedFrameOutputStream#MAX_FRAME_BYTES} before anything is
+ * allocated.
+ */
+class CompressedFrameInputStream extends InputStream {
+
+    // Room for what a codec adds to incompressible data
+    private static final int MAX_COMPRESSED_FRAME_BYTES =
+            CompressedFrameOutputStream.MAX_FRAME_BYTES + CompressedFrameOutputStream.MAX_FRAME_BYTES / 64;
+
+    private final DataInputStream frames;
+    private final FrameCodec.Decompressor decompressor;
+
+    private byte[] frame = new byte[0];
+    private int position = 0;
+
+    CompressedFrameInputStream(InputStream in, FrameCodec codec) {
+        this.frames = new DataInputStream(new BufferedInputStream(in, 8192));
+        this.decompressor = codec.newDecompressor();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return frame[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int count = Math.min(len, frame.length - position);
+        System.arraycopy(frame, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return frame.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            frames.close();
+        } finally {
+            decompressor.close();
+        }
+    }
+
+    // Reads the next frame once the current one is used up; false at end of stream
+    private boolean fill() throws IOException {
+        while (position == frame.length) {
+            int kind;
+            try {
+                kind = frames.readUnsignedByte();
+            } catch (EOFException e) {
+                return false;
+            }
+
+            int length = checkLength(frames.readInt(), CompressedFrameOutputStream.MAX_FRAME_BYTES);
+            frame = switch (kind) {
+                case CompressedFrameOutputStream.RAW -> readFully(length);
+                case CompressedFrameOutputStream.COMPRESSED -> decompress(length,
+                        checkLength(frames.readInt(), MAX_COMPRESSED_FRAME_BYTES));
+                default -> throw new IOException("Unknown frame kind " + kind);
+            };
+            position = 0;
+        }
+        return true;
+    }
+
+    private byte[] readFully(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        frames.readFully(bytes);
+        return bytes;
+    }
+
+    private byte[] decompress(int length, int compressedLength) throws IOException {
+        byte[] output = new byte[length];
+        decompressor.decompress(readFully(compressedLength), output);
+        return output;
+    }
+
+    private static int checkLength(int length, int max) throws IOException {
+        if (length < 0 || length > max) {
+            throw new IOException("Invalid frame length " + length + ", the limit is " + max);
+        }
+        return length;
+    }
+}
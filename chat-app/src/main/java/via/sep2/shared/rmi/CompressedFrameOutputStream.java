@@ -0,0 +1,98 @@
+package via.sep2.shared.rmi;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Buffers everything written until {@link #flush()} and sends it as one
+ * frame. Frames of at least {@code threshold} bytes are compressed with the
+ * connection's codec, smaller ones are sent as they are. Output larger than
+ * {@link #MAX_FRAME_BYTES} is split into several frames.
+ *
+ * RMI flushes after every call and return, so a frame is usually one
+ * request or one reply.
+ */
+class CompressedFrameOutputStream extends FilterOutputStream {
+
+    static final int RAW = 0;
+    static final int COMPRESSED = 1;
+
+    // Largest frame either end sends or accepts, before compression
+    static final int MAX_FRAME_BYTES = 1024 * 1024;
+
+    private final int threshold;
+    private final FrameCodec.Compressor compressor;
+    private final DataOutputStream frames;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(8192);
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream(8192);
+
+    CompressedFrameOutputStream(OutputStream out, int threshold, FrameCodec codec) {
+        super(out);
+        this.threshold = threshold;
+        this.compressor = codec.newCompressor();
+        // One write per frame; RMI turns Nagle off, so every write would be its own packet
+        this.frames = new DataOutputStream(new BufferedOutputStream(out, 8192));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        pending.write(b);
+        if (pending.size() >= MAX_FRAME_BYTES) {
+            writeFrame();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int count = Math.min(len, MAX_FRAME_BYTES - pending.size());
+            pending.write(b, off, count);
+            off += count;
+            len -= count;
+            if (pending.size() >= MAX_FRAME_BYTES) {
+                writeFrame();
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (pending.size() > 0) {
+            writeFrame();
+        }
+        frames.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            compressor.close();
+        }
+    }
+
+    private void writeFrame() throws IOException {
+        int length = pending.size();
+        if (length < threshold) {
+            frames.writeByte(RAW);
+            frames.writeInt(length);
+            pending.writeTo(frames);
+            pending.reset();
+            return;
+        }
+
+        compressed.reset();
+        compressor.compress(pending.toByteArray(), length, compressed);
+
+        frames.writeByte(COMPRESSED);
+        frames.writeInt(length);
+        frames.writeInt(compressed.size());
+        compressed.writeTo(frames);
+        pending.reset();
+    }
+}
@@ -0,0 +1,48 @@
+package via.sep2.shared.rmi;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.Socket;
+import java.rmi.server.RMIClientSocketFactory;
+
+/**
+ * Client half of the compressed RMI transport. It travels inside the stub
+ * of every object exported with {@link CompressingServerSocketFactory}, so
+ * callers pick it up without configuring anything.
+ */
+public class CompressingClientSocketFactory implements RMIClientSocketFactory, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int threshold;
+    private final FrameCodec codec;
+
+    /**
+     * @param threshold smallest request or reply, in bytes, that is compressed
+     */
+    public CompressingClientSocketFactory(int threshold) {
+        this(threshold, new DeflateCodec());
+    }
+
+    public CompressingClientSocketFactory(int threshold, FrameCodec codec) {
+        this.threshold = threshold;
+        this.codec = codec;
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        return new CompressingSocket(host, port, threshold, codec);
+    }
+
+    // RMI reuses connections only between equal factories
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CompressingClientSocketFactory other && other.threshold == threshold
+                && other.codec.equals(codec);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Integer.hashCode(threshold) + codec.hashCode();
+    }
+}
@@ -0,0 +1,49 @@
+package via.sep2.shared.rmi;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.rmi.server.RMIServerSocketFactory;
+
+/**
+ * Server half of the compressed RMI transport, to be paired with a
+ * {@link CompressingClientSocketFactory} when exporting an object.
+ */
+public class CompressingServerSocketFactory implements RMIServerSocketFactory {
+
+    private final int threshold;
+    private final FrameCodec codec;
+
+    public CompressingServerSocketFactory(int threshold) {
+        this(threshold, new DeflateCodec());
+    }
+
+    public CompressingServerSocketFactory(int threshold, FrameCodec codec) {
+        this.threshold = threshold;
+        this.codec = codec;
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port) throws IOException {
+        return new ServerSocket(port) {
+            @Override
+            public Socket accept() throws IOException {
+                Socket socket = new CompressingSocket(threshold, codec);
+                implAccept(socket);
+                return socket;
+            }
+        };
+    }
+
+    // RMI shares a listening port between objects exported with equal factories
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CompressingServerSocketFactory other && other.threshold == threshold
+                && other.codec.equals(codec);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Integer.hashCode(threshold) + codec.hashCode();
+    }
+}
@@ -0,0 +1,62 @@
+package via.sep2.shared.rmi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+
+/**
+ * Socket whose streams exchange compressed frames. Both ends of a connection
+ * must use it with equal codecs.
+ */
+class CompressingSocket extends Socket {
+
+    private final int threshold;
+    private final FrameCodec codec;
+    private InputStream in;
+    private OutputStream out;
+
+    // Unconnected, for ServerSocket.implAccept
+    CompressingSocket(int threshold, FrameCodec codec) {
+        this.threshold = threshold;
+        this.codec = codec;
+    }
+
+    CompressingSocket(String host, int port, int threshold, FrameCodec codec) throws IOException {
+        super(host, port);
+        this.threshold = threshold;
+        this.codec = codec;
+    }
+
+    @Override
+    public synchronized InputStream getInputStream() throws IOException {
+        if (in == null) {
+            in = new CompressedFrameInputStream(super.getInputStream(), codec);
+        }
+        return in;
+    }
+
+    @Override
+    public synchronized OutputStream getOutputStream() throws IOException {
+        if (out == null) {
+            out = new CompressedFrameOutputStream(super.getOutputStream(), threshold, codec);
+        }
+        return out;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (out != null) {
+                out.close();
+            }
+            if (in != null) {
+                in.close();
+            }
+        } catch (IOException e) {
+            // Closing the socket below is what matters
+        } finally {
+            super.close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package via.sep2.shared.rmi;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate at its fastest level. The deflater is kept for the whole
+ * connection and each frame ends with a sync flush, so later frames reuse
+ * the dictionary built from earlier ones.
+ */
+public final class DeflateCodec implements FrameCodec {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public Compressor newCompressor() {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        byte[] chunk = new byte[8192];
+
+        return new Compressor() {
+            @Override
+            public void compress(byte[] input, int length, ByteArrayOutputStream out) {
+                deflater.setInput(input, 0, length);
+                int written;
+                do {
+                    written = deflater.deflate(chunk, 0, chunk.length, Deflater.SYNC_FLUSH);
+                    out.write(chunk, 0, written);
+                } while (written == chunk.length);
+            }
+
+            @Override
+            public void close() {
+                deflater.end();
+            }
+        };
+    }
+
+    @Override
+    public Decompressor newDecompressor() {
+        Inflater inflater = new Inflater();
+        byte[] probe = new byte[1];
+
+        return new Decompressor() {
+            @Override
+            public void decompress(byte[] input, byte[] output) throws IOException {
+                inflater.setInput(input);
+                int produced = 0;
+                try {
+                    while (produced < output.length) {
+                        int count = inflater.inflate(output, produced, output.length - produced);
+                        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                            throw new IOException("Truncated compressed frame");
+                        }
+                        produced += count;
+                    }
+                    // Consumes the sync flush marker; anything beyond it means the header lied
+                    if (inflater.inflate(probe) > 0 || inflater.getRemaining() > 0) {
+                        throw new IOException("Compressed frame is longer than its header says");
+                    }
+                } catch (DataFormatException e) {
+                    throw new IOException("Corrupt compressed frame", e);
+                }
+            }
+
+            @Override
+            public void close() {
+                inflater.end();
+            }
+        };
+    }
+
+    // One instance is as good as another; factories compare codecs when RMI reuses connections
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof DeflateCodec;
+    }
+
+    @Override
+    public int hashCode() {
+        return DeflateCodec.class.getName().hashCode();
+    }
+}
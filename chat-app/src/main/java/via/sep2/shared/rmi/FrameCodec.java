@@ -0,0 +1,44 @@
+package via.sep2.shared.rmi;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * Compression applied to the frames of the compressed RMI transport. The
+ * codec travels inside {@link CompressingClientSocketFactory}, so it must be
+ * serializable, and both ends of a connection must use equal codecs.
+ *
+ * Every connection gets its own compressor and decompressor, which may keep
+ * state such as a dictionary from one frame to the next.
+ */
+public interface FrameCodec extends Serializable {
+
+    Compressor newCompressor();
+
+    Decompressor newDecompressor();
+
+    interface Compressor extends AutoCloseable {
+
+        // Appends the compressed form of the first length bytes of input to out
+        void compress(byte[] input, int length, ByteArrayOutputStream out) throws IOException;
+
+        @Override
+        void close();
+    }
+
+    interface Decompressor extends AutoCloseable {
+
+        /**
+         * Decompresses one frame into {@code output}, which has the size the
+         * frame header announced.
+         *
+         * @throws IOException if the input is corrupt or does not decompress
+         *                     to exactly {@code output.length} bytes
+         */
+        void decompress(byte[] input, byte[] output) throws IOException;
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,109 @@
+package via.sep2.shared.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Wire format of the framed socket transport.
+ *
+ * A single client-initiated connection carries both directions: the client
+ * sends {@link Request}s for {@code ChatServerInterface} methods and gets a
+ * {@link Response} with the same id, while the server sends {@link Push}es
+ * for {@code ChatClientCallbackInterface} methods whenever it likes. Every
+ * frame is a four byte length followed by the serialized message. Methods
+ * are named by their signature, so both sides resolve them from the same
+ * interface.
+ *
+ * Frames arrive from unauthenticated sockets, so decoding only accepts the
+ * protocol's own messages, the shared DTOs and events and the
+ * {@code java.lang}, {@code java.util} and {@code java.rmi} types they are
+ * built from, within fixed limits on nesting, object count and array size.
+ */
+public final class NioProtocol {
+
+    public static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+
+    private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=20;maxrefs=500000;maxarray=100000;maxbytes=" + MAX_FRAME_BYTES
+                    + ";via.sep2.shared.transport.NioProtocol$*"
+                    + ";via.sep2.shared.dto.*;via.sep2.shared.event.*;via.sep2.shared.exception.*"
+                    + ";java.lang.*;java.util.*;java.rmi.*;java.io.IOException;!*");
+
+    public record Request(long id, String method, Object[] args) implements Serializable {
+    }
+
+    public record Response(long id, Object result, Throwable error) implements Serializable {
+    }
+
+    public record Push(String method, Object[] args) implements Serializable {
+    }
+
+    /**
+     * Stands in for the client's callback object in request arguments; the
+     * server replaces it with a callback that pushes over the connection.
+     */
+    public enum CallbackMarker {
+        INSTANCE
+    }
+
+    private NioProtocol() {
+    }
+
+    /**
+     * The frame for {@code message}, length prefix included, ready to be
+     * written.
+     */
+    public static ByteBuffer encode(Object message) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        bytes.write(new byte[Integer.BYTES]);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(message);
+        }
+
+        ByteBuffer frame = ByteBuffer.wrap(bytes.toByteArray());
+        int length = frame.remaining() - Integer.BYTES;
+        if (length > MAX_FRAME_BYTES) {
+            throw new IOException("Frame of " + length + " bytes exceeds the limit of " + MAX_FRAME_BYTES);
+        }
+        frame.putInt(0, length);
+        return frame;
+    }
+
+    /**
+     * Decodes a frame body, without its length prefix. Classes outside the
+     * allowlist fail with an {@link java.io.InvalidClassException}.
+     */
+    public static Object decode(byte[] body) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(body))) {
+            in.setObjectInputFilter(FILTER);
+            return in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown message type", e);
+        }
+    }
+
+    public static String methodKey(Method method) {
+        return method.getName() + Arrays.stream(method.getParameterTypes())
+                .map(Class::getName)
+                .collect(Collectors.joining(",", "(", ")"));
+    }
+
+    public static Map<String, Method> methodsOf(Class<?> type) {
+        Map<String, Method> methods = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            methods.put(methodKey(method), method);
+        }
+        return methods;
+    }
+}
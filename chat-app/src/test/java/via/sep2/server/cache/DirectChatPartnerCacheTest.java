@@ -0,0 +1,42 @@
+package via.sep2.server.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class DirectChatPartnerCacheTest {
+
+    private final DirectChatPartnerCache cache = new DirectChatPartnerCache(10);
+
+    @Test
+    void newChatIsAddedToLoadedPartners() {
+        cache.putIfUnchanged("alice", Set.of("bob"), cache.getWriteStamp());
+
+        cache.addChat("alice", "carol");
+
+        assertEquals(Set.of("bob", "carol"), cache.getPartners("alice"));
+        assertNull(cache.getPartners("carol"));
+    }
+
+    @Test
+    void loadThatRacedWithANewChatIsNotCached() {
+        long stamp = cache.getWriteStamp();
+        cache.addChat("alice", "carol");
+
+        cache.putIfUnchanged("alice", Set.of("bob"), stamp);
+
+        assertNull(cache.getPartners("alice"));
+    }
+
+    @Test
+    void invalidateDropsTheUser() {
+        cache.putIfUnchanged("alice", Set.of("bob"), cache.getWriteStamp());
+
+        cache.invalidate("alice");
+
+        assertNull(cache.getPartners("alice"));
+    }
+}
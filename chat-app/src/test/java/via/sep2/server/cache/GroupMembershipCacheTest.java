@@ -0,0 +1,87 @@
+package via.sep2.server.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import via.sep2.shared.dto.MemberRole;
+
+class GroupMembershipCacheTest {
+
+    private final GroupMembershipCache cache = new GroupMembershipCache(2);
+
+    @Test
+    void roomsAreUnknownUntilMarkedComplete() {
+        load(1, "alice", "bob");
+
+        assertNull(cache.getRoomsForUser("alice"));
+    }
+
+    @Test
+    void completeUserGetsRoomsFromTheIndex() {
+        long stamp = cache.getWriteStamp();
+        load(1, "alice", "bob");
+        cache.markRoomsComplete("alice", Set.of(1), stamp);
+
+        assertEquals(Set.of(1), cache.getRoomsForUser("alice"));
+    }
+
+    @Test
+    void joiningAnUncachedRoomMakesTheUserIncomplete() {
+        long stamp = cache.getWriteStamp();
+        load(1, "alice");
+        cache.markRoomsComplete("alice", Set.of(1), stamp);
+
+        cache.addMember(7, "alice", MemberRole.MEMBER);
+
+        assertNull(cache.getRoomsForUser("alice"));
+    }
+
+    @Test
+    void joiningACachedRoomKeepsTheUserComplete() {
+        long stamp = cache.getWriteStamp();
+        load(1, "alice");
+        load(2, "bob");
+        cache.markRoomsComplete("alice", Set.of(1), stamp);
+
+        cache.addMember(2, "alice", MemberRole.MEMBER);
+
+        assertEquals(Set.of(1, 2), cache.getRoomsForUser("alice"));
+    }
+
+    @Test
+    void evictingARoomMakesItsMembersIncomplete() {
+        long stamp = cache.getWriteStamp();
+        load(1, "alice");
+        cache.markRoomsComplete("alice", Set.of(1), stamp);
+
+        load(2, "bob");
+        load(3, "carol");
+
+        assertNull(cache.getRoomsForUser("alice"));
+    }
+
+    @Test
+    void markIsIgnoredAfterAConcurrentChange() {
+        long stamp = cache.getWriteStamp();
+        load(1, "alice");
+        cache.removeMember(1, "bob");
+
+        cache.markRoomsComplete("alice", Set.of(1), stamp);
+
+        assertNull(cache.getRoomsForUser("alice"));
+    }
+
+    private void load(int roomId, String... usernames) {
+        Map<String, MemberRole> members = new HashMap<>();
+        for (String username : usernames) {
+            members.put(username, MemberRole.MEMBER);
+        }
+        cache.putIfUnchanged(roomId, members, cache.getWriteStamp());
+    }
+}
@@ -0,0 +1,35 @@
+package via.sep2.server.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import org.junit.jupiter.api.Test;
+
+import via.sep2.shared.dto.UserDTO;
+
+class UserProfileCacheTest {
+
+    private final UserProfileCache cache = new UserProfileCache(10, 60_000);
+
+    @Test
+    void changingAReturnedProfileDoesNotChangeTheCache() {
+        cache.putIfUnchanged(new UserDTO(7, "alice", "Alice", "Smith"), cache.getWriteStamp());
+
+        UserDTO first = cache.getByUsername("alice");
+        first.setFirstName("Mallory");
+
+        UserDTO second = cache.getById(7);
+        assertNotSame(first, second);
+        assertEquals("Alice", second.getFirstName());
+    }
+
+    @Test
+    void changingTheStoredProfileAfterwardsDoesNotChangeTheCache() {
+        UserDTO loaded = new UserDTO(7, "alice", "Alice", "Smith");
+        cache.putIfUnchanged(loaded, cache.getWriteStamp());
+
+        loaded.setLastName("Jones");
+
+        assertEquals("Smith", cache.getByUsername("alice").getLastName());
+    }
+}
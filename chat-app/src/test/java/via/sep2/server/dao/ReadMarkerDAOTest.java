@@ -0,0 +1,71 @@
+package via.sep2.server.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import via.sep2.server.dao.ReadMarkerDAO.PendingChange;
+
+class ReadMarkerDAOTest {
+
+    @Test
+    void readingAnOlderMessageLeavesOnlyNewerOnesUnread() {
+        PendingChange change = new PendingChange();
+        change.increment(10);
+        change.increment(11);
+        change.increment(12);
+
+        change.markRead(11);
+
+        assertEquals(1, change.unreadDelta());
+        assertEquals(1, change.applyTo(5));
+    }
+
+    @Test
+    void readingTheNewestMessageClearsTheCount() {
+        PendingChange change = new PendingChange();
+        change.increment(10);
+        change.increment(11);
+
+        change.markRead(11);
+
+        assertEquals(0, change.applyTo(5));
+    }
+
+    @Test
+    void lateReceiptForAnOlderMessageIsIgnored() {
+        PendingChange change = new PendingChange();
+        change.increment(10);
+        change.increment(11);
+        change.markRead(11);
+        change.increment(12);
+
+        change.markRead(10);
+
+        assertEquals(1, change.applyTo(5));
+    }
+
+    @Test
+    void messagesWithoutAReceiptAddToTheStoredCount() {
+        PendingChange change = new PendingChange();
+        change.increment(10);
+        change.increment(11);
+
+        assertEquals(7, change.applyTo(5));
+    }
+
+    @Test
+    void mergingAFailedFlushKeepsOnlyMessagesAfterTheNewestReceipt() {
+        PendingChange older = new PendingChange();
+        older.increment(10);
+        older.increment(11);
+        older.increment(12);
+        PendingChange newer = new PendingChange();
+        newer.increment(13);
+        newer.markRead(11);
+
+        PendingChange merged = PendingChange.mergeNewer(newer, older);
+
+        assertEquals(2, merged.applyTo(5));
+    }
+}
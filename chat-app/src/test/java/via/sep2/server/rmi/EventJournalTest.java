@@ -0,0 +1,62 @@
+package via.sep2.server.rmi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import via.sep2.shared.dto.EventReplayDTO;
+import via.sep2.shared.event.ChatEvent;
+import via.sep2.shared.event.JournaledEvent;
+
+class EventJournalTest {
+
+    private final EventJournal journal = new EventJournal(100, 1000);
+
+    @AfterEach
+    void shutdown() {
+        journal.shutdown();
+    }
+
+    @Test
+    void sweepRemovesJournalsWhoseEventsExpired() {
+        journal.append("idle", new ChatEvent.MessageDeleted(1, 1));
+
+        journal.sweep(System.currentTimeMillis() + 2000);
+
+        assertEquals(0, journal.size());
+    }
+
+    @Test
+    void sweepKeepsJournalsWithRecentEvents() {
+        journal.append("active", new ChatEvent.MessageDeleted(1, 1));
+
+        journal.sweep(System.currentTimeMillis());
+
+        assertEquals(1, journal.size());
+    }
+
+    @Test
+    void replayAcrossASweptJournalIsIncomplete() {
+        JournaledEvent first = journal.append("idle", new ChatEvent.MessageDeleted(1, 1));
+        journal.append("idle", new ChatEvent.MessageDeleted(2, 1));
+
+        journal.sweep(System.currentTimeMillis() + 2000);
+
+        assertFalse(journal.since("idle", first.sequence()).isComplete());
+    }
+
+    @Test
+    void appendAfterASweepStartsAFreshJournal() {
+        JournaledEvent expired = journal.append("idle", new ChatEvent.MessageDeleted(1, 1));
+        journal.sweep(System.currentTimeMillis() + 2000);
+
+        JournaledEvent fresh = journal.append("idle", new ChatEvent.MessageDeleted(2, 1));
+
+        EventReplayDTO replay = journal.since("idle", expired.sequence());
+        assertTrue(replay.isComplete());
+        assertEquals(fresh, replay.getEvents().get(0));
+    }
+}
@@ -0,0 +1,24 @@
+package via.sep2.shared.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class ChatMemberDTOTest {
+
+    @Test
+    void roundTripKeepsEveryRole() throws Exception {
+        for (MemberRole role : MemberRole.values()) {
+            ChatMemberDTO member = new ChatMemberDTO(5, "bob", role, 1_700_000_000_000L, "alice");
+
+            assertEquals(member, RoundTrip.of(member));
+        }
+    }
+
+    @Test
+    void roundTripKeepsNullFields() throws Exception {
+        ChatMemberDTO member = new ChatMemberDTO(0, null, null, 0, null);
+
+        assertEquals(member, RoundTrip.of(member));
+    }
+}
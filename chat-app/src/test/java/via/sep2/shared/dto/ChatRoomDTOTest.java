@@ -0,0 +1,43 @@
+package via.sep2.shared.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ChatRoomDTOTest {
+
+    @Test
+    void roundTripKeepsGroupChat() throws Exception {
+        ChatRoomDTO room = new ChatRoomDTO(5, "Study group", ChatRoomType.GROUP, "alice", 1_700_000_000_000L,
+                List.of("alice", "bob", "carol"), List.of("alice"), "Exam prep", true, 50);
+
+        assertEquals(room, RoundTrip.of(room));
+    }
+
+    @Test
+    void roundTripKeepsDirectChat() throws Exception {
+        ChatRoomDTO room = new ChatRoomDTO(9, "bob", "alice", 1_700_000_000_000L);
+
+        assertEquals(room, RoundTrip.of(room));
+    }
+
+    @Test
+    void roundTripKeepsNullFields() throws Exception {
+        ChatRoomDTO room = new ChatRoomDTO(0, null, null, null, 0, null, null, null, false, 0);
+
+        assertEquals(room, RoundTrip.of(room));
+    }
+
+    @Test
+    void roundTripKeepsEmptyListsAndNullMembers() throws Exception {
+        List<String> members = new ArrayList<>();
+        members.add(null);
+        ChatRoomDTO room = new ChatRoomDTO(1, "", ChatRoomType.GROUP, "alice", 0, members, List.of(), "",
+                false, 0);
+
+        assertEquals(room, RoundTrip.of(room));
+    }
+}
@@ -0,0 +1,33 @@
+package via.sep2.shared.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class DirectChatDTOTest {
+
+    @Test
+    void roundTripKeepsAllFlags() throws Exception {
+        DirectChatDTO chat = new DirectChatDTO(3, "alice", "bob", 1_700_000_000_000L, 1_700_000_500_000L,
+                true, false, false, true);
+
+        assertEquals(chat, RoundTrip.of(chat));
+    }
+
+    @Test
+    void roundTripKeepsEachFlagSeparately() throws Exception {
+        for (int flags = 0; flags < 16; flags++) {
+            DirectChatDTO chat = new DirectChatDTO(3, "alice", "bob", 1, 2,
+                    (flags & 1) != 0, (flags & 2) != 0, (flags & 4) != 0, (flags & 8) != 0);
+
+            assertEquals(chat, RoundTrip.of(chat));
+        }
+    }
+
+    @Test
+    void roundTripKeepsNullFields() throws Exception {
+        DirectChatDTO chat = new DirectChatDTO(0, null, null, 0, 0, false, false, false, false);
+
+        assertEquals(chat, RoundTrip.of(chat));
+    }
+}
@@ -0,0 +1,89 @@
+package via.sep2.shared.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ExternalFormatTest {
+
+    @Test
+    void readsNullString() throws Exception {
+        assertNull(ExternalFormat.readString(inputOf(-1)));
+    }
+
+    @Test
+    void rejectsNegativeStringLength() {
+        assertThrows(InvalidObjectException.class, () -> ExternalFormat.readString(inputOf(-2)));
+    }
+
+    @Test
+    void rejectsHugeStringLength() {
+        assertThrows(InvalidObjectException.class, () -> ExternalFormat.readString(inputOf(Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void rejectsNegativeListSize() {
+        assertThrows(InvalidObjectException.class, () -> ExternalFormat.readStrings(inputOf(-5)));
+    }
+
+    @Test
+    void rejectsHugeListSize() {
+        assertThrows(InvalidObjectException.class,
+                () -> ExternalFormat.readStrings(inputOf(ExternalFormat.MAX_LIST_SIZE + 1)));
+    }
+
+    @Test
+    void rejectsUnknownEnumOrdinal() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeByte(MemberRole.values().length);
+        }
+        ObjectInput in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertThrows(InvalidObjectException.class, () -> ExternalFormat.readEnum(in, MemberRole.values()));
+    }
+
+    @Test
+    void rejectsMessagePageWithSenderOutOfRange() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            ExternalFormat.writeStrings(out, List.of("alice"));
+            out.writeInt(1);
+            out.writeInt(1);
+        }
+        ObjectInput in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertThrows(InvalidObjectException.class, () -> new MessagePage().readExternal(in));
+    }
+
+    @Test
+    void stringRoundTripKeepsEmptyString() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            ExternalFormat.writeString(out, "");
+        }
+        ObjectInput in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals("", ExternalFormat.readString(in));
+    }
+
+    // A stream holding just the given length prefix
+    private static ObjectInput inputOf(int length) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeInt(length);
+        }
+        return new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+}
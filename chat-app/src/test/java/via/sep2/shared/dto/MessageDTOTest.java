@@ -0,0 +1,37 @@
+package via.sep2.shared.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class MessageDTOTest {
+
+    @Test
+    void roundTripKeepsAllFields() throws Exception {
+        MessageDTO message = new MessageDTO(12, -3, "bob", "hi 👋", 1_700_000_000_000L, true,
+                1_700_000_100_000L, false);
+
+        assertEquals(message, RoundTrip.of(message));
+    }
+
+    @Test
+    void roundTripKeepsDeletedFlag() throws Exception {
+        MessageDTO message = new MessageDTO(12, 4, "bob", "gone", 1_700_000_000_000L, false, 0, true);
+
+        assertEquals(message, RoundTrip.of(message));
+    }
+
+    @Test
+    void roundTripKeepsNullFields() throws Exception {
+        MessageDTO message = new MessageDTO(0, 0, null, null, 0, false, 0, false);
+
+        assertEquals(message, RoundTrip.of(message));
+    }
+
+    @Test
+    void roundTripKeepsLongContent() throws Exception {
+        MessageDTO message = new MessageDTO(1, 1, "bob", "x".repeat(100_000), 1, false, 0, false);
+
+        assertEquals(message, RoundTrip.of(message));
+    }
+}
@@ -0,0 +1,52 @@
+package via.sep2.shared.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class MessagePageTest {
+
+    @Test
+    void roundTripKeepsMessagesInOrder() throws Exception {
+        MessagePage page = new MessagePage(List.of(
+                new MessageDTO(1, 4, "alice", "first", 1_000, false, 0, false),
+                new MessageDTO(2, 4, "bob", "second", 2_000, true, 2_500, false),
+                new MessageDTO(3, 4, "alice", "third", 3_000, false, 0, true)));
+
+        MessagePage copy = RoundTrip.of(page);
+
+        assertInstanceOf(MessagePage.class, copy);
+        assertEquals(page, copy);
+    }
+
+    @Test
+    void roundTripSharesRepeatedSenders() throws Exception {
+        MessagePage page = new MessagePage(List.of(
+                new MessageDTO(1, 4, "alice", "a", 1, false, 0, false),
+                new MessageDTO(2, 4, "alice", "b", 2, false, 0, false)));
+
+        MessagePage copy = RoundTrip.of(page);
+
+        assertSame(copy.get(0).getSenderUsername(), copy.get(1).getSenderUsername());
+    }
+
+    @Test
+    void roundTripKeepsEmptyPage() throws Exception {
+        MessagePage page = new MessagePage();
+
+        assertEquals(page, RoundTrip.of(page));
+    }
+
+    @Test
+    void roundTripKeepsNullFields() throws Exception {
+        MessagePage page = new MessagePage(List.of(
+                new MessageDTO(1, 4, null, null, 0, false, 0, false),
+                new MessageDTO(2, 4, "bob", null, 0, false, 0, false)));
+
+        assertEquals(page, RoundTrip.of(page));
+    }
+}
@@ -0,0 +1,36 @@
+package via.sep2.shared.dto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Writes an object with Java serialization and reads it back, the way RMI
+ * sends it.
+ */
+final class RoundTrip {
+
+    private RoundTrip() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T of(T value) throws IOException, ClassNotFoundException {
+        return (T) read(write(value));
+    }
+
+    static byte[] write(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Object read(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package via.sep2.shared.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class UserDTOTest {
+
+    @Test
+    void roundTripKeepsAllFields() throws Exception {
+        UserDTO user = new UserDTO(7, "alice", "Alice", "Ærøskøbing");
+
+        assertEquals(user, RoundTrip.of(user));
+    }
+
+    @Test
+    void roundTripKeepsNullFields() throws Exception {
+        UserDTO user = new UserDTO(0, null, null, null);
+
+        assertEquals(user, RoundTrip.of(user));
+    }
+}
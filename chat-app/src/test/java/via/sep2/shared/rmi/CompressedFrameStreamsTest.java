@@ -0,0 +1,118 @@
+package via.sep2.shared.rmi;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CompressedFrameStreamsTest {
+
+    private static final int THRESHOLD = 64;
+
+    @Test
+    void roundTripsSmallAndCompressedFrames() throws Exception {
+        byte[] small = "hello".getBytes(StandardCharsets.UTF_8);
+        byte[] large = "a fairly repetitive message ".repeat(200).getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        try (CompressedFrameOutputStream out = new CompressedFrameOutputStream(wire, THRESHOLD, new DeflateCodec())) {
+            out.write(small);
+            out.flush();
+            out.write(large);
+            out.flush();
+            out.write(large);
+            out.flush();
+        }
+
+        InputStream in = reader(wire.toByteArray());
+        assertArrayEquals(small, in.readNBytes(small.length));
+        assertArrayEquals(large, in.readNBytes(large.length));
+        assertArrayEquals(large, in.readNBytes(large.length));
+    }
+
+    @Test
+    void splitsOutputLargerThanOneFrame() throws Exception {
+        byte[] data = new byte[CompressedFrameOutputStream.MAX_FRAME_BYTES * 2 + 123];
+        new Random(42).nextBytes(data);
+
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        try (CompressedFrameOutputStream out = new CompressedFrameOutputStream(wire, THRESHOLD, new DeflateCodec())) {
+            out.write(data);
+            out.flush();
+        }
+
+        assertArrayEquals(data, reader(wire.toByteArray()).readAllBytes());
+    }
+
+    @Test
+    void rejectsNegativeLength() {
+        byte[] wire = header(CompressedFrameOutputStream.RAW, -2);
+
+        assertThrows(IOException.class, () -> reader(wire).read());
+    }
+
+    @Test
+    void rejectsLengthAboveLimit() {
+        byte[] wire = header(CompressedFrameOutputStream.RAW, Integer.MAX_VALUE);
+
+        assertThrows(IOException.class, () -> reader(wire).read());
+    }
+
+    @Test
+    void rejectsCompressedLengthAboveLimit() {
+        byte[] wire = header(CompressedFrameOutputStream.COMPRESSED, 10, Integer.MAX_VALUE);
+
+        assertThrows(IOException.class, () -> reader(wire).read());
+    }
+
+    @Test
+    void rejectsUnknownFrameKind() {
+        byte[] wire = header(7, 10);
+
+        assertThrows(IOException.class, () -> reader(wire).read());
+    }
+
+    @Test
+    void rejectsFrameThatInflatesToMoreThanItsHeaderSays() throws Exception {
+        byte[] data = "x".repeat(1000).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (FrameCodec.Compressor compressor = new DeflateCodec().newCompressor()) {
+            compressor.compress(data, data.length, body);
+        }
+
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        DataOutputStream frames = new DataOutputStream(wire);
+        frames.writeByte(CompressedFrameOutputStream.COMPRESSED);
+        frames.writeInt(data.length / 2);
+        frames.writeInt(body.size());
+        body.writeTo(frames);
+
+        assertThrows(IOException.class, () -> reader(wire.toByteArray()).read());
+    }
+
+    private static InputStream reader(byte[] wire) {
+        return new CompressedFrameInputStream(new ByteArrayInputStream(wire), new DeflateCodec());
+    }
+
+    private static byte[] header(int kind, int... lengths) {
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        DataOutputStream frames = new DataOutputStream(wire);
+        try {
+            frames.writeByte(kind);
+            for (int length : lengths) {
+                frames.writeInt(length);
+            }
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return wire.toByteArray();
+    }
+}
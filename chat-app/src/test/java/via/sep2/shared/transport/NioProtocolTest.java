@@ -0,0 +1,100 @@
+package via.sep2.shared.transport;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.InvalidClassException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import via.sep2.shared.dto.MessageDTO;
+import via.sep2.shared.dto.MessagePage;
+import via.sep2.shared.dto.PresenceStatus;
+import via.sep2.shared.dto.UserDTO;
+
+class NioProtocolTest {
+
+    @Test
+    void decodesRequestWithDtoArguments() throws Exception {
+        NioProtocol.Request request = new NioProtocol.Request(1, "sendMessage(via.sep2.shared.dto.MessageDTO)",
+                new Object[] { new MessageDTO(1, 2, "alice", "hi", 3, false, 0, false),
+                        NioProtocol.CallbackMarker.INSTANCE, 42, "text" });
+
+        NioProtocol.Request decoded = (NioProtocol.Request) roundTrip(request);
+
+        assertEquals(request.id(), decoded.id());
+        assertArrayEquals(request.args(), decoded.args());
+    }
+
+    @Test
+    void decodesResponsesWithCollectionsAndErrors() throws Exception {
+        Map<String, PresenceStatus> presence = new HashMap<>();
+        presence.put("bob", PresenceStatus.values()[0]);
+        List<UserDTO> users = new ArrayList<>(List.of(new UserDTO(1, "bob", "Bob", "B")));
+
+        MessagePage page = new MessagePage(List.of(new MessageDTO(1, 2, "alice", "hi", 3, false, 0, false)));
+
+        assertEquals(presence, resultOf(presence));
+        assertEquals(users, resultOf(users));
+        assertEquals(List.of("a"), resultOf(List.of("a")));
+        assertEquals(page, resultOf(page));
+
+        NioProtocol.Response failed = (NioProtocol.Response) roundTrip(
+                new NioProtocol.Response(5, null, new RemoteException("nope", new IllegalStateException())));
+        assertInstanceOf(RemoteException.class, failed.error());
+    }
+
+    @Test
+    void rejectsClassesOutsideTheAllowlist() throws Exception {
+        NioProtocol.Request request = new NioProtocol.Request(1, "m()",
+                new Object[] { URI.create("http://example.invalid/") });
+        byte[] body = body(request);
+
+        assertThrows(InvalidClassException.class, () -> NioProtocol.decode(body));
+    }
+
+    @Test
+    void rejectsOversizedArrays() throws Exception {
+        NioProtocol.Request request = new NioProtocol.Request(1, "m()", new Object[] { new int[200_000] });
+        byte[] body = body(request);
+
+        assertThrows(InvalidClassException.class, () -> NioProtocol.decode(body));
+    }
+
+    @Test
+    void rejectsDeepNesting() throws Exception {
+        List<Object> nested = new ArrayList<>();
+        List<Object> current = nested;
+        for (int i = 0; i < 50; i++) {
+            List<Object> next = new ArrayList<>();
+            current.add(next);
+            current = next;
+        }
+        byte[] body = body(new NioProtocol.Response(1, nested, null));
+
+        assertThrows(InvalidClassException.class, () -> NioProtocol.decode(body));
+    }
+
+    private static Object resultOf(Object result) throws Exception {
+        return ((NioProtocol.Response) roundTrip(new NioProtocol.Response(1, result, null))).result();
+    }
+
+    private static Object roundTrip(Object message) throws Exception {
+        return NioProtocol.decode(body(message));
+    }
+
+    private static byte[] body(Object message) throws Exception {
+        ByteBuffer frame = NioProtocol.encode(message);
+        return Arrays.copyOfRange(frame.array(), Integer.BYTES, frame.remaining());
+    }
+}
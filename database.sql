@@ -1,3 +1,5 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
 CREATE TABLE users (
     id SERIAL PRIMARY KEY,
     username VARCHAR(50) NOT NULL UNIQUE,
@@ -10,12 +12,19 @@ CREATE TABLE users (
 
 CREATE INDEX idx_users_username ON users(username);
 
+-- Trigram indexes serving the substring search in UserDAO.searchUsers
+CREATE INDEX idx_users_username_trgm ON users USING GIN (LOWER(username) gin_trgm_ops);
+CREATE INDEX idx_users_first_name_trgm ON users USING GIN (LOWER(first_name) gin_trgm_ops);
+CREATE INDEX idx_users_last_name_trgm ON users USING GIN (LOWER(last_name) gin_trgm_ops);
+CREATE INDEX idx_users_full_name_trgm ON users USING GIN (LOWER(first_name || ' ' || last_name) gin_trgm_ops);
+
 CREATE TABLE direct_chats (
     id SERIAL PRIMARY KEY,
     user1_username VARCHAR(50) NOT NULL,
     user2_username VARCHAR(50) NOT NULL,
     created_timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     last_message_timestamp TIMESTAMP,
+    last_message_id INTEGER, -- maintained by trg_update_direct_chat_last_message
     user1_archived BOOLEAN DEFAULT FALSE,
     user2_archived BOOLEAN DEFAULT FALSE,
     user1_blocked BOOLEAN DEFAULT FALSE,
@@ -45,6 +54,8 @@ CREATE TABLE group_chats (
     is_private BOOLEAN DEFAULT FALSE,
     max_members INTEGER DEFAULT 100,
     created_timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    last_message_timestamp TIMESTAMP,
+    last_message_id INTEGER, -- maintained by trg_update_group_chat_last_message
 
     CONSTRAINT fk_group_chats_creator FOREIGN KEY (creator_username)
         REFERENCES users(username) ON DELETE RESTRICT ON UPDATE CASCADE,
@@ -111,19 +122,27 @@ CREATE TABLE messages (
     CONSTRAINT chk_content_length CHECK (LENGTH(TRIM(content)) >= 1)
 );
 
-CREATE INDEX idx_messages_room_timestamp ON messages(room_id, timestamp DESC)
+CREATE INDEX idx_messages_room_timestamp ON messages(room_id, timestamp DESC, id DESC)
     WHERE room_id IS NOT NULL AND is_deleted = FALSE;
-CREATE INDEX idx_messages_direct_timestamp ON messages(direct_chat_id, timestamp DESC)
+CREATE INDEX idx_messages_direct_timestamp ON messages(direct_chat_id, timestamp DESC, id DESC)
     WHERE direct_chat_id IS NOT NULL AND is_deleted = FALSE;
 CREATE INDEX idx_messages_sender ON messages(sender_username);
 CREATE INDEX idx_messages_reply ON messages(reply_to_message_id);
 
+-- Denormalized last message per chat, so chat lists never scan messages
+ALTER TABLE direct_chats ADD CONSTRAINT fk_direct_chats_last_message FOREIGN KEY (last_message_id)
+    REFERENCES messages(id) ON DELETE SET NULL;
+ALTER TABLE group_chats ADD CONSTRAINT fk_group_chats_last_message FOREIGN KEY (last_message_id)
+    REFERENCES messages(id) ON DELETE SET NULL;
+
 CREATE OR REPLACE FUNCTION update_direct_chat_last_message()
 RETURNS TRIGGER AS $$
 BEGIN
     UPDATE direct_chats
-    SET last_message_timestamp = NEW.timestamp
-    WHERE id = NEW.direct_chat_id;
+    SET last_message_timestamp = NEW.timestamp,
+        last_message_id = NEW.id
+    WHERE id = NEW.direct_chat_id
+      AND (last_message_timestamp IS NULL OR last_message_timestamp <= NEW.timestamp);
     RETURN NEW;
 END;
 $$ LANGUAGE plpgsql;
@@ -134,6 +153,89 @@ CREATE TRIGGER trg_update_direct_chat_last_message
     WHEN (NEW.direct_chat_id IS NOT NULL)
     EXECUTE FUNCTION update_direct_chat_last_message();
 
+CREATE OR REPLACE FUNCTION update_group_chat_last_message()
+RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE group_chats
+    SET last_message_timestamp = NEW.timestamp,
+        last_message_id = NEW.id
+    WHERE id = NEW.room_id
+      AND (last_message_timestamp IS NULL OR last_message_timestamp <= NEW.timestamp);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_update_group_chat_last_message
+    AFTER INSERT ON messages
+    FOR EACH ROW
+    WHEN (NEW.room_id IS NOT NULL)
+    EXECUTE FUNCTION update_group_chat_last_message();
+
+-- When the last message of a chat is deleted, fall back to the one before it
+CREATE OR REPLACE FUNCTION refresh_chat_last_message()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.direct_chat_id IS NOT NULL THEN
+        UPDATE direct_chats
+        SET last_message_id = (
+            SELECT id FROM messages
+            WHERE direct_chat_id = NEW.direct_chat_id AND is_deleted = FALSE
+            ORDER BY timestamp DESC, id DESC
+            LIMIT 1
+        )
+        WHERE id = NEW.direct_chat_id AND last_message_id = NEW.id;
+    ELSE
+        UPDATE group_chats
+        SET last_message_id = (
+            SELECT id FROM messages
+            WHERE room_id = NEW.room_id AND is_deleted = FALSE
+            ORDER BY timestamp DESC, id DESC
+            LIMIT 1
+        )
+        WHERE id = NEW.room_id AND last_message_id = NEW.id;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_refresh_chat_last_message
+    AFTER UPDATE OF is_deleted ON messages
+    FOR EACH ROW
+    WHEN (NEW.is_deleted AND NOT OLD.is_deleted)
+    EXECUTE FUNCTION refresh_chat_last_message();
+
+-- Read position and unread counter of a user in a chat; exactly one of
+-- room_id / direct_chat_id is set. Written in batches by the server, which
+-- keeps the counters incrementally instead of counting messages.
+CREATE TABLE chat_read_markers (
+    id SERIAL PRIMARY KEY,
+    username VARCHAR(50) NOT NULL,
+    room_id INTEGER,
+    direct_chat_id INTEGER,
+    last_read_message_id INTEGER,
+    unread_count INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_read_markers_user FOREIGN KEY (username)
+        REFERENCES users(username) ON DELETE CASCADE ON UPDATE CASCADE,
+    CONSTRAINT fk_read_markers_room FOREIGN KEY (room_id)
+        REFERENCES group_chats(id) ON DELETE CASCADE,
+    CONSTRAINT fk_read_markers_direct_chat FOREIGN KEY (direct_chat_id)
+        REFERENCES direct_chats(id) ON DELETE CASCADE,
+    CONSTRAINT fk_read_markers_message FOREIGN KEY (last_read_message_id)
+        REFERENCES messages(id) ON DELETE SET NULL,
+
+    CONSTRAINT chk_read_marker_chat_type CHECK (
+        (room_id IS NOT NULL AND direct_chat_id IS NULL) OR
+        (room_id IS NULL AND direct_chat_id IS NOT NULL)
+    )
+);
+
+CREATE UNIQUE INDEX uk_read_markers_room ON chat_read_markers(username, room_id)
+    WHERE room_id IS NOT NULL;
+CREATE UNIQUE INDEX uk_read_markers_direct ON chat_read_markers(username, direct_chat_id)
+    WHERE direct_chat_id IS NOT NULL;
+
 -- User sessions table for tracking online status
 CREATE TABLE user_sessions (
     id SERIAL PRIMARY KEY,
@@ -184,9 +286,7 @@ SELECT
     m.content as last_message_content,
     m.sender_username as last_message_sender
 FROM direct_chats dc
-LEFT JOIN messages m ON dc.id = m.direct_chat_id
-    AND m.timestamp = dc.last_message_timestamp
-    AND m.is_deleted = FALSE
+LEFT JOIN messages m ON m.id = dc.last_message_id AND m.is_deleted = FALSE
 
 UNION ALL
 
@@ -195,27 +295,23 @@ SELECT
     gc.id as chat_id,
     gc.name as chat_name,
     gc.created_timestamp,
-    COALESCE(last_msg.last_timestamp, gc.created_timestamp) as last_message_timestamp,
-    last_msg.content as last_message_content,
-    last_msg.sender_username as last_message_sender
+    COALESCE(gc.last_message_timestamp, gc.created_timestamp) as last_message_timestamp,
+    m.content as last_message_content,
+    m.sender_username as last_message_sender
 FROM group_chats gc
-LEFT JOIN (
-    SELECT
-        room_id,
-        MAX(timestamp) as last_timestamp,
-        (array_agg(content ORDER BY timestamp DESC))[1] as content,
-        (array_agg(sender_username ORDER BY timestamp DESC))[1] as sender_username
-    FROM messages
-    WHERE room_id IS NOT NULL AND is_deleted = FALSE
-    GROUP BY room_id
-) last_msg ON gc.id = last_msg.room_id;
-
--- Function to get user's accessible chats
+LEFT JOIN messages m ON m.id = gc.last_message_id AND m.is_deleted = FALSE;
+
+-- Everything the chat list needs for one user, newest activity first
 CREATE OR REPLACE FUNCTION get_user_chats(p_username VARCHAR(50))
 RETURNS TABLE (
     chat_type VARCHAR(10),
     chat_id INTEGER,
     chat_name VARCHAR(255),
+    description TEXT,
+    created_timestamp TIMESTAMP,
+    last_message_id INTEGER,
+    last_message_content TEXT,
+    last_message_sender VARCHAR(50),
     last_message_timestamp TIMESTAMP,
     unread_count INTEGER
 ) AS $$
@@ -228,10 +324,17 @@ BEGIN
         CASE
             WHEN dc.user1_username = p_username THEN dc.user2_username
             ELSE dc.user1_username
-        END,
-        dc.last_message_timestamp,
-        0 -- TODO: Implement unread count logic
+        END::VARCHAR(255),
+        NULL::TEXT,
+        dc.created_timestamp,
+        m.id,
+        m.content,
+        m.sender_username,
+        COALESCE(dc.last_message_timestamp, dc.created_timestamp),
+        COALESCE(rm.unread_count, 0)
     FROM direct_chats dc
+    LEFT JOIN messages m ON m.id = dc.last_message_id AND m.is_deleted = FALSE
+    LEFT JOIN chat_read_markers rm ON rm.direct_chat_id = dc.id AND rm.username = p_username
     WHERE (dc.user1_username = p_username OR dc.user2_username = p_username)
       AND NOT (
           (dc.user1_username = p_username AND dc.user1_archived = TRUE) OR
@@ -244,21 +347,21 @@ BEGIN
     SELECT
         'group'::VARCHAR(10),
         gc.id,
-        gc.name,
-        COALESCE(last_msg.last_timestamp, gc.created_timestamp),
-        0 -- TODO: Implement unread count logic
-    FROM group_chats gc
-    INNER JOIN group_members gm ON gc.id = gm.room_id
-    LEFT JOIN (
-        SELECT
-            room_id,
-            MAX(timestamp) as last_timestamp
-        FROM messages
-        WHERE room_id IS NOT NULL AND is_deleted = FALSE
-        GROUP BY room_id
-    ) last_msg ON gc.id = last_msg.room_id
+        gc.name::VARCHAR(255),
+        gc.description,
+        gc.created_timestamp,
+        m.id,
+        m.content,
+        m.sender_username,
+        COALESCE(gc.last_message_timestamp, gc.created_timestamp),
+        COALESCE(rm.unread_count, 0)
+    FROM group_members gm
+    INNER JOIN group_chats gc ON gc.id = gm.room_id
+    LEFT JOIN messages m ON m.id = gc.last_message_id AND m.is_deleted = FALSE
+    LEFT JOIN chat_read_markers rm ON rm.room_id = gc.id AND rm.username = p_username
     WHERE gm.username = p_username
 
-    ORDER BY last_message_timestamp DESC NULLS LAST;
+    -- By position: the output column names would be ambiguous here
+    ORDER BY 9 DESC NULLS LAST;
 END;
 $$ LANGUAGE plpgsql;